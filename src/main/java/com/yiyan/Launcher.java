@@ -2,7 +2,15 @@ package com.yiyan;
 
 import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
 import com.yiyan.infrastructure.config.HttpClientConfig;
+import com.yiyan.config.CorpusProperties;
+import com.yiyan.config.DedupProperties;
+import com.yiyan.config.EventProperties;
+import com.yiyan.config.ExecutionProperties;
+import com.yiyan.config.HistoryProperties;
+import com.yiyan.config.MetricsProperties;
+import com.yiyan.config.PrefetchProperties;
 import com.yiyan.config.SchedulerProperties;
+import com.yiyan.config.WarmStartProperties;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -19,7 +27,9 @@ import org.springframework.scheduling.annotation.EnableScheduling;
  */
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties({ApiProperties.class, SchedulerProperties.class})
+@EnableConfigurationProperties({ApiProperties.class, SchedulerProperties.class, PrefetchProperties.class, ExecutionProperties.class,
+        HistoryProperties.class, CorpusProperties.class, DedupProperties.class, WarmStartProperties.class,
+        MetricsProperties.class, EventProperties.class})
 @Import(HttpClientConfig.class)
 @EnableAsync(proxyTargetClass = true)
 public class Launcher {
@@ -0,0 +1,38 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * 本地语料相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'corpus' 为前缀的配置项。
+ * 网络获取失败时，从这些本地文件中随机取出一句作为后备。
+ */
+@ConfigurationProperties(prefix = "corpus")
+@Data
+public class CorpusProperties {
+
+    /**
+     * 是否在网络获取失败时使用本地语料。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否把历史记录的各个分段也作为语料。
+     */
+    private boolean includeHistory = true;
+
+    /**
+     * 额外的语料文件位置，支持 "file:" 和 "classpath:" 前缀。每行一句，支持 "*:文本" 和
+     * "[时间] 文本 —— 作者" 两种格式。
+     */
+    private List<String> locations = List.of("classpath:一言.txt");
+
+    /**
+     * 随机抽到空行或超长文本时的最大重试次数。
+     */
+    private int maxAttempts = 8;
+}
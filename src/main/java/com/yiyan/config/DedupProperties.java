@@ -0,0 +1,41 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 近期重复"一言"过滤相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'dedup' 为前缀的配置项。
+ */
+@ConfigurationProperties(prefix = "dedup")
+@Data
+public class DedupProperties {
+
+    /**
+     * 是否过滤最近已展示过的"一言"。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 滑动窗口大小：记住最近展示过的这么多条"一言"。
+     */
+    private int windowSize = 512;
+
+    /**
+     * 一次获取中，因重复而额外重试的最大次数。用尽后本次获取失败。
+     */
+    private int maxRetries = 3;
+
+    /**
+     * 是否同时拒绝以前任何时候展示过的"一言"（按历史存储判断），而不仅是最近窗口中的。
+     */
+    private boolean rejectSeen = false;
+
+    /**
+     * 过滤统计信息的日志输出间隔。
+     */
+    private Duration reportInterval = Duration.ofMinutes(10);
+}
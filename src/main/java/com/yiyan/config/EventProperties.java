@@ -0,0 +1,72 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 异步事件投递相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'events' 为前缀的配置项。
+ */
+@ConfigurationProperties(prefix = "events")
+@Data
+public class EventProperties {
+
+    /**
+     * 每个监听器队列的默认容量。
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * 队列已满时的默认溢出策略。
+     */
+    private Overflow overflow = Overflow.BLOCK;
+
+    /**
+     * 应用关闭时等待各队列处理完剩余事件的最长时间。
+     */
+    private Duration drainTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 按监听器所在Bean的名称（如 uiController、fileSentenceLogger）单独配置，覆盖上面的默认值。
+     */
+    private Map<String, ListenerConfig> listeners = new HashMap<>();
+
+    /**
+     * 单个监听器的队列配置。
+     */
+    @Data
+    public static class ListenerConfig {
+        /**
+         * 队列容量，未配置时使用默认值。
+         */
+        private Integer queueCapacity;
+
+        /**
+         * 溢出策略，未配置时使用默认值。
+         */
+        private Overflow overflow;
+    }
+
+    /**
+     * 队列已满时的溢出策略。
+     */
+    public enum Overflow {
+        /**
+         * 发布线程等待队列出现空位，事件不会丢失。适用于持久化等不能丢数据的监听器。
+         */
+        BLOCK,
+        /**
+         * 丢弃队列中最旧的事件，放入新事件。适用于只关心最新状态的监听器，如界面。
+         */
+        DROP_OLDEST,
+        /**
+         * 丢弃新事件。
+         */
+        DROP_NEWEST
+    }
+}
@@ -0,0 +1,57 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 线程执行模型相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'execution' 为前缀的配置项。
+ * 所有阻塞的网络和文件I/O都通过同一个名为 "yiyan-io" 的执行器运行。
+ */
+@ConfigurationProperties(prefix = "execution")
+@Data
+public class ExecutionProperties {
+
+    /**
+     * I/O执行器的线程模式。
+     */
+    private Mode mode = Mode.AUTO;
+
+    /**
+     * 平台线程模式下I/O线程池的最大线程数。
+     */
+    private int ioPoolSize = 16;
+
+    /**
+     * 平台线程模式下I/O线程池的等待队列容量。
+     */
+    private int ioQueueCapacity = 256;
+
+    /**
+     * 调度器线程数，只运行定时器和轻量的周期任务。
+     */
+    private int schedulerPoolSize = 2;
+
+    /**
+     * 执行器统计信息的日志输出间隔。
+     */
+    private Duration reportInterval = Duration.ofMinutes(10);
+
+    public enum Mode {
+        /**
+         * 运行在 JDK 21 及以上时使用虚拟线程，否则使用平台线程池
+         */
+        AUTO,
+        /**
+         * 固定大小的平台线程池
+         */
+        PLATFORM,
+        /**
+         * 每个任务一个虚拟线程；JDK 21 以下不可用时回退到平台线程池
+         */
+        VIRTUAL
+    }
+}
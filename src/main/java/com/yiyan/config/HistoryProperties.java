@@ -0,0 +1,101 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * "一言"历史记录文件相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'history' 为前缀的配置项。
+ */
+@ConfigurationProperties(prefix = "history")
+@Data
+public class HistoryProperties {
+
+    /**
+     * 旧版的单文件历史记录路径。存在时会在首次启动时作为第一个分段迁移到分段目录。
+     */
+    private String file = "yiyan_log.txt";
+
+    /**
+     * 新分段的格式。切换格式后，下次启动时活动分段会被关闭，从新格式的分段开始写入。
+     */
+    private Format format = Format.TEXT;
+
+    /**
+     * 历史记录分段及其清单所在的目录。
+     */
+    private String segmentDirectory = "history/segments";
+
+    /**
+     * 活动分段超过这个大小后关闭并开始新的分段。
+     */
+    private DataSize segmentMaxSize = DataSize.ofMegabytes(4);
+
+    /**
+     * 活动分段开始写入超过这么长时间后关闭并开始新的分段。
+     */
+    private Duration segmentMaxAge = Duration.ofDays(7);
+
+    /**
+     * 是否在后台把关闭的分段压缩为 gzip。
+     */
+    private boolean compressSegments = true;
+
+    /**
+     * 等待写入的记录数上限。队列已满时新记录被丢弃并计数，获取流程不会因磁盘变慢而阻塞。
+     */
+    private int queueCapacity = 1024;
+
+    /**
+     * 累积到这么多条待写入记录时立即批量写入。0 表示只按时间间隔写入。
+     */
+    private int flushEveryEntries = 16;
+
+    /**
+     * 待写入记录的最长等待时间，到期后即使不足一批也写入。
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * 每次批量写入后是否调用 fsync 把数据刷到磁盘。关闭时只在应用退出时 fsync。
+     */
+    private boolean fsync = false;
+
+    /**
+     * 去重历史存储（记录日志和哈希索引）所在的目录。
+     */
+    private String storeDirectory = "history";
+
+    /**
+     * 哈希索引的初始槽位数，会向上取整为2的幂，装载超过70%时翻倍。
+     */
+    private int indexInitialCapacity = 4096;
+
+    /**
+     * 历史搜索索引快照的写入间隔。快照之后收录的记录会在启动时从文档日志补入。
+     */
+    private Duration searchSnapshotInterval = Duration.ofMinutes(10);
+
+    /**
+     * 历史搜索最多显示的结果条数。
+     */
+    private int searchMaxResults = 50;
+
+    /**
+     * 历史记录分段的格式。
+     */
+    public enum Format {
+        /**
+         * 每行 "[时间] 文本 —— 作者"，便于直接阅读
+         */
+        TEXT,
+        /**
+         * 紧凑的二进制格式：变长整数时间差、作者和来源字典编码、带长度前缀的UTF-8文本
+         */
+        BINARY
+    }
+}
@@ -0,0 +1,31 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 指标导出相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'metrics' 为前缀的配置项。
+ */
+@ConfigurationProperties(prefix = "metrics")
+@Data
+public class MetricsProperties {
+
+    /**
+     * 是否定期把指标导出到文件。关闭后指标仍在内存中记录。
+     */
+    private boolean exportEnabled = true;
+
+    /**
+     * 导出文件路径，内容为 Prometheus 文本格式，可由 node_exporter 的 textfile 收集器读取，也可直接查看。
+     */
+    private String exportFile = "logs/metrics.prom";
+
+    /**
+     * 导出间隔。
+     */
+    private Duration exportInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,41 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 预取缓冲区相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'prefetch' 为前缀的配置项。
+ */
+@ConfigurationProperties(prefix = "prefetch")
+@Data
+public class PrefetchProperties {
+
+    /**
+     * 是否启用预取缓冲区。关闭后每次刷新都直接请求网络。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缓冲区最多保存的"一言"数量。
+     */
+    private int capacity = 5;
+
+    /**
+     * 低水位线。缓冲区中的数量低于此值时触发后台补充。
+     */
+    private int lowWaterMark = 2;
+
+    /**
+     * 后台检查缓冲区水位的间隔，用于在补充失败后重试。
+     */
+    private Duration checkInterval = Duration.ofMinutes(1);
+
+    /**
+     * 缓冲区统计信息的日志输出间隔。
+     */
+    private Duration reportInterval = Duration.ofMinutes(10);
+}
@@ -3,6 +3,8 @@ package com.yiyan.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * 调度器相关配置属性。
  * <p>
@@ -21,4 +23,30 @@ public class SchedulerProperties {
      * 随机调度的最大延迟时间（秒）。
      */
     private long maxDelaySeconds = 15;
-} 
\ No newline at end of file
+
+    /**
+     * 执行间隔策略配置。
+     */
+    private IntervalConfig interval = new IntervalConfig();
+
+    /**
+     * 执行间隔策略配置。
+     */
+    @Data
+    public static class IntervalConfig {
+        /**
+         * 间隔策略："adaptive"（成功时随机间隔，连续失败时以去相关抖动快速退避）或 "random"（始终随机间隔）。
+         */
+        private String policy = "adaptive";
+
+        /**
+         * 退避的延迟上限。
+         */
+        private Duration maxBackoff = Duration.ofMinutes(10);
+
+        /**
+         * 退避倍数：每次失败后的延迟从 [最大随机延迟, 上次延迟 × 倍数] 中随机选取。
+         */
+        private double backoffMultiplier = 3.0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.yiyan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 热启动快照相关配置属性。
+ * <p>
+ * 从 application.yml 文件中读取以 'warm-start' 为前缀的配置项。
+ */
+@ConfigurationProperties(prefix = "warm-start")
+@Data
+public class WarmStartProperties {
+
+    /**
+     * 是否在退出时和运行中保存快照，并在启动时恢复。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 快照文件路径。
+     */
+    private String file = "history/warm-start.json";
+
+    /**
+     * 运行中定期保存快照的间隔，避免进程被强制结束时丢失。
+     */
+    private Duration saveInterval = Duration.ofMinutes(1);
+
+    /**
+     * 端点健康评分的可信时长。快照比这更旧时只恢复"一言"，端点评分从先验值重新开始。
+     */
+    private Duration healthMaxAge = Duration.ofHours(1);
+}
@@ -26,6 +26,11 @@ public class Sentence {
      */
     private String author;
 
+    /**
+     * “一言”的来源，例如提供它的API端点名称；未知时为null
+     */
+    private String source;
+
     /**
      * 工厂方法，用于创建一个新的Sentence实例。
      *
@@ -33,7 +38,7 @@ public class Sentence {
      * @return Sentence 实例
      */
     public static Sentence of(String text) {
-        return new Sentence(text, null);
+        return new Sentence(text, null, null);
     }
 
     /**
@@ -44,7 +49,29 @@ public class Sentence {
      * @return Sentence 实例
      */
     public static Sentence of(String text, String author) {
-        return new Sentence(text, author);
+        return new Sentence(text, author, null);
+    }
+
+    /**
+     * 工厂方法，用于创建一个新的Sentence实例。
+     *
+     * @param text   句子内容
+     * @param author 作者或出处
+     * @param source 来源，例如API端点名称
+     * @return Sentence 实例
+     */
+    public static Sentence of(String text, String author, String source) {
+        return new Sentence(text, author, source);
+    }
+
+    /**
+     * 返回一个带有指定来源的副本。
+     *
+     * @param source 来源，例如API端点名称
+     * @return 新的Sentence实例
+     */
+    public Sentence withSource(String source) {
+        return new Sentence(text, author, source);
     }
 
     @Override
@@ -0,0 +1,34 @@
+package com.yiyan.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 应用事件，在API端点列表加载或重新加载完成（包括未配置列表文件而使用空列表的情况）后发布。
+ * <p>
+ * 依赖端点列表的组件（如调度器）监听此事件开始工作，而不必轮询加载状态。
+ */
+@Getter
+public class ApiConfigLoadedEvent extends ApplicationEvent {
+
+    /**
+     * 加载的端点数量
+     */
+    private final int endpointCount;
+
+    /**
+     * 是否为运行中的重新加载（而非启动时的首次加载）
+     */
+    private final boolean reloaded;
+
+    /**
+     * @param source        事件源对象，通常是API配置加载器
+     * @param endpointCount 加载的端点数量
+     * @param reloaded      是否为运行中的重新加载
+     */
+    public ApiConfigLoadedEvent(Object source, int endpointCount, boolean reloaded) {
+        super(source);
+        this.endpointCount = endpointCount;
+        this.reloaded = reloaded;
+    }
+}
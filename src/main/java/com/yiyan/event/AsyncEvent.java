@@ -0,0 +1,10 @@
+package com.yiyan.event;
+
+/**
+ * 标记接口：实现此接口的应用事件不在发布线程中处理，而是放入每个监听器独立的有界队列，由监听器各自的线程依次处理。
+ * <p>
+ * 发布方因此不会被慢的监听器拖慢；队列已满时按该监听器配置的溢出策略处理（见 {@code events.listeners}）。
+ * 同一个监听器收到的事件顺序与发布顺序一致，不同监听器之间没有顺序保证。
+ */
+public interface AsyncEvent {
+}
@@ -8,23 +8,40 @@ import org.springframework.context.ApplicationEvent;
  * 应用事件，在成功获取到新的“一言”时发布。
  * <p>
  * 这是一种解耦机制，允许应用中的不同部分（如UI、日志记录）对同一事件做出响应，而无需直接相互调用。
+ * 事件异步投递（见 {@link AsyncEvent}），监听器的耗时不会影响获取流程。
  */
 @Getter
-public class SentenceFetchedEvent extends ApplicationEvent {
+public class SentenceFetchedEvent extends ApplicationEvent implements AsyncEvent {
 
     /**
      * 获取到的“一言”实体
      */
     private final Sentence sentence;
+    /**
+     * 开始获取时的 {@link System#nanoTime()}，用于统计从获取到显示的耗时
+     */
+    private final long fetchStartedNanos;
 
     /**
-     * 创建一个新的 SentenceFetchedEvent.
+     * 创建一个新的 SentenceFetchedEvent，以当前时刻作为开始获取的时间。
      *
      * @param source   事件源对象，通常是发布事件的服务。
      * @param sentence 获取到的“一言”数据。
      */
     public SentenceFetchedEvent(Object source, Sentence sentence) {
+        this(source, sentence, System.nanoTime());
+    }
+
+    /**
+     * 创建一个新的 SentenceFetchedEvent.
+     *
+     * @param source            事件源对象，通常是发布事件的服务。
+     * @param sentence          获取到的“一言”数据。
+     * @param fetchStartedNanos 开始获取时的 {@link System#nanoTime()}。
+     */
+    public SentenceFetchedEvent(Object source, Sentence sentence, long fetchStartedNanos) {
         super(source);
         this.sentence = sentence;
+        this.fetchStartedNanos = fetchStartedNanos;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.yiyan.event;
+
+import com.yiyan.domain.Sentence;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 应用事件，在启动时从热启动快照中恢复出上次展示的"一言"时发布。
+ * <p>
+ * 与 {@link SentenceFetchedEvent} 不同，恢复的"一言"已经记录过，只需要展示，不会再写入历史。
+ */
+@Getter
+public class SentenceRestoredEvent extends ApplicationEvent implements AsyncEvent {
+
+    /**
+     * 上次展示的"一言"
+     */
+    private final Sentence sentence;
+
+    /**
+     * 快照的保存时间（毫秒）
+     */
+    private final long savedAt;
+
+    /**
+     * @param source   事件源对象
+     * @param sentence 上次展示的"一言"
+     * @param savedAt  快照的保存时间（毫秒）
+     */
+    public SentenceRestoredEvent(Object source, Sentence sentence, long savedAt) {
+        super(source);
+        this.sentence = sentence;
+        this.savedAt = savedAt;
+    }
+}
@@ -0,0 +1,82 @@
+package com.yiyan.infrastructure.adapter;
+
+import com.yiyan.config.CorpusProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.api.health.ApiHealthReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 默认的 SentenceRepository：优先从网络API获取，失败时回退到本地语料。
+ * <p>
+ * 回退读取本地语料时需要映射历史分段，因此在I/O执行器中进行，不占用完成网络请求的 OkHttp 线程。
+ * 回退得到的"一言"来源为 {@link LocalCorpusSentenceRepository#SOURCE}，调用方据此区分网络获取是否失败。
+ * <p>
+ * 健康检查只针对网络API，直接委托给 {@link HttpSentenceRepository}。
+ */
+@Primary
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class CompositeSentenceRepository implements SentenceRepository {
+
+    /**
+     * 网络API数据仓库
+     */
+    private final HttpSentenceRepository remoteRepository;
+    /**
+     * 本地语料数据仓库，网络获取失败时使用
+     */
+    private final LocalCorpusSentenceRepository localRepository;
+    /**
+     * 本地语料配置属性
+     */
+    private final CorpusProperties corpusProperties;
+    /**
+     * 统一的I/O执行器，回退到本地语料时在其中读取
+     */
+    private final ExecutorService ioExecutor;
+
+    @Override
+    public Optional<Sentence> fetchRandomSentence(boolean skipValidation) {
+        Optional<Sentence> sentence = remoteRepository.fetchRandomSentence(skipValidation);
+        return sentence.isPresent() ? sentence : fallback(skipValidation);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Sentence>> fetchRandomSentenceAsync(boolean skipValidation) {
+        CompletableFuture<Optional<Sentence>> remote = remoteRepository.fetchRandomSentenceAsync(skipValidation);
+        CompletableFuture<Optional<Sentence>> result =
+                remote.thenCompose(sentence -> sentence.isPresent()
+                        ? CompletableFuture.completedFuture(sentence)
+                        : CompletableFuture.supplyAsync(() -> fallback(skipValidation), ioExecutor));
+        // 取消组合后的Future时，同时取消仍在进行中的网络请求
+        result.whenComplete((sentence, ex) -> {
+            if (ex instanceof CancellationException) {
+                remote.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<ApiHealthReport> checkAllApisAsync() {
+        return remoteRepository.checkAllApisAsync();
+    }
+
+    private Optional<Sentence> fallback(boolean skipValidation) {
+        if (!corpusProperties.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<Sentence> sentence = localRepository.fetchRandomSentence(skipValidation);
+        sentence.ifPresent(s -> log.info("📚 网络获取失败，使用本地语料: {}", s));
+        return sentence;
+    }
+}
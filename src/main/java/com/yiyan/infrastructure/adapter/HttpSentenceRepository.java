@@ -1,28 +1,34 @@
 package com.yiyan.infrastructure.adapter;
 
-import com.yiyan.infrastructure.adapter.api.parser.SentenceParser;
 import com.yiyan.domain.Sentence;
 import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
-import com.yiyan.infrastructure.adapter.api.parser.SentenceParserFactory;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.yiyan.infrastructure.adapter.api.health.ApiHealthReport;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStats;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import com.yiyan.infrastructure.adapter.api.health.FailureClass;
+import com.yiyan.infrastructure.adapter.api.health.NetworkStateMonitor;
+import com.yiyan.infrastructure.adapter.api.http.AttemptOutcome;
+import com.yiyan.infrastructure.adapter.api.http.EndpointCall;
+import com.yiyan.infrastructure.adapter.api.http.EndpointCallExecutor;
+import com.yiyan.infrastructure.adapter.api.http.EnqueueResult;
+import com.yiyan.infrastructure.adapter.api.selection.EndpointSelector;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-import okhttp3.ResponseBody;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
-import java.io.IOException;
-import java.util.Collections;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
-import org.springframework.scheduling.annotation.Async;
-
-import java.util.ArrayList;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * SentenceRepository 的HTTP实现，负责从外部API获取"一言"数据。
@@ -40,215 +46,422 @@ public class HttpSentenceRepository implements SentenceRepository {
      */
     private final ApiProperties apiProperties;
     /**
-     * OkHttp客户端，用于执行HTTP请求
+     * 端点请求执行器，负责发起单个请求并记录熔断器和统计信息
      */
-    private final OkHttpClient httpClient;
+    private final EndpointCallExecutor callExecutor;
     /**
-     * 解析器工厂，根据API配置动态提供合适的解析器实例
+     * 任务调度器，用于在对冲延迟后追加请求，以及自检的整体截止时间
      */
-    private final SentenceParserFactory parserFactory;
+    private final TaskScheduler taskScheduler;
+    /**
+     * 端点运行统计，记录对冲请求的胜负与耗时
+     */
+    private final EndpointStatsRegistry statsRegistry;
+    /**
+     * 端点选择策略，决定每次获取中各端点的尝试顺序
+     */
+    private final EndpointSelector endpointSelector;
+    /**
+     * 获取流程的指标
+     */
+    private final FetchMetrics fetchMetrics;
+    /**
+     * 网络状态监视器，负责网络错误后的冷却和恢复前的可达性探测
+     */
+    private final NetworkStateMonitor networkMonitor;
 
-    // 网络错误冷却状态
-    private volatile boolean networkErrorCooldown = false;
-    private volatile long networkErrorCooldownEndTimestamp = 0;
-    private static final long NETWORK_COOLDOWN_DURATION_MS = 10_000; // 10秒冷却
+    /**
+     * 同步获取"一言"，阻塞直到 {@link #fetchRandomSentenceAsync(boolean)} 完成。异步获取本身最多持续 {@link #syncTimeout()}，
+     * 这里的等待上限只是额外的保护，超时后取消获取（包括在途的请求）并返回空。
+     *
+     * @param skipValidation 如果为 true，则跳过业务逻辑校验。
+     * @return 返回一个包含Sentence的可选值。
+     */
+    @Override
+    public Optional<Sentence> fetchRandomSentence(boolean skipValidation) {
+        CompletableFuture<Optional<Sentence>> future = fetchRandomSentenceAsync(skipValidation);
+        Duration timeout = syncTimeout();
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Optional.empty();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.error("⏰ 获取在 {} 秒内没有结束，已取消。", timeout.toMillis() / 1000.0);
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            log.error("对冲请求过程中发生意外错误: {}", e.getCause().getMessage(), e.getCause());
+            return Optional.empty();
+        }
+    }
 
     /**
-     * 自定义的运行时异常，用于表示一个逻辑上的失败（例如，API返回的数据不符合预期），
-     * 这种失败不应该触发熔断器。
+     * 一次获取的持续时间上限：可达性探测的超时，加上每个端点的对冲延迟，
+     * 再加上按最大在途请求数分批时、每批请求最慢的连接和读取超时。
+     * 正常的获取远在此之前结束，这个上限只防止调用方（调度器、预取缓冲区）因为某个没有完成的回调而永远等待。
      */
-    private static class LogicalException extends RuntimeException {
-        public LogicalException(String message) {
-            super(message);
+    private Duration syncTimeout() {
+        List<ApiProperties.ApiEndpoint> endpoints = apiProperties.getEndpoints();
+        ApiProperties.TransportConfig transport = apiProperties.getTransport();
+        Duration slowest = transport.getConnectTimeout().plus(transport.getReadTimeout());
+        for (ApiProperties.ApiEndpoint endpoint : endpoints) {
+            Duration connect = endpoint.getConnectTimeout() != null ? endpoint.getConnectTimeout() : transport.getConnectTimeout();
+            Duration read = endpoint.getReadTimeout() != null ? endpoint.getReadTimeout() : transport.getReadTimeout();
+            if (connect.plus(read).compareTo(slowest) > 0) {
+                slowest = connect.plus(read);
+            }
         }
+        int maxInFlight = Math.max(1, apiProperties.getHedge().getMaxInFlight());
+        int waves = Math.max(1, (endpoints.size() + maxInFlight - 1) / maxInFlight);
+        return apiProperties.getNetwork().getProbeTimeout()
+                .plus(apiProperties.getHedge().getDelay().multipliedBy(endpoints.size()))
+                .plus(slowest.multipliedBy(waves));
     }
 
     /**
      * 实现从配置的API列表中随机获取一个"一言"的逻辑。
+     * <p>
+     * 端点按 {@link EndpointSelector} 给出的顺序以对冲方式请求：先发起 K 个请求，之后每隔一个对冲延迟追加一个，
+     * 某个请求失败时立即补上下一个端点。取最先返回的有效结果，并取消其余请求。
+     * 整个过程由 OkHttp 回调和对冲定时器驱动，没有线程阻塞等待网络。
+     * <p>
+     * 返回的 Future 最晚在 {@link #syncTimeout()} 后完成：到时仍未结束的获取被取消在途请求，并以空结果结束。
      *
      * @param skipValidation 如果为 true，则跳过业务逻辑校验。
-     * @return 返回一个包含Sentence的可选值。
-     * @throws IllegalStateException 如果API端点列表为空。
+     * @return 在获取结束后完成的 CompletableFuture。
      */
     @Override
-    public Optional<Sentence> fetchRandomSentence(boolean skipValidation) {
-        // 1. 检查是否处于网络错误冷却状态
-        if (isDuringCooldown()) {
-            return Optional.empty();
+    public CompletableFuture<Optional<Sentence>> fetchRandomSentenceAsync(boolean skipValidation) {
+        Duration timeout = syncTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        // 1. 检查网络状态：冷却中直接放弃，冷却结束时先等待可达性探测
+        CompletableFuture<Boolean> reachable = networkMonitor.checkReachable();
+        if (reachable.isDone()) {
+            return reachable.join() ? startFetch(skipValidation, timeout) : CompletableFuture.completedFuture(Optional.empty());
         }
+        return reachable
+                .thenCompose(ok -> {
+                    Duration remaining = Duration.ofNanos(deadline - System.nanoTime());
+                    return ok && !remaining.isNegative() && !remaining.isZero()
+                            ? startFetch(skipValidation, remaining)
+                            : CompletableFuture.completedFuture(Optional.<Sentence>empty());
+                })
+                .completeOnTimeout(Optional.empty(), timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
 
-        List<ApiProperties.ApiEndpoint> availableEndpoints = new ArrayList<>(apiProperties.getEndpoints());
-        if (availableEndpoints.isEmpty()) {
+    /**
+     * 开始一次对冲获取。
+     *
+     * @param timeout 获取的持续时间上限，到时取消在途请求并以空结果结束
+     */
+    private CompletableFuture<Optional<Sentence>> startFetch(boolean skipValidation, Duration timeout) {
+        List<ApiProperties.ApiEndpoint> endpoints = apiProperties.getEndpoints();
+        if (endpoints.isEmpty()) {
             log.warn("🤷‍ API列表为空，无法获取数据。");
-            return Optional.empty();
+            return CompletableFuture.completedFuture(Optional.empty());
         }
 
-        // 打乱列表以实现随机化，并逐一尝试
-        Collections.shuffle(availableEndpoints);
+        // 由选择策略决定尝试顺序，再按顺序对冲请求
+        List<ApiProperties.ApiEndpoint> availableEndpoints = endpointSelector.order(endpoints);
 
-        for (ApiProperties.ApiEndpoint endpoint : availableEndpoints) {
-            try {
-                log.info("⏳ 尝试从API [{}] 获取数据...", endpoint.getName());
-                Optional<Sentence> sentence = attemptFetch(endpoint, skipValidation);  // 尝试获取数据
-                if (sentence.isPresent()) {
-                    log.info("✅ 成功从 API [{}] 获取数据, URL: {}", endpoint.getName(), endpoint.getUrl());
-                    return sentence; // 成功获取，立即返回
-                }
-                // 如果返回Optional.empty()，说明是逻辑失败（例如，解析后发现内容无效），记录并继续尝试下一个
-                log.warn("⚠️ 从API [{}] 获取成功，但内容解析后无效，尝试下一个。", endpoint.getName());
-            } catch (io.github.resilience4j.circuitbreaker.CallNotPermittedException e) {
-                // 熔断器处于打开状态，直接跳过此API
-                log.warn(" CIRCUIT_BREAKER is OPEN for API [{}]. Skipping.", endpoint.getName());
-            } catch (LogicalException e) {
-                // 逻辑失败（如HTTP 404/500），记录并继续尝试下一个
-                log.warn("❌ API [{}] 出现逻辑失败: {}。尝试下一个...", endpoint.getName(), e.getMessage());
-            } catch (IOException e) {
-                // 网络问题是全局性的，触发冷却并终止本次所有尝试
-                log.warn("🚨 检测到网络连接问题 (API: {}). 将暂停获取 {} 秒。", endpoint.getName(), NETWORK_COOLDOWN_DURATION_MS / 1000);
-                startCooldown();
-                return Optional.empty(); // 网络故障，立即停止并进入冷却
-            } catch (Exception e) {
-                // 捕获其他意料之外的异常，记录并继续尝试下一个
-                log.error("处理API [{}] 时发生意外错误: {}。尝试下一个...", endpoint.getName(), e.getMessage(), e);
+        HedgedFetch fetch = new HedgedFetch(availableEndpoints, skipValidation);
+        long started = System.nanoTime();
+        // 调用方取消 Future 或超过时间上限时，一并取消在途请求；正常结束时已没有在途请求
+        fetch.result.whenComplete((sentence, e) -> {
+            fetch.abort();
+            if (sentence != null) {
+                fetchMetrics.recordFetch(sentence.isPresent(), System.nanoTime() - started);
             }
-        }
-
-        // 如果所有API都尝试失败
-        log.warn("🤷‍ 已尝试所有可用API，但均未能获取到有效的一言。");
-        return Optional.empty();
+        });
+        fetch.start();
+        return fetch.result.completeOnTimeout(Optional.empty(), timeout.toMillis(), TimeUnit.MILLISECONDS);
     }
 
     /**
-     * 检查当前是否处于网络错误冷却期。
-     * @return 如果在冷却期内，返回true。
+     * 一次对冲获取的状态机。
+     * <p>
+     * 所有状态变更都在对象锁内完成；OkHttp 回调、对冲定时器和调用方线程会并发访问它。
      */
-    private boolean isDuringCooldown() {
-        if (networkErrorCooldown) {
-            if (System.currentTimeMillis() < networkErrorCooldownEndTimestamp) {
-                log.info("⏰ 网络错误冷却中，跳过本次获取任务。");
-                return true;
+    private final class HedgedFetch {
+
+        private final List<ApiProperties.ApiEndpoint> candidates;
+        private final boolean skipValidation;
+        private final ApiProperties.HedgeConfig hedgeConfig;
+        private final CompletableFuture<Optional<Sentence>> result = new CompletableFuture<>();
+        /**
+         * 在途请求，按端点索引
+         */
+        private final Map<ApiProperties.ApiEndpoint, EndpointCall> inFlight = new HashMap<>();
+        private int nextIndex = 0;
+        private boolean networkFailure = false;
+        private ScheduledFuture<?> hedgeTimer;
+
+        private HedgedFetch(List<ApiProperties.ApiEndpoint> candidates, boolean skipValidation) {
+            this.candidates = candidates;
+            this.skipValidation = skipValidation;
+            this.hedgeConfig = apiProperties.getHedge();
+        }
+
+        synchronized void start() {
+            int initial = hedgeConfig.isEnabled() ? Math.max(1, hedgeConfig.getInitialRequests()) : 1;
+            for (int i = 0; i < initial; i++) {
+                launchNext();
+            }
+            scheduleHedge();
+        }
+
+        /**
+         * 取消所有在途请求，并以空结果结束本次获取（如果尚未结束）。
+         */
+        synchronized void abort() {
+            if (!inFlight.isEmpty()) {
+                log.warn("⏰ 获取已被取消或超过时间上限，取消 {} 个在途请求。", inFlight.size());
+            }
+            cancelRemaining();
+            result.complete(Optional.empty());
+        }
+
+        /**
+         * 向下一个熔断器允许调用的候选端点发起请求。熔断中的端点被直接跳过。
+         *
+         * @return 如果成功发起了新请求，返回true。
+         */
+        private boolean launchNext() {
+            if (result.isDone() || networkFailure || inFlight.size() >= maxInFlight()) {
+                return false;
+            }
+            while (nextIndex < candidates.size()) {
+                ApiProperties.ApiEndpoint endpoint = candidates.get(nextIndex++);
+                // 先登记再交给OkHttp：执行器拒绝时结果会在 enqueue 返回之前同步回调
+                EnqueueResult call = callExecutor.enqueue(endpoint, skipValidation, started -> {
+                    log.info("⏳ 尝试从API [{}] 获取数据...", endpoint.getName());
+                    inFlight.put(endpoint, started);
+                }, this::onOutcome);
+                if (call.isStarted()) {
+                    return true;
+                }
+            }
+            finishIfExhausted();
+            return false;
+        }
+
+        private int maxInFlight() {
+            return hedgeConfig.isEnabled() ? Math.max(1, hedgeConfig.getMaxInFlight()) : 1;
+        }
+
+        /**
+         * 在对冲延迟后追加一个请求，并继续安排下一次对冲，直到有结果或没有候选端点。
+         */
+        private void scheduleHedge() {
+            if (!hedgeConfig.isEnabled() || result.isDone() || nextIndex >= candidates.size()) {
+                return;
+            }
+            hedgeTimer = taskScheduler.schedule(() -> {
+                synchronized (this) {
+                    if (launchNext()) {
+                        log.info("🔀 {} ms 内未获得结果，追加对冲请求。", hedgeConfig.getDelay().toMillis());
+                    }
+                    scheduleHedge();
+                }
+            }, Instant.now().plus(hedgeConfig.getDelay()));
+        }
+
+        /**
+         * 处理一个请求的结果。
+         */
+        private synchronized void onOutcome(AttemptOutcome outcome) {
+            if (inFlight.remove(outcome.endpoint()) == null || outcome.failureClass() == FailureClass.CANCELLED) {
+                return; // 已被取消并计为落败
+            }
+            ApiProperties.ApiEndpoint endpoint = outcome.endpoint();
+            EndpointStats stats = statsRegistry.forEndpoint(endpoint.getName());
+            if (!outcome.failureClass().isNetworkFailure()) {
+                networkMonitor.recordReachable(); // 收到了HTTP响应，网络本身可用
+            }
+            if (outcome.isSuccess() && !result.isDone()) {
+                stats.recordWin(outcome.latencyMs());
+                log.info("✅ 成功从 API [{}] 获取数据, 耗时 {} ms, URL: {}", endpoint.getName(), outcome.latencyMs(), endpoint.getUrl());
+                cancelRemaining();
+                result.complete(outcome.sentence());
+                return;
+            }
+            stats.recordFailure(outcome.latencyMs());
+            if (result.isDone()) {
+                return;
+            }
+            switch (outcome.failureClass()) {
+                case INVALID_CONTENT, RESPONSE_TOO_LARGE ->
+                        // 解析后发现内容无效，记录并继续尝试下一个
+                        log.warn("⚠️ 从API [{}] 获取成功，但内容解析后无效，尝试下一个。", endpoint.getName());
+                case TIMEOUT, NETWORK -> {
+                    // 网络问题是全局性的：不再发起新请求，等待在途请求结束后进入冷却
+                    log.warn("🚨 检测到网络连接问题 (API: {}): {}", endpoint.getName(), outcome.detail());
+                    networkFailure = true;
+                }
+                // 逻辑失败（如HTTP 404/500），记录并继续尝试下一个
+                default -> log.warn("❌ API [{}] 出现逻辑失败: {}。尝试下一个...", endpoint.getName(), outcome.detail());
+            }
+            launchNext();
+            finishIfExhausted();
+        }
+
+        private void finishIfExhausted() {
+            if (result.isDone() || !inFlight.isEmpty()) {
+                return;
+            }
+            if (networkFailure) {
+                networkMonitor.recordNetworkFailure();
+            } else if (nextIndex >= candidates.size()) {
+                // 如果所有API都尝试失败
+                log.warn("🤷‍ 已尝试所有可用API，但均未能获取到有效的一言。");
             } else {
-                log.info("🟢 网络冷却期结束，恢复正常获取。");
-                networkErrorCooldown = false; // 冷却期结束
+                return;
             }
+            cancelHedgeTimer();
+            result.complete(Optional.empty());
         }
-        return false;
-    }
 
-    /**
-     * 启动网络错误冷却。
-     */
-    private void startCooldown() {
-        this.networkErrorCooldown = true;
-        this.networkErrorCooldownEndTimestamp = System.currentTimeMillis() + NETWORK_COOLDOWN_DURATION_MS;
+        private void cancelRemaining() {
+            cancelHedgeTimer();
+            inFlight.values().forEach(call -> {
+                statsRegistry.forEndpoint(call.endpoint().getName()).recordLoss(call.elapsedMs());
+                call.cancel();
+            });
+            inFlight.clear();
+        }
+
+        private void cancelHedgeTimer() {
+            if (hedgeTimer != null) {
+                hedgeTimer.cancel(false);
+            }
+        }
     }
 
     /**
-     * 异步执行所有API端点的健康检查。
+     * 并行执行所有API端点的健康检查。
      * <p>
-     * 此方法在单独的线程中运行，不会阻塞主应用启动。
-     * 它会测试每个端点，并记录其状态。
+     * 同一时间最多有 {@code yiyan.self-check.concurrency} 个请求在途，一个完成后立即补上下一个；
+     * 超过 {@code yiyan.self-check.deadline} 仍未完成的请求会被取消，并在报告中标记为超出截止时间。
+     * 请求结果会照常记录到端点统计中，供端点选择策略使用。
+     *
+     * @return 在所有端点检查完成（或截止时间到达）后完成的报告。
      */
-    @Async
     @Override
-    public void checkAllApisAsync() {
-        log.info("--- 开始API自检 ---");
+    public CompletableFuture<ApiHealthReport> checkAllApisAsync() {
         List<ApiProperties.ApiEndpoint> allEndpoints = apiProperties.getEndpoints();
-        long successCount = 0;
-
-        for (int i = 0; i < allEndpoints.size(); i++) {
-            ApiProperties.ApiEndpoint endpoint = allEndpoints.get(i);
-            String status;
-            String reason = "";
-            try {
-                // 执行一次尝试性获取，并跳过校验
-                Optional<Sentence> sentenceOpt = attemptFetch(endpoint, true);
-                if (sentenceOpt.isPresent()) {
-                    status = "✅ OK";
-                    // 将获取到的内容附加到原因中，用于日志输出
-                    reason = "-> " + sentenceOpt.get().toString();
-                    successCount++;
-                } else {
-                    // 如果返回空，意味着是逻辑失败，不应发生，但在自检中标记出来
-                    status = "❌ FAILED";
-                    reason = "返回空Optional，可能存在未捕获的逻辑错误";
-                }
-            } catch (LogicalException e) {
-                status = "❌ FAILED";
-                reason = "逻辑失败: " + e.getMessage();
-            } catch (io.github.resilience4j.circuitbreaker.CallNotPermittedException e) {
-                status = "OPEN";
-                reason = "熔断器处于打开状态";
-            } catch (IOException e) {
-                // 网络层面的异常
-                status = "❌ FAILED";
-                reason = "网络错误: " + e.getMessage();
-            } catch (Exception e) {
-                // 其他未知异常
-                status = "❌ FAILED";
-                reason = "未知错误: " + e.getMessage();
-            }
-            log.info("[{}/{}] [{}] -> {}{}", i + 1, allEndpoints.size(), endpoint.getName(), status, reason.isEmpty() ? "" : " (" + reason + ")");
-        }
-
-        log.info("--- API自检完成: {}/{} 个API可用 ---", successCount, allEndpoints.size());
+        log.info("--- 开始API自检 ({} 个端点, 并发上限 {}) ---", allEndpoints.size(), apiProperties.getSelfCheck().getConcurrency());
+        SelfCheck check = new SelfCheck(allEndpoints);
+        check.start();
+        return check.result.whenComplete((report, e) -> {
+            if (report != null) {
+                statsRegistry.setLatestHealthReport(report);
+                log.info("--- API自检完成: {}/{} 个API可用, 耗时 {} ms ---",
+                        report.healthyCount(), report.entries().size(), report.duration().toMillis());
+            }
+        });
     }
 
     /**
-     * 尝试从指定API端点获取数据。
-     * @param endpoint API端点
-     * @param skipValidation 是否跳过数据校验
-     * @return
-     * @throws IOException
+     * 一次并行自检的状态机。与 {@link HedgedFetch} 一样，所有状态变更都在对象锁内完成。
      */
-    @CircuitBreaker(name = "shared-api-breaker")
-    private Optional<Sentence> attemptFetch(ApiProperties.ApiEndpoint endpoint, boolean skipValidation) throws IOException {
-        // 准备请求头，并应用默认的 User-Agent
-        okhttp3.Headers headers = buildHeaders(endpoint);
-
-        Request request = new Request.Builder()
-                .url(endpoint.getUrl())
-                .headers(headers)
-                .build();
-
-        // IOException 将从此向上抛出，由 findRandomSentence 捕获
-        try (Response response = httpClient.newCall(request).execute()) {
-            ResponseBody body = response.body();
-            if (!response.isSuccessful() || body == null) {
-                // 对于不成功的HTTP状态码，抛出逻辑异常，避免触发熔断
-                throw new LogicalException(String.format("API [%s] 请求失败, HTTP状态码: %d", endpoint.getName(), response.code()));
-            }
-
-            String responseBody = body.string();
-            // 将 skipValidation 参数传递给解析器工厂
-            Optional<SentenceParser> parser = parserFactory.getParser(endpoint.getParser().getType());  // 获取解析器工厂
-            Optional<Sentence> sentence = parser.flatMap(p -> p.parse(responseBody, endpoint, skipValidation)); // 使用解析器
-            return sentence;
+    private final class SelfCheck {
+
+        private final List<ApiProperties.ApiEndpoint> endpoints;
+        private final int concurrency;
+        private final Instant startedAt = Instant.now();
+        private final ApiHealthReport.Entry[] entries;
+        private final Map<EndpointCall, Integer> inFlight = new HashMap<>();
+        private final CompletableFuture<ApiHealthReport> result = new CompletableFuture<>();
+        private int nextIndex = 0;
+        private int completed = 0;
+        private ScheduledFuture<?> deadlineTimer;
+
+        private SelfCheck(List<ApiProperties.ApiEndpoint> endpoints) {
+            this.endpoints = endpoints;
+            this.concurrency = Math.max(1, apiProperties.getSelfCheck().getConcurrency());
+            this.entries = new ApiHealthReport.Entry[endpoints.size()];
         }
-    }
 
-    /**
-     * 构建请求头。
-     * 如果端点配置中没有提供User-Agent，则使用默认的User-Agent。
-     * @param endpoint API端点配置
-     * @return OkHttp的Headers对象
-     */
-    private okhttp3.Headers buildHeaders(ApiProperties.ApiEndpoint endpoint) {
-        Map<String, String> endpointHeaders = new java.util.HashMap<>();
+        synchronized void start() {
+            deadlineTimer = taskScheduler.schedule(this::onDeadline, startedAt.plus(apiProperties.getSelfCheck().getDeadline()));
+            fill();
+            finishIfDone();
+        }
+
+        /**
+         * 补充在途请求直到达到并发上限。被跳过的端点（没有请求、熔断中或请求无法创建）直接按跳过的原因记录结果。
+         */
+        private void fill() {
+            while (inFlight.size() < concurrency && nextIndex < endpoints.size()) {
+                int index = nextIndex++;
+                ApiProperties.ApiEndpoint endpoint = endpoints.get(index);
+                // 执行一次尝试性获取，并跳过校验；先登记再交给OkHttp，执行器拒绝时结果会同步回调
+                EnqueueResult call = callExecutor.enqueue(endpoint, true,
+                        started -> inFlight.put(started, index), outcome -> onOutcome(index, outcome));
+                if (!call.isStarted()) {
+                    record(index, new ApiHealthReport.Entry(endpoint.getName(), false, call.skipReason(), -1, call.detail()));
+                }
+            }
+        }
 
-        // 1. 复制端点自定义的头信息
-        if (endpoint.getHeaders() != null) {
-            endpointHeaders.putAll(endpoint.getHeaders());
+        private synchronized void onOutcome(int index, AttemptOutcome outcome) {
+            if (entries[index] != null) {
+                return; // 已因截止时间被记录
+            }
+            inFlight.values().remove(index);
+            String sample = outcome.isSuccess()
+                    // 将获取到的内容附加到结果中，用于日志输出
+                    ? "-> " + outcome.sentence().get()
+                    : outcome.detail();
+            record(index, new ApiHealthReport.Entry(outcome.endpoint().getName(), outcome.isSuccess(),
+                    outcome.failureClass(), outcome.latencyMs(), sample));
+            fill();
+            finishIfDone();
         }
 
-        // 2. 检查是否存在User-Agent（不区分大小写），如果不存在，则添加默认值
-        boolean hasUserAgent = endpointHeaders.keySet().stream()
-                .anyMatch(key -> key.equalsIgnoreCase("User-Agent"));
+        private synchronized void onDeadline() {
+            if (result.isDone()) {
+                return;
+            }
+            log.warn("⏰ API自检超过截止时间 {}，取消剩余 {} 个请求。", apiProperties.getSelfCheck().getDeadline(),
+                    inFlight.size() + endpoints.size() - nextIndex);
+            inFlight.forEach((call, index) -> {
+                record(index, new ApiHealthReport.Entry(call.endpoint().getName(), false, FailureClass.DEADLINE_EXCEEDED,
+                        call.elapsedMs(), "超过自检截止时间"));
+                statsRegistry.forEndpoint(call.endpoint().getName()).recordLatencyLowerBound(call.elapsedMs());
+                call.cancel();
+            });
+            inFlight.clear();
+            while (nextIndex < endpoints.size()) {
+                int index = nextIndex++;
+                record(index, new ApiHealthReport.Entry(endpoints.get(index).getName(), false, FailureClass.DEADLINE_EXCEEDED,
+                        -1, "超过自检截止时间，未发起请求"));
+            }
+            finishIfDone();
+        }
 
-        if (!hasUserAgent && StringUtils.hasText(apiProperties.getDefaultUserAgent())) {
-            endpointHeaders.put("User-Agent", apiProperties.getDefaultUserAgent());
+        private void record(int index, ApiHealthReport.Entry entry) {
+            entries[index] = entry;
+            completed++;
+            String status = entry.healthy() ? "✅ OK" : switch (entry.failureClass()) {
+                case CIRCUIT_OPEN -> "OPEN";
+                case NO_REQUEST -> "SKIPPED";
+                default -> "❌ FAILED";
+            };
+            log.info("[{}/{}] [{}] -> {} ({}, {} ms){}", completed, endpoints.size(), entry.endpointName(), status,
+                    entry.failureClass(), entry.latencyMs(), entry.sample() == null ? "" : " (" + entry.sample() + ")");
         }
 
-        return okhttp3.Headers.of(endpointHeaders);
+        private void finishIfDone() {
+            if (completed < endpoints.size() || result.isDone()) {
+                return;
+            }
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel(false);
+            }
+            result.complete(new ApiHealthReport(startedAt, Duration.between(startedAt, Instant.now()), List.of(entries)));
+        }
     }
-} 
\ No newline at end of file
+}
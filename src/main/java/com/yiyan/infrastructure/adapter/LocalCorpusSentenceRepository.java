@@ -0,0 +1,489 @@
+package com.yiyan.infrastructure.adapter;
+
+import com.yiyan.config.CorpusProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.health.ApiHealthReport;
+import com.yiyan.infrastructure.persistence.HistorySegments;
+import com.yiyan.infrastructure.persistence.binary.BinaryHistoryIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SentenceRepository 的本地语料实现，从历史记录等文本文件中随机取出一句。
+ * <p>
+ * 语料文件以只读方式内存映射，启动时只扫描一遍换行符，为每个非空行记下起始偏移量（int数组），
+ * 不把文件内容加载到堆上。随机取一句时只解码被选中的那一行，时间复杂度为 O(1)。
+ * 追加写入的文件（如历史记录的活动分段）变大后，会在下次取句时只为新增的部分补充索引。
+ * <p>
+ * 历史记录的分段列表来自 {@link HistorySegments} 的清单，清单变化时在I/O执行器中只打开新出现的分段，
+ * 取句时不等待。未压缩的文本分段同样被映射；未压缩的二进制分段被映射后由 {@link BinaryHistoryIndex}
+ * 记下每条记录的位置，同样 O(1) 取句。已压缩的分段无法随机访问，不参与抽样
+ * （压缩前已被映射的分段继续使用原来的映射）；关闭 {@code history.compress-segments} 可以让所有分段都参与抽样。
+ * 读取涉及文件映射，因此异步获取在I/O执行器中进行。
+ */
+@Repository
+@Slf4j
+@RequiredArgsConstructor
+public class LocalCorpusSentenceRepository implements SentenceRepository {
+
+    /**
+     * 本地语料的"一言"来源名称
+     */
+    public static final String SOURCE = "local-corpus";
+
+    /**
+     * 本地语料配置属性
+     */
+    private final CorpusProperties corpusProperties;
+    /**
+     * API配置属性，用于获取文本最大长度
+     */
+    private final ApiProperties apiProperties;
+    /**
+     * Spring资源加载器，用于解析语料文件位置
+     */
+    private final ResourceLoader resourceLoader;
+    /**
+     * 历史记录分段，作为语料的一部分
+     */
+    private final HistorySegments historySegments;
+    /**
+     * 统一的I/O执行器，历史分段的刷新和异步取句在其中进行
+     */
+    private final ExecutorService ioExecutor;
+
+    private volatile List<CorpusSource> files = List.of();
+    private List<CorpusFile> locationFiles = List.of();
+    /**
+     * 已映射的历史分段，按分段序号
+     */
+    private final Map<Integer, CorpusSource> segmentFiles = new HashMap<>();
+    private volatile long segmentsVersion = -1;
+    /**
+     * 是否已有一次分段刷新在I/O执行器中排队或进行
+     */
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void load() {
+        if (!corpusProperties.isEnabled()) {
+            return;
+        }
+        List<CorpusFile> opened = new ArrayList<>();
+        for (String location : corpusProperties.getLocations()) {
+            try {
+                Optional<Path> path = resolve(location);
+                if (path.isPresent()) {
+                    opened.add(CorpusFile.open(path.get()));
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ 无法加载本地语料 '{}': {}", location, e.getMessage());
+            }
+        }
+        locationFiles = List.copyOf(opened);
+        files = List.copyOf(locationFiles);
+        refreshSegments();
+        log.info("📚 已加载 {} 个本地语料文件，共 {} 行。", files.size(), totalLines());
+    }
+
+    /**
+     * 把资源位置解析为本地文件。打包在jar中的资源无法直接映射，先复制到临时文件。
+     */
+    private Optional<Path> resolve(String location) throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            log.debug("本地语料 '{}' 不存在，跳过。", location);
+            return Optional.empty();
+        }
+        if (resource.isFile()) {
+            return Optional.of(resource.getFile().toPath());
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return Optional.of(copyToTempFile(in));
+        }
+    }
+
+    private static Path copyToTempFile(InputStream in) throws IOException {
+        Path copy = Files.createTempFile("yiyan-corpus-", ".txt");
+        copy.toFile().deleteOnExit();
+        Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    /**
+     * 历史分段清单变化时，打开新出现的未压缩分段。已映射的分段即使随后被压缩，也继续使用原来的映射；
+     * 没有映射过的已压缩分段无法随机访问，被跳过。
+     */
+    private synchronized void refreshSegments() {
+        if (!corpusProperties.isIncludeHistory() || historySegments.version() == segmentsVersion) {
+            return;
+        }
+        long version = historySegments.version();
+        List<CorpusSource> opened = new ArrayList<>();
+        for (HistorySegments.Segment segment : historySegments.segments()) {
+            CorpusSource file = segmentFiles.get(segment.sequence());
+            if (file == null && segment.compressed()) {
+                continue;
+            }
+            if (file == null) {
+                try {
+                    Path path = historySegments.path(segment);
+                    file = segment.isBinary() ? BinaryCorpusFile.open(path) : CorpusFile.open(path);
+                    segmentFiles.put(segment.sequence(), file);
+                } catch (IOException | IllegalArgumentException e) {
+                    // 例如分段恰好在压缩后被删除；清单更新后会再次尝试
+                    log.debug("暂时无法打开历史分段 {}: {}", segment.file(), e.getMessage());
+                    continue;
+                }
+            }
+            opened.add(file);
+        }
+        opened.addAll(locationFiles);
+        files = List.copyOf(opened);
+        segmentsVersion = version;
+    }
+
+    /**
+     * 清单变化时在I/O执行器中刷新分段列表；本次取句继续使用当前的列表。
+     */
+    private void refreshSegmentsAsync() {
+        if (!corpusProperties.isIncludeHistory() || historySegments.version() == segmentsVersion
+                || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    refreshSegments();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+            log.debug("I/O执行器已关闭，跳过历史分段的刷新。");
+        }
+    }
+
+    @Override
+    public Optional<Sentence> fetchRandomSentence(boolean skipValidation) {
+        refreshSegmentsAsync();
+        List<CorpusSource> files = this.files;
+        files.forEach(CorpusSource::refreshIfGrown);
+        int total = totalLines(files);
+        if (total == 0) {
+            return Optional.empty();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < Math.max(1, corpusProperties.getMaxAttempts()); attempt++) {
+            Optional<Sentence> sentence = sentenceAt(files, random.nextInt(total));
+            if (sentence.isPresent()
+                    && (skipValidation || sentence.get().getText().length() <= apiProperties.getMaxTextLength())) {
+                return sentence;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 取句可能需要映射或刷新文件，因此在I/O执行器中完成，不占用调用线程。
+     */
+    @Override
+    public CompletableFuture<Optional<Sentence>> fetchRandomSentenceAsync(boolean skipValidation) {
+        return CompletableFuture.supplyAsync(() -> fetchRandomSentence(skipValidation), ioExecutor);
+    }
+
+    /**
+     * 本地语料没有API端点，返回空报告。
+     */
+    @Override
+    public CompletableFuture<ApiHealthReport> checkAllApisAsync() {
+        return CompletableFuture.completedFuture(new ApiHealthReport(Instant.now(), Duration.ZERO, List.of()));
+    }
+
+    /**
+     * 所有语料文件中已索引的行数。
+     */
+    public int totalLines() {
+        return totalLines(files);
+    }
+
+    private static int totalLines(List<CorpusSource> files) {
+        int total = 0;
+        for (CorpusSource file : files) {
+            total += file.lineCount();
+        }
+        return total;
+    }
+
+    private static Optional<Sentence> sentenceAt(List<CorpusSource> files, int globalIndex) {
+        int index = globalIndex;
+        for (CorpusSource file : files) {
+            int count = file.lineCount();
+            if (index < count) {
+                return file.sentence(index);
+            }
+            index -= count;
+        }
+        return Optional.empty(); // 行数在两次读取之间发生了变化
+    }
+
+    /**
+     * 解析一行语料，格式见 {@link HistorySegments#parseLine(String)}；来源统一为本地语料。
+     */
+    static Optional<Sentence> parseLine(String line) {
+        return HistorySegments.parseLine(line).map(record -> record.sentence().withSource(SOURCE));
+    }
+
+    /**
+     * 可以映射的文件大小：单个映射最多2GB，超出的部分不使用。
+     */
+    private static long mappableSize(Path path, FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            log.warn("⚠️ 本地语料 '{}' 超过2GB，只使用前2GB。", path);
+            return Integer.MAX_VALUE;
+        }
+        return size;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        locationFiles.forEach(CorpusFile::close);
+        segmentFiles.values().forEach(CorpusSource::close);
+    }
+
+    /**
+     * 参与随机抽样的一部分语料。
+     */
+    private interface CorpusSource {
+
+        /**
+         * 可供抽样的行（记录）数
+         */
+        int lineCount();
+
+        /**
+         * 取出第 index 行并解析；该行无法解析或已不可读时返回空的Optional
+         */
+        Optional<Sentence> sentence(int index);
+
+        default void refreshIfGrown() {
+        }
+
+        default void close() {
+        }
+    }
+
+    /**
+     * 内存映射的二进制历史分段及其记录索引。活动分段变大后只为新增的记录补充索引。
+     */
+    private static final class BinaryCorpusFile implements CorpusSource {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final BinaryHistoryIndex index;
+        private long mappedBytes;
+
+        private BinaryCorpusFile(Path path, FileChannel channel, long size) throws IOException {
+            this.path = path;
+            this.channel = channel;
+            this.index = new BinaryHistoryIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            this.mappedBytes = size;
+        }
+
+        /**
+         * @throws IllegalArgumentException 如果文件不是二进制历史文件
+         */
+        static BinaryCorpusFile open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                return new BinaryCorpusFile(path, channel, mappableSize(path, channel));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public synchronized int lineCount() {
+            return index.size();
+        }
+
+        @Override
+        public synchronized Optional<Sentence> sentence(int index) {
+            return Optional.of(this.index.sentence(index).withSource(SOURCE));
+        }
+
+        @Override
+        public synchronized void refreshIfGrown() {
+            try {
+                long size = mappableSize(path, channel);
+                if (size > mappedBytes) {
+                    index.remap(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                    mappedBytes = size;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("⚠️ 无法刷新本地语料 '{}': {}", path, e.getMessage());
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("关闭本地语料 '{}' 失败: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 一个内存映射的语料文件及其行偏移量索引。
+     */
+    private static final class CorpusFile implements CorpusSource {
+
+        private final Path path;
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        /**
+         * 每个非空行的起始偏移量
+         */
+        private int[] lineStarts = new int[1024];
+        private int lineCount;
+        /**
+         * 已索引到的位置：最后一个完整行（以换行符结尾）之后
+         */
+        private int indexedBytes;
+        /**
+         * 文件末尾是否有一行没有换行符；该行已被计入，文件变大后需要重新索引
+         */
+        private boolean trailingPartialLine;
+
+        private CorpusFile(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        static CorpusFile open(Path path) throws IOException {
+            CorpusFile file = new CorpusFile(path, FileChannel.open(path, StandardOpenOption.READ));
+            file.refresh();
+            return file;
+        }
+
+        @Override
+        public synchronized int lineCount() {
+            return lineCount;
+        }
+
+        @Override
+        public Optional<Sentence> sentence(int index) {
+            return parseLine(line(index));
+        }
+
+        synchronized String line(int index) {
+            int start = lineStarts[index];
+            int end = start;
+            int limit = buffer.limit();
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public synchronized void refreshIfGrown() {
+            try {
+                if (channel.size() > (buffer == null ? 0 : buffer.limit())) {
+                    refresh();
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ 无法刷新本地语料 '{}': {}", path, e.getMessage());
+            }
+        }
+
+        /**
+         * 重新映射文件，并只为上次索引之后的部分补充行偏移量。
+         */
+        private void refresh() throws IOException {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, mappableSize(path, channel));
+            if (trailingPartialLine) {
+                lineCount--;
+                trailingPartialLine = false;
+            }
+            int limit = buffer.limit();
+            int lineStart = indexedBytes;
+            for (int i = indexedBytes; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    addLine(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            indexedBytes = lineStart;
+            if (lineStart < limit) {
+                trailingPartialLine = addLine(lineStart, limit);
+            }
+        }
+
+        /**
+         * 记录一行，跳过空白行。
+         *
+         * @return 如果该行被记录，返回true
+         */
+        private boolean addLine(int start, int end) {
+            boolean blank = true;
+            for (int i = start; i < end && blank; i++) {
+                byte b = buffer.get(i);
+                blank = b == ' ' || b == '\t' || b == '\r';
+            }
+            if (blank) {
+                return false;
+            }
+            if (lineCount == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+            }
+            lineStarts[lineCount++] = start;
+            return true;
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("关闭本地语料 '{}' 失败: {}", path, e.getMessage());
+            }
+        }
+    }
+}
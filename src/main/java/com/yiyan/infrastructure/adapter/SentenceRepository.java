@@ -1,8 +1,10 @@
 package com.yiyan.infrastructure.adapter;
 
 import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.api.health.ApiHealthReport;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 领域存储库接口，定义了获取"一言"数据的契约。
@@ -19,9 +21,21 @@ public interface SentenceRepository {
      */
     Optional<Sentence> fetchRandomSentence(boolean skipValidation);
 
+    /**
+     * 异步地从任意可用数据源随机获取一个"一言"实例。
+     * <p>
+     * 等待网络响应期间不占用调用线程；取消返回的 Future 会同时取消尚未完成的请求。
+     *
+     * @param skipValidation 如果为 true，则在获取过程中跳过所有业务逻辑校验（如长度限制）。
+     * @return 在获取结束后完成的 CompletableFuture；无法获取时结果为空的Optional，不会异常完成。
+     */
+    CompletableFuture<Optional<Sentence>> fetchRandomSentenceAsync(boolean skipValidation);
+
 
     /**
-     * 步执行所有API端点的健康检查。
+     * 异步执行所有API端点的健康检查。
+     *
+     * @return 在检查完成后得到结构化报告的 CompletableFuture。
      */
-    void checkAllApisAsync();
+    CompletableFuture<ApiHealthReport> checkAllApisAsync();
 } 
\ No newline at end of file
@@ -2,21 +2,37 @@ package com.yiyan.infrastructure.adapter.api.config;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyan.event.ApiConfigLoadedEvent;
+import com.yiyan.infrastructure.adapter.api.health.EndpointCircuitBreakers;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import com.yiyan.infrastructure.adapter.api.http.EndpointRequests;
+import com.yiyan.infrastructure.adapter.api.parser.EndpointParsePlans;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * 负责在应用启动时从外部文件加载API端点配置。
+ * 负责在应用启动时从外部文件加载API端点配置，并在文件变化时重新加载。
+ * <p>
+ * 加载完成后发布 {@link ApiConfigLoadedEvent}；启动时加载失败会抛出异常中止启动，不发布事件。
+ * <p>
+ * 端点列表以不可修改的快照整体发布：先为新端点准备好熔断器和解析计划，清理已移除端点的状态，
+ * 最后替换 {@link ApiProperties#getEndpoints()}。进行中的获取继续使用它开始时取到的旧快照，
+ * 名称未变的端点保留其统计、评分和熔断器状态。
  */
 @Component("apiConfigLoader")
 @Slf4j
@@ -35,40 +51,151 @@ public class ApiConfigLoader implements CommandLineRunner {
      * Jackson的ObjectMapper，用于将JSON文件内容反序列化为Java对象
      */
     private final ObjectMapper objectMapper;
-    private final AtomicBoolean ready = new AtomicBoolean(false);
+    /**
+     * 端点熔断器，在加载API列表后为每个端点创建独立的熔断器
+     */
+    private final EndpointCircuitBreakers circuitBreakers;
+    /**
+     * 端点解析计划，在加载API列表后为每个端点预编译
+     */
+    private final EndpointParsePlans parsePlans;
+    /**
+     * 端点请求，在加载API列表后为每个端点预先构建
+     */
+    private final EndpointRequests endpointRequests;
+    /**
+     * 端点统计注册表，重新加载后清理已移除端点的统计
+     */
+    private final EndpointStatsRegistry statsRegistry;
+    /**
+     * 事件发布器，用于通知其他组件API列表已加载
+     */
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public void run(String... args) throws Exception {
         String path = apiProperties.getApiListPath();
         if (!StringUtils.hasText(path)) {
             log.warn("⚠️ API列表文件路径 'yiyan.api-list-path' 未配置, 将不会加载任何外部API。");
-            apiProperties.setEndpoints(Collections.emptyList());
-            ready.set(true); // 即使没有配置，也标记为就绪状态
+            publish(List.of(), false); // 即使没有配置，也通知加载完成
             return;
         }
 
         log.info("🔍 正在从路径 '{}' 加载API列表...", path);
 
+        List<ApiProperties.ApiEndpoint> loadedEndpoints;
         try {
-            Resource resource = resourceLoader.getResource(path);
-            try (InputStream inputStream = resource.getInputStream()) {
-                // 使用ObjectMapper将JSON文件内容反序列化为List<ApiEndpoint>
-                List<ApiProperties.ApiEndpoint> loadedEndpoints = objectMapper.readValue(inputStream, new TypeReference<>() {});
-                apiProperties.setEndpoints(loadedEndpoints);
-                log.info("✅ 成功加载了 {} 个API端点。", loadedEndpoints.size());
-            }
+            loadedEndpoints = read(path);
         } catch (Exception e) {
             log.error("❌ 加载API列表文件 '{}' 失败。请检查文件是否存在、路径是否正确以及JSON格式是否规范。", path, e);
             // 在加载失败时设置为空列表，避免后续出现空指针异常
-            apiProperties.setEndpoints(Collections.emptyList());
+            apiProperties.setEndpoints(List.of());
             // 抛出异常以可能地中止应用启动，因为这是一个关键的配置错误
             throw new IllegalStateException("无法加载API配置文件: " + path, e);
-        } finally {
-            ready.set(true); // 确保无论成功或失败，都更新就绪状态
         }
+        publish(loadedEndpoints, false);
+        log.info("✅ 成功加载了 {} 个API端点。", loadedEndpoints.size());
+    }
+
+    /**
+     * 重新读取API列表文件并发布新的端点快照。
+     * <p>
+     * 文件无法读取或校验失败时保留当前的端点列表；内容与当前列表相同时不做任何事。
+     *
+     * @return 发布了新的端点列表时返回true
+     */
+    public synchronized boolean reload() {
+        String path = apiProperties.getApiListPath();
+        List<ApiProperties.ApiEndpoint> loadedEndpoints;
+        try {
+            loadedEndpoints = read(path);
+        } catch (Exception e) {
+            log.error("❌ 重新加载API列表文件 '{}' 失败，继续使用当前的 {} 个端点: {}",
+                    path, apiProperties.getEndpoints().size(), e.getMessage());
+            return false;
+        }
+        List<ApiProperties.ApiEndpoint> current = apiProperties.getEndpoints();
+        if (loadedEndpoints.equals(current)) {
+            log.debug("🔍 API列表文件 '{}' 内容未变化。", path);
+            return false;
+        }
+        Set<String> previousNames = names(current);
+        Set<String> names = names(loadedEndpoints);
+        long added = names.stream().filter(name -> !previousNames.contains(name)).count();
+        long removed = previousNames.stream().filter(name -> !names.contains(name)).count();
+        publish(loadedEndpoints, true);
+        log.info("🔄 已重新加载API列表: {} 个端点 (新增 {}, 移除 {})。", loadedEndpoints.size(), added, removed);
+        return true;
+    }
+
+    /**
+     * 读取并校验API列表文件。
+     *
+     * @throws IOException              文件无法读取或不是有效的JSON
+     * @throws IllegalArgumentException 端点配置不合法
+     */
+    private List<ApiProperties.ApiEndpoint> read(String path) throws IOException {
+        Resource resource = resourceLoader.getResource(path);
+        try (InputStream inputStream = resource.getInputStream()) {
+            // 使用ObjectMapper将JSON文件内容反序列化为List<ApiEndpoint>
+            List<ApiProperties.ApiEndpoint> endpoints = objectMapper.readValue(inputStream, new TypeReference<>() {});
+            if (endpoints == null) {
+                throw new IllegalArgumentException("API列表文件内容为空");
+            }
+            validate(endpoints);
+            return List.copyOf(endpoints);
+        }
+    }
+
+    /**
+     * 校验端点配置：名称必须非空且唯一（统计、熔断器和解析计划都以名称区分端点），URL必须是有效的HTTP地址，
+     * 请求头必须是OkHttp接受的名称和值。这样加载成功的端点都能预先构建出请求。
+     */
+    private static void validate(List<ApiProperties.ApiEndpoint> endpoints) {
+        Set<String> names = new HashSet<>();
+        for (ApiProperties.ApiEndpoint endpoint : endpoints) {
+            if (endpoint == null || !StringUtils.hasText(endpoint.getName())) {
+                throw new IllegalArgumentException("存在未命名的API端点");
+            }
+            if (!names.add(endpoint.getName())) {
+                throw new IllegalArgumentException("API端点名称重复: " + endpoint.getName());
+            }
+            if (endpoint.getUrl() == null || HttpUrl.parse(endpoint.getUrl()) == null) {
+                throw new IllegalArgumentException("API端点 '" + endpoint.getName() + "' 的URL无效: " + endpoint.getUrl());
+            }
+            if (endpoint.getHeaders() != null) {
+                Headers.Builder headers = new Headers.Builder();
+                endpoint.getHeaders().forEach((name, value) -> {
+                    if (name == null || value == null) {
+                        throw new IllegalArgumentException("API端点 '" + endpoint.getName() + "' 的请求头 '" + name + "' 缺少名称或值");
+                    }
+                    try {
+                        headers.set(name, value);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("API端点 '" + endpoint.getName() + "' 的请求头无效: " + e.getMessage(), e);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 发布端点快照：先准备新端点的熔断器、解析计划和请求、清理已移除端点的状态，再替换端点列表并发布事件。
+     */
+    private void publish(List<ApiProperties.ApiEndpoint> endpoints, boolean reloaded) {
+        Set<String> names = names(endpoints);
+        circuitBreakers.register(endpoints);
+        parsePlans.register(endpoints);
+        endpointRequests.register(endpoints);
+        if (reloaded) {
+            circuitBreakers.retain(names);
+            statsRegistry.retain(names);
+        }
+        apiProperties.setEndpoints(endpoints);
+        eventPublisher.publishEvent(new ApiConfigLoadedEvent(this, endpoints.size(), reloaded));
     }
 
-    public boolean isReady() {
-        return ready.get();
+    private static Set<String> names(List<ApiProperties.ApiEndpoint> endpoints) {
+        return endpoints.stream().map(ApiProperties.ApiEndpoint::getName).collect(Collectors.toSet());
     }
-} 
\ No newline at end of file
+}
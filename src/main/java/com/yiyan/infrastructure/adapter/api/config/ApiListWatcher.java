@@ -0,0 +1,143 @@
+package com.yiyan.infrastructure.adapter.api.config;
+
+import com.yiyan.event.ApiConfigLoadedEvent;
+import com.yiyan.infrastructure.execution.InstrumentedThreadFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 监视API列表文件，文件变化时重新加载端点列表。
+ * <p>
+ * 只有 "file:" 路径可以监视（类路径中的文件在运行时不会变化）。监视线程由专用线程工厂创建，只负责接收文件系统通知；
+ * 文件最后一次变化后等待 {@code yiyan.reload.debounce}，再在I/O执行器中解析、校验并发布新的快照，
+ * 因此编辑器保存时的多次写入只触发一次重新加载，读取和解析也不会占用调度线程。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ApiListWatcher {
+
+    private static final String FILE_PREFIX = "file:";
+
+    /**
+     * API配置属性，提供API列表路径和热重载配置
+     */
+    private final ApiProperties apiProperties;
+    /**
+     * Spring资源加载器，用于把 "file:" 路径解析为文件
+     */
+    private final ResourceLoader resourceLoader;
+    /**
+     * API配置加载器，负责实际的重新加载
+     */
+    private final ApiConfigLoader apiConfigLoader;
+    /**
+     * Spring的任务调度器，用于合并短时间内的多次文件变化
+     */
+    private final TaskScheduler taskScheduler;
+    /**
+     * 统一的I/O执行器，文件的读取和解析在其中进行
+     */
+    private final ExecutorService ioExecutor;
+    /**
+     * 专用线程工厂，监视线程由它创建并计入执行器统计
+     */
+    private final InstrumentedThreadFactory workerThreadFactory;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile WatchService watchService;
+    private ScheduledFuture<?> pendingReload;
+
+    /**
+     * 首次加载API列表后开始监视文件。
+     */
+    @EventListener
+    public void onApiConfigLoaded(ApiConfigLoadedEvent event) {
+        String path = apiProperties.getApiListPath();
+        if (event.isReloaded() || !apiProperties.getReload().isEnabled()
+                || path == null || !path.startsWith(FILE_PREFIX) || !started.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Path file = resourceLoader.getResource(path).getFile().toPath().toAbsolutePath().normalize();
+            WatchService service = FileSystems.getDefault().newWatchService();
+            file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = service;
+            workerThreadFactory.newThread("api-list-watcher", () -> watch(service, file)).start();
+            log.info("👀 正在监视API列表文件 '{}'，修改后将自动重新加载。", file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ 无法监视API列表文件 '{}'，修改后需要重启应用: {}", path, e.getMessage());
+        }
+    }
+
+    private void watch(WatchService service, Path file) {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // 文件以"写临时文件再重命名"的方式保存时表现为 CREATE，直接写入时表现为 MODIFY
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    scheduleReload();
+                }
+                if (!key.reset()) {
+                    log.warn("⚠️ API列表文件所在的目录已不可访问，停止监视。");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 应用关闭
+        }
+    }
+
+    /**
+     * 在文件最后一次变化后等待一段时间再重新加载，期间的新变化会推迟重新加载。
+     */
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingReload = taskScheduler.schedule(() -> {
+            try {
+                ioExecutor.execute(apiConfigLoader::reload);
+            } catch (RejectedExecutionException e) {
+                log.debug("I/O执行器已关闭，跳过API列表的重新加载。");
+            }
+        }, Instant.now().plus(apiProperties.getReload().getDebounce()));
+    }
+
+    /**
+     * 关闭文件监视。
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+    }
+}
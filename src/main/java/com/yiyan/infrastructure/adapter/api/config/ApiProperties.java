@@ -4,10 +4,10 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.ArrayList;
 
 /**
  * API端点配置类，通过 @ConfigurationProperties 从 application.yml/properties 文件中加载配置。
@@ -42,8 +42,49 @@ public class ApiProperties {
     /**
      * 存储所有API端点配置的列表。
      * 这个列表现在由 ApiConfigLoader 在应用启动时动态填充。
+     * <p>
+     * 列表不可修改，重新加载时整体替换：读取方取到的列表在整个获取过程中保持不变，无需复制。
      */
-    private List<ApiEndpoint> endpoints = new ArrayList<>();
+    private volatile List<ApiEndpoint> endpoints = List.of();
+
+    /**
+     * 对冲请求配置。
+     */
+    private HedgeConfig hedge = new HedgeConfig();
+
+    /**
+     * 端点选择策略配置。
+     */
+    private SelectionConfig selection = new SelectionConfig();
+
+    /**
+     * API自检配置。
+     */
+    private SelfCheckConfig selfCheck = new SelfCheckConfig();
+
+    /**
+     * HTTP传输层配置：超时、连接池和DNS缓存。
+     */
+    private TransportConfig transport = new TransportConfig();
+
+    /**
+     * 网络错误冷却与可达性探测配置。
+     */
+    private NetworkConfig network = new NetworkConfig();
+
+    /**
+     * API列表文件的热重载配置。
+     */
+    private ReloadConfig reload = new ReloadConfig();
+
+    /**
+     * 替换端点列表。传入的列表会被复制为不可修改的快照。
+     *
+     * @param endpoints 新的端点列表
+     */
+    public void setEndpoints(List<ApiEndpoint> endpoints) {
+        this.endpoints = List.copyOf(endpoints);
+    }
 
     /**
      * 定义单个API端点的配置
@@ -69,6 +110,22 @@ public class ApiProperties {
          * 请求头，用于模拟浏览器或其他客户端
          */
         private Map<String, String> headers;
+
+        /**
+         * 响应体最多读取的字节数，超过后立即中止读取并丢弃响应。
+         * 未配置时根据 maxTextLength 和解析器类型推算。
+         */
+        private Integer maxResponseBytes;
+
+        /**
+         * 该端点的连接超时，未配置时使用 {@code yiyan.transport.connect-timeout}。
+         */
+        private Duration connectTimeout;
+
+        /**
+         * 该端点的读取超时，未配置时使用 {@code yiyan.transport.read-timeout}。
+         */
+        private Duration readTimeout;
     }
 
     /**
@@ -88,4 +145,216 @@ public class ApiProperties {
          */
         private Map<String, String> mappings = new HashMap<>();
     }
-} 
\ No newline at end of file
+
+    /**
+     * 对冲（hedged）请求配置。
+     * <p>
+     * 先向一个端点发起请求，若在对冲延迟内没有得到结果，则追加请求下一个端点，
+     * 取最先返回的有效结果，并取消其余仍在进行中的请求。
+     */
+    @Data
+    public static class HedgeConfig {
+        /**
+         * 是否启用对冲。关闭后退化为逐个端点串行尝试。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 首轮同时发起的请求数，即同时竞速的端点数 K。
+         */
+        private int initialRequests = 1;
+
+        /**
+         * 追加一个对冲请求前等待的时间。
+         */
+        private Duration delay = Duration.ofMillis(1500);
+
+        /**
+         * 同一时间最多在途的请求数。
+         */
+        private int maxInFlight = 3;
+
+        /**
+         * 端点统计汇总的日志输出间隔。
+         */
+        private Duration reportInterval = Duration.ofMinutes(10);
+    }
+
+    /**
+     * 端点选择策略配置。
+     */
+    @Data
+    public static class SelectionConfig {
+        /**
+         * 选择策略："weighted"（按延迟与成功率加权随机）或 "random"（均匀随机打乱）。
+         */
+        private String strategy = "weighted";
+
+        /**
+         * EWMA平滑系数 (0, 1]，越大越偏向最近的请求结果。
+         */
+        private double ewmaAlpha = 0.2;
+
+        /**
+         * 参考延迟。延迟等于此值的端点，其延迟因子为 0.5；也作为新端点的先验延迟。
+         */
+        private Duration referenceLatency = Duration.ofSeconds(1);
+
+        /**
+         * 最小权重，保证表现差的端点仍有少量机会被选中，以便发现其恢复。
+         */
+        private double minWeight = 0.02;
+    }
+
+    /**
+     * API自检配置。
+     */
+    @Data
+    public static class SelfCheckConfig {
+        /**
+         * 同时在途的自检请求数上限。
+         */
+        private int concurrency = 4;
+
+        /**
+         * 整个自检的截止时间，超过后取消剩余请求。
+         */
+        private Duration deadline = Duration.ofSeconds(30);
+    }
+
+    /**
+     * HTTP传输层配置。
+     * <p>
+     * 生产环境中两次获取往往相隔数分钟，而端点分布在许多不同的主机上；
+     * 连接保活时间和DNS缓存决定了下一次请求能否复用已有的连接和解析结果，而不必重新握手和查询。
+     */
+    @Data
+    public static class TransportConfig {
+        /**
+         * 默认连接超时，端点可以单独覆盖。
+         */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 默认读取超时，端点可以单独覆盖。
+         */
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 写入超时。
+         */
+        private Duration writeTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 连接池中最多保留的空闲连接数，建议不少于常用端点所在的主机数。
+         */
+        private int maxIdleConnections = 16;
+
+        /**
+         * 空闲连接的保活时间。未配置时取调度最大间隔的两倍，且不少于5分钟（OkHttp的默认值），
+         * 使相邻两次调度之间的连接不会被提前回收。
+         */
+        private Duration keepAlive;
+
+        /**
+         * DNS缓存配置。
+         */
+        private DnsCacheConfig dns = new DnsCacheConfig();
+    }
+
+    /**
+     * 进程内DNS缓存配置。
+     */
+    @Data
+    public static class DnsCacheConfig {
+        /**
+         * 是否启用进程内DNS缓存。关闭后每次新建连接都使用系统解析。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 解析结果的有效期，期内直接使用缓存。
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * 过期后仍可使用的时长：在此期间先返回旧结果，同时在后台重新解析（stale-while-revalidate）；
+         * 重新解析失败时也继续使用旧结果。超过后同步解析。
+         */
+        private Duration maxStale = Duration.ofHours(1);
+
+        /**
+         * 缓存统计（命中、过期命中、未命中、后台解析失败）的日志输出间隔。
+         */
+        private Duration reportInterval = Duration.ofMinutes(10);
+    }
+
+    /**
+     * 网络错误冷却配置。
+     * <p>
+     * 检测到网络层面的失败后暂停获取，冷却时间随连续失败次数按倍数增长；
+     * 冷却结束后先做一次廉价的可达性探测，探测成功才恢复完整的获取，失败则进入下一轮更长的冷却。
+     */
+    @Data
+    public static class NetworkConfig {
+        /**
+         * 第一次冷却的时长。
+         */
+        private Duration initialCooldown = Duration.ofSeconds(2);
+
+        /**
+         * 冷却时长的上限。
+         */
+        private Duration maxCooldown = Duration.ofMinutes(5);
+
+        /**
+         * 每次连续失败后冷却时长的增长倍数。
+         */
+        private double multiplier = 2.0;
+
+        /**
+         * 探测方式：DNS 只解析主机名；TCP 解析后再建立一次TCP连接。
+         */
+        private ProbeMode probeMode = ProbeMode.TCP;
+
+        /**
+         * 探测的主机。未配置时使用随机一个已配置端点的主机。
+         */
+        private String probeHost;
+
+        /**
+         * TCP探测的端口。未配置时使用端点URL的端口（HTTPS为443）。
+         */
+        private Integer probePort;
+
+        /**
+         * 单次探测的超时，包括DNS解析和TCP连接。
+         */
+        private Duration probeTimeout = Duration.ofSeconds(2);
+    }
+
+    /**
+     * API列表文件的热重载配置。
+     * <p>
+     * 仅对 "file:" 路径生效：监视文件所在目录，文件变化并稳定一段时间后重新加载。
+     */
+    @Data
+    public static class ReloadConfig {
+        /**
+         * 是否监视API列表文件的变化。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 文件最后一次变化后等待的时间，编辑器保存时的多次写入只触发一次重新加载。
+         */
+        private Duration debounce = Duration.ofMillis(500);
+    }
+
+    /**
+     * 可达性探测方式。
+     */
+    public enum ProbeMode {
+        DNS, TCP
+    }
+}
@@ -0,0 +1,34 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 一次API自检的结构化报告。
+ *
+ * @param startedAt 自检开始时间
+ * @param duration  自检总耗时
+ * @param entries   每个端点的检查结果，顺序与API列表一致
+ */
+public record ApiHealthReport(Instant startedAt, Duration duration, List<Entry> entries) {
+
+    /**
+     * 可用端点的数量。
+     */
+    public long healthyCount() {
+        return entries.stream().filter(Entry::healthy).count();
+    }
+
+    /**
+     * 单个端点的检查结果。
+     *
+     * @param endpointName 端点名称
+     * @param healthy      是否得到了有效的"一言"
+     * @param failureClass 失败分类，成功时为 {@link FailureClass#NONE}
+     * @param latencyMs    请求耗时（毫秒），未发起请求时为 -1
+     * @param sample       成功时为获取到的内容，失败时为失败原因
+     */
+    public record Entry(String endpointName, boolean healthy, FailureClass failureClass, long latencyMs, String sample) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 每个API端点独立的熔断器。
+ * <p>
+ * 熔断器由 Resilience4j 的 {@link CircuitBreakerRegistry} 按端点创建，共用 application.yml 中
+ * 名为 {@value #CONFIG_NAME} 的配置。一个端点熔断不会影响其他端点。
+ * <p>
+ * 状态变更的日志监听器在注册表的新增事件中挂接。注册表在原子地创建熔断器时发布该事件，
+ * 因此每个熔断器只挂接一次，并发的首次获取也不会重复挂接，且挂接完成之前其他线程拿不到这个熔断器。
+ */
+@Component
+@Slf4j
+public class EndpointCircuitBreakers {
+
+    /**
+     * application.yml 中 resilience4j.circuitbreaker.configs 下的共享配置名称
+     */
+    public static final String CONFIG_NAME = "api-endpoint";
+    private static final String NAME_PREFIX = "api-";
+
+    /**
+     * Resilience4j 熔断器注册表
+     */
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    public EndpointCircuitBreakers(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        circuitBreakerRegistry.getEventPublisher().onEntryAdded(event -> {
+            CircuitBreaker breaker = event.getAddedEntry();
+            if (breaker.getName().startsWith(NAME_PREFIX)) {
+                String endpointName = breaker.getName().substring(NAME_PREFIX.length());
+                breaker.getEventPublisher().onStateTransition(transition ->
+                        log.warn("🛡️ API [{}] 熔断器状态变更: {}", endpointName, transition.getStateTransition()));
+            }
+        });
+    }
+
+    /**
+     * 为所有端点创建熔断器。由 ApiConfigLoader 在加载API列表后调用。
+     *
+     * @param endpoints 已加载的端点列表
+     */
+    public void register(List<ApiProperties.ApiEndpoint> endpoints) {
+        endpoints.forEach(endpoint -> forEndpoint(endpoint.getName()));
+        log.info("🛡️ 已为 {} 个API端点创建独立熔断器。", endpoints.size());
+    }
+
+    /**
+     * 移除不在列表中的端点的熔断器。重新加载API列表后调用，名称未变的端点保留其熔断器状态。
+     *
+     * @param endpointNames 当前的端点名称
+     */
+    public void retain(Set<String> endpointNames) {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(breaker -> {
+            String name = breaker.getName();
+            if (name.startsWith(NAME_PREFIX) && !endpointNames.contains(name.substring(NAME_PREFIX.length()))) {
+                circuitBreakerRegistry.remove(name);
+            }
+        });
+    }
+
+    /**
+     * 获取指定端点的熔断器，不存在时创建。
+     *
+     * @param endpointName 端点名称
+     * @return 该端点的熔断器
+     */
+    public CircuitBreaker forEndpoint(String endpointName) {
+        return circuitBreakerRegistry.circuitBreaker(NAME_PREFIX + endpointName, CONFIG_NAME);
+    }
+
+    /**
+     * 查询指定端点的熔断器状态。
+     *
+     * @param endpointName 端点名称
+     * @return 熔断器状态
+     */
+    public CircuitBreaker.State state(String endpointName) {
+        return forEndpoint(endpointName).getState();
+    }
+
+    /**
+     * 判断指定端点当前是否可能被调用（熔断器未处于打开或强制打开状态）。
+     * 此方法不会占用半开状态下的试探名额。
+     *
+     * @param endpointName 端点名称
+     * @return 如果端点可以被尝试，返回true。
+     */
+    public boolean isCallPermitted(String endpointName) {
+        CircuitBreaker.State state = state(endpointName);
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * 获取所有端点的熔断器状态。
+     *
+     * @return 端点名称到熔断器状态的映射
+     */
+    public Map<String, CircuitBreaker.State> states() {
+        Map<String, CircuitBreaker.State> states = new LinkedHashMap<>();
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(breaker -> {
+            if (breaker.getName().startsWith(NAME_PREFIX)) {
+                states.put(breaker.getName().substring(NAME_PREFIX.length()), breaker.getState());
+            }
+        });
+        return states;
+    }
+}
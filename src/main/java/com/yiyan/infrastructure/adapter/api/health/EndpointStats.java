@@ -0,0 +1,273 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个API端点的运行统计。
+ * <p>
+ * 记录对冲请求中的胜出/落败次数以及请求耗时，用于调优对冲参数（K值与对冲延迟）；
+ * 同时维护延迟、HTTP成功率和解析成功率的指数加权移动平均值，供端点选择策略打分。
+ * 所有计数器都是无锁的，可以被多个并发请求同时更新。
+ */
+public class EndpointStats {
+
+    /**
+     * 端点名称
+     */
+    @Getter
+    private final String name;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder losses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder totalLatencyMs = new LongAdder();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+    /**
+     * 读取的响应体字节数
+     */
+    private final LongAdder bytesRead = new LongAdder();
+    /**
+     * 因超过字节上限或识别为HTML而中止读取的次数
+     */
+    private final LongAdder aborts = new LongAdder();
+
+    // --- 传输层 ---
+    /**
+     * 新建连接的次数
+     */
+    private final LongAdder newConnections = new LongAdder();
+    /**
+     * 从连接池复用连接的次数
+     */
+    private final LongAdder reusedConnections = new LongAdder();
+    private final LongAdder dnsNanos = new LongAdder();
+    private final LongAdder connectNanos = new LongAdder();
+    private final LongAdder tlsHandshakes = new LongAdder();
+    private final LongAdder tlsNanos = new LongAdder();
+
+    // --- 用于端点选择的评分 ---
+    /**
+     * 延迟的EWMA（毫秒），包括网络失败的请求
+     */
+    private final Ewma latencyMs;
+    /**
+     * HTTP层面的成功率EWMA：请求完成且状态码为2xx记为1，否则记为0
+     */
+    private final Ewma httpSuccessRate;
+    /**
+     * 解析/校验成功率EWMA：HTTP成功的响应中，能解析出有效"一言"的比例
+     */
+    private final Ewma parseSuccessRate;
+
+    /**
+     * @param name             端点名称
+     * @param ewmaAlpha        EWMA平滑系数
+     * @param initialLatencyMs 延迟的先验值（毫秒），新端点在收到样本前按此值参与评分
+     */
+    public EndpointStats(String name, double ewmaAlpha, double initialLatencyMs) {
+        this.name = name;
+        this.latencyMs = new Ewma(ewmaAlpha, initialLatencyMs);
+        // 新端点先验地视为完全可用，保证它们有机会被尝试
+        this.httpSuccessRate = new Ewma(ewmaAlpha, 1.0);
+        this.parseSuccessRate = new Ewma(ewmaAlpha, 1.0);
+    }
+
+    /**
+     * 记录一次请求的发起。
+     */
+    public void recordAttempt() {
+        attempts.increment();
+    }
+
+    /**
+     * 记录一次胜出：该端点最先返回了有效的"一言"。
+     *
+     * @param latencyMs 从发起请求到得到结果的耗时（毫秒）。
+     */
+    public void recordWin(long latencyMs) {
+        wins.increment();
+        recordLatency(latencyMs);
+    }
+
+    /**
+     * 记录一次落败：其他端点先返回了结果，本端点的请求被取消。
+     *
+     * @param elapsedMs 从发起请求到被取消的耗时（毫秒）。
+     */
+    public void recordLoss(long elapsedMs) {
+        losses.increment();
+        recordLatencyLowerBound(elapsedMs);
+    }
+
+    /**
+     * 记录一个被取消请求的已等待时间。
+     * <p>
+     * 被取消时已等待的时间只是该端点真实延迟的下限：它超过当前的延迟EWMA时才计入，把评分往慢的方向修正，
+     * 否则总是被取消的慢端点永远得不到延迟样本，会一直按先验值参与评分；
+     * 它不超过当前EWMA时不提供任何信息（例如对冲请求刚发出不久就被取消），直接忽略。
+     *
+     * @param elapsedMs 从发起请求到被取消的耗时（毫秒）。
+     */
+    public void recordLatencyLowerBound(long elapsedMs) {
+        latencyMs.updateLowerBound(elapsedMs);
+    }
+
+    /**
+     * 记录一次失败：请求完成但未得到有效结果（HTTP错误、内容无效或网络异常）。
+     *
+     * @param latencyMs 从发起请求到失败的耗时（毫秒）。
+     */
+    public void recordFailure(long latencyMs) {
+        failures.increment();
+        recordLatency(latencyMs);
+    }
+
+    private void recordLatency(long latencyMs) {
+        completedCount.increment();
+        totalLatencyMs.add(latencyMs);
+        maxLatencyMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    /**
+     * 记录一次HTTP请求的结果，更新延迟和HTTP成功率的EWMA。
+     *
+     * @param success   请求是否完成且状态码为2xx
+     * @param latencyMs 请求耗时（毫秒）
+     */
+    public void recordHttpOutcome(boolean success, long latencyMs) {
+        this.latencyMs.update(latencyMs);
+        this.httpSuccessRate.update(success ? 1.0 : 0.0);
+    }
+
+    /**
+     * 记录一次响应解析/校验的结果，更新解析成功率的EWMA。
+     *
+     * @param valid 是否解析出了有效的"一言"
+     */
+    public void recordParseOutcome(boolean valid) {
+        this.parseSuccessRate.update(valid ? 1.0 : 0.0);
+    }
+
+    /**
+     * 记录读取的响应体字节数。
+     *
+     * @param bytes 本次读取的字节数
+     */
+    public void recordBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * 记录一次中止读取的响应。
+     */
+    public void recordAbort() {
+        aborts.increment();
+    }
+
+    /**
+     * 记录一次请求在传输层上的耗时。
+     *
+     * @param dnsNanos     DNS解析耗时（纳秒）
+     * @param connectNanos 建立连接的耗时（纳秒），包括TLS握手
+     * @param tlsNanos     TLS握手耗时（纳秒），没有握手时为0
+     * @param connected    是否新建了连接
+     * @param acquired     是否得到了连接；为 true 且没有新建连接时，说明复用了连接池中的连接
+     */
+    public void recordTransport(long dnsNanos, long connectNanos, long tlsNanos, boolean connected, boolean acquired) {
+        if (connected) {
+            newConnections.increment();
+            this.dnsNanos.add(dnsNanos);
+            this.connectNanos.add(connectNanos);
+        } else if (acquired) {
+            reusedConnections.increment();
+        }
+        if (tlsNanos > 0) {
+            tlsHandshakes.increment();
+            this.tlsNanos.add(tlsNanos);
+        }
+    }
+
+    /**
+     * 用上次运行保存的评分替代先验值，使重启后的端点选择不必从头学习。
+     *
+     * @param ewmaLatencyMs    延迟的EWMA（毫秒）
+     * @param httpSuccessRate  HTTP成功率的EWMA
+     * @param parseSuccessRate 解析成功率的EWMA
+     */
+    public void restoreScores(double ewmaLatencyMs, double httpSuccessRate, double parseSuccessRate) {
+        this.latencyMs.set(ewmaLatencyMs);
+        this.httpSuccessRate.set(httpSuccessRate);
+        this.parseSuccessRate.set(parseSuccessRate);
+    }
+
+    /**
+     * 延迟的EWMA（毫秒）。
+     */
+    public double getEwmaLatencyMs() {
+        return latencyMs.get();
+    }
+
+    /**
+     * HTTP成功率的EWMA，范围 [0, 1]。
+     */
+    public double getHttpSuccessRate() {
+        return httpSuccessRate.get();
+    }
+
+    /**
+     * 解析/校验成功率的EWMA，范围 [0, 1]。
+     */
+    public double getParseSuccessRate() {
+        return parseSuccessRate.get();
+    }
+
+    /**
+     * 生成当前统计的只读快照。
+     */
+    public Snapshot snapshot() {
+        long completed = completedCount.sum();
+        double avgLatency = completed == 0 ? 0 : (double) totalLatencyMs.sum() / completed;
+        long connections = newConnections.sum();
+        long handshakes = tlsHandshakes.sum();
+        return new Snapshot(name, attempts.sum(), wins.sum(), losses.sum(), failures.sum(), avgLatency, maxLatencyMs.get(),
+                getEwmaLatencyMs(), getHttpSuccessRate(), getParseSuccessRate(), bytesRead.sum(), aborts.sum(),
+                connections, reusedConnections.sum(),
+                connections == 0 ? 0 : dnsNanos.sum() / 1e6 / connections,
+                connections == 0 ? 0 : connectNanos.sum() / 1e6 / connections,
+                handshakes == 0 ? 0 : tlsNanos.sum() / 1e6 / handshakes);
+    }
+
+    /**
+     * 端点统计快照。
+     *
+     * @param name         端点名称
+     * @param attempts     发起的请求数
+     * @param wins         胜出次数
+     * @param losses       被取消（落败）次数
+     * @param failures     失败次数
+     * @param avgLatencyMs 已完成请求的平均耗时（毫秒）
+     * @param maxLatencyMs 已完成请求的最大耗时（毫秒）
+     * @param ewmaLatencyMs    延迟的EWMA（毫秒）
+     * @param httpSuccessRate  HTTP成功率的EWMA
+     * @param parseSuccessRate 解析成功率的EWMA
+     * @param bytesRead    读取的响应体字节数
+     * @param aborts       中止读取的响应数
+     * @param newConnections    新建连接的次数
+     * @param reusedConnections 复用连接池中连接的次数
+     * @param avgDnsMs     新建连接时DNS解析的平均耗时（毫秒）
+     * @param avgConnectMs 新建连接的平均耗时（毫秒），包括TLS握手
+     * @param avgTlsMs     TLS握手的平均耗时（毫秒）
+     */
+    public record Snapshot(String name, long attempts, long wins, long losses, long failures,
+                           double avgLatencyMs, long maxLatencyMs,
+                           double ewmaLatencyMs, double httpSuccessRate, double parseSuccessRate,
+                           long bytesRead, long aborts,
+                           long newConnections, long reusedConnections,
+                           double avgDnsMs, double avgConnectMs, double avgTlsMs) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 所有API端点运行统计的注册表。
+ * <p>
+ * 按端点名称保存 {@link EndpointStats}，并定期把汇总信息输出到日志，便于调优对冲参数。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EndpointStatsRegistry {
+
+    /**
+     * API配置属性，提供EWMA平滑系数等评分参数
+     */
+    private final ApiProperties apiProperties;
+
+    private final Map<String, EndpointStats> statsByName = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次API自检的报告，尚未自检时为null
+     */
+    private volatile ApiHealthReport latestHealthReport;
+
+    /**
+     * 获取指定端点的统计对象，不存在时自动创建。
+     *
+     * @param endpointName 端点名称
+     * @return 该端点的统计对象
+     */
+    public EndpointStats forEndpoint(String endpointName) {
+        return statsByName.computeIfAbsent(endpointName, name -> {
+            ApiProperties.SelectionConfig selection = apiProperties.getSelection();
+            return new EndpointStats(name, selection.getEwmaAlpha(), selection.getReferenceLatency().toMillis());
+        });
+    }
+
+    /**
+     * 移除不在列表中的端点的统计。重新加载API列表后调用，名称未变的端点保留其统计和评分。
+     *
+     * @param endpointNames 当前的端点名称
+     */
+    public void retain(Set<String> endpointNames) {
+        statsByName.keySet().retainAll(endpointNames);
+    }
+
+    /**
+     * 获取所有端点的统计快照，按胜出次数降序排列。
+     */
+    public List<EndpointStats.Snapshot> snapshot() {
+        return statsByName.values().stream()
+                .map(EndpointStats::snapshot)
+                .sorted(Comparator.comparingLong(EndpointStats.Snapshot::wins).reversed())
+                .toList();
+    }
+
+    /**
+     * 获取最近一次API自检的报告。
+     */
+    public Optional<ApiHealthReport> getLatestHealthReport() {
+        return Optional.ofNullable(latestHealthReport);
+    }
+
+    /**
+     * 保存最近一次API自检的报告。
+     */
+    public void setLatestHealthReport(ApiHealthReport report) {
+        this.latestHealthReport = report;
+    }
+
+    /**
+     * 定期输出各端点的统计汇总。
+     */
+    @Scheduled(initialDelayString = "${yiyan.hedge.report-interval:PT10M}", fixedDelayString = "${yiyan.hedge.report-interval:PT10M}")
+    public void logSummary() {
+        List<EndpointStats.Snapshot> snapshots = snapshot();
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        log.info("📊 --- API端点统计 ---");
+        for (EndpointStats.Snapshot s : snapshots) {
+            log.info("📊 [{}] 请求:{} 胜出:{} 落败:{} 失败:{} 平均耗时:{}ms 最大耗时:{}ms | EWMA延迟:{}ms HTTP成功率:{} 解析成功率:{} | 读取:{}B 中止:{} | 新建连接:{} 复用:{} DNS:{}ms 连接:{}ms TLS:{}ms",
+                    s.name(), s.attempts(), s.wins(), s.losses(), s.failures(), Math.round(s.avgLatencyMs()), s.maxLatencyMs(),
+                    Math.round(s.ewmaLatencyMs()), String.format("%.2f", s.httpSuccessRate()), String.format("%.2f", s.parseSuccessRate()),
+                    s.bytesRead(), s.aborts(), s.newConnections(), s.reusedConnections(),
+                    String.format("%.1f", s.avgDnsMs()), String.format("%.1f", s.avgConnectMs()), String.format("%.1f", s.avgTlsMs()));
+        }
+    }
+}
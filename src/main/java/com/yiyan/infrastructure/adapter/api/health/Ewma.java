@@ -0,0 +1,78 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁的指数加权移动平均值（EWMA）。
+ * <p>
+ * 当前值以 double 的位模式保存在 {@link AtomicLong} 中，通过CAS循环更新，
+ * 因此可以被多个并发请求的回调线程同时写入而不需要加锁。
+ */
+public class Ewma {
+
+    private final double alpha;
+    private final AtomicLong bits;
+
+    /**
+     * @param alpha        平滑系数 (0, 1]，越大越偏向最新的样本。
+     * @param initialValue 在收到任何样本之前的先验值。
+     */
+    public Ewma(double alpha, double initialValue) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("EWMA 平滑系数必须在 (0, 1] 之间: " + alpha);
+        }
+        this.alpha = alpha;
+        this.bits = new AtomicLong(Double.doubleToRawLongBits(initialValue));
+    }
+
+    /**
+     * 加入一个新的样本。
+     *
+     * @param sample 样本值
+     */
+    public void update(double sample) {
+        long current;
+        long next;
+        do {
+            current = bits.get();
+            double value = Double.longBitsToDouble(current);
+            next = Double.doubleToRawLongBits(value + alpha * (sample - value));
+        } while (!bits.compareAndSet(current, next));
+    }
+
+    /**
+     * 加入一个只知道下限的样本：只有当它大于当前的平均值时才计入，否则忽略。
+     * <p>
+     * 下限小于当前平均值时，真实值可能比平均值大也可能比平均值小，计入它只会把平均值错误地拉低。
+     *
+     * @param lowerBound 样本的下限
+     */
+    public void updateLowerBound(double lowerBound) {
+        long current;
+        long next;
+        do {
+            current = bits.get();
+            double value = Double.longBitsToDouble(current);
+            if (lowerBound <= value) {
+                return;
+            }
+            next = Double.doubleToRawLongBits(value + alpha * (lowerBound - value));
+        } while (!bits.compareAndSet(current, next));
+    }
+
+    /**
+     * 直接设置当前值，例如从上次运行保存的评分恢复。
+     *
+     * @param value 新的当前值
+     */
+    public void set(double value) {
+        bits.set(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * 获取当前的平均值。
+     */
+    public double get() {
+        return Double.longBitsToDouble(bits.get());
+    }
+}
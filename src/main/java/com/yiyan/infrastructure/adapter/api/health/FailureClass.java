@@ -0,0 +1,65 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+/**
+ * 一次端点请求失败的分类。
+ */
+public enum FailureClass {
+    /**
+     * 没有失败，得到了有效的"一言"
+     */
+    NONE,
+    /**
+     * HTTP状态码不是2xx，或响应体为空
+     */
+    HTTP_STATUS,
+    /**
+     * 响应成功，但内容无法解析或未通过校验
+     */
+    INVALID_CONTENT,
+    /**
+     * 响应体超过端点的字节上限，读取被中止
+     */
+    RESPONSE_TOO_LARGE,
+    /**
+     * 连接或读取超时
+     */
+    TIMEOUT,
+    /**
+     * 其他网络层面的异常（DNS解析失败、连接被拒绝等）
+     */
+    NETWORK,
+    /**
+     * 端点没有预先构建好的请求（URL或请求头无效，或端点所属的配置快照已过期），未发起请求
+     */
+    NO_REQUEST,
+    /**
+     * 端点的熔断器处于打开状态，未发起请求
+     */
+    CIRCUIT_OPEN,
+    /**
+     * 请求被主动取消（例如对冲请求中其他端点已先返回）
+     */
+    CANCELLED,
+    /**
+     * 在整体截止时间前未能完成
+     */
+    DEADLINE_EXCEEDED,
+    /**
+     * 意料之外的异常
+     */
+    UNEXPECTED;
+
+    /**
+     * 是否属于网络层面的失败。
+     */
+    public boolean isNetworkFailure() {
+        return this == TIMEOUT || this == NETWORK;
+    }
+
+    /**
+     * 是否属于内容层面的失败：服务端正常响应了，但内容不可用。这类失败不计入熔断器。
+     */
+    public boolean isContentFailure() {
+        return this == INVALID_CONTENT || this == RESPONSE_TOO_LARGE;
+    }
+}
@@ -0,0 +1,248 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Dns;
+import okhttp3.HttpUrl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 网络状态监视器：在网络层面的失败后暂停获取，并在恢复前探测网络是否可达。
+ * <p>
+ * 状态保存在一个 {@link AtomicReference} 中，所有转换都通过 CAS 完成：
+ * <pre>
+ * ONLINE --网络失败--> COOLDOWN --冷却结束--> PROBING --探测成功--> ONLINE
+ *                          ^                              |
+ *                          +-------探测失败（冷却加倍）-------+
+ * </pre>
+ * 冷却时长为 {@code initialCooldown × multiplier^(n-1)}（n 为连续失败次数），不超过 {@code maxCooldown}。
+ * 短暂的网络抖动只会暂停几秒；长时间离线时探测间隔逐渐拉长，不会每隔几秒就发起一整轮请求。
+ * 探测绕过进程内DNS缓存，直接使用系统解析，否则缓存的结果会掩盖离线状态。
+ * 系统解析没有超时参数，因此整个探测（解析和连接）受 {@code probeTimeout} 限制：超时即按不可达处理，
+ * 卡在解析中的I/O线程不会让状态停留在 PROBING。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class NetworkStateMonitor {
+
+    /**
+     * API配置属性，提供冷却和探测参数以及探测目标的候选端点
+     */
+    private final ApiProperties apiProperties;
+    /**
+     * 统一的I/O执行器，阻塞的探测在其中进行
+     */
+    private final ExecutorService ioExecutor;
+    /**
+     * 获取流程的指标，记录冷却和探测
+     */
+    private final FetchMetrics fetchMetrics;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.ONLINE);
+
+    /**
+     * 判断现在能否发起获取。
+     * <p>
+     * 在线时立即返回true；冷却中立即返回false；冷却结束时发起一次探测，返回的 Future 在探测结束后完成。
+     * 同一时间最多只有一个探测在进行，其他调用方共享它的结果。
+     *
+     * @return 网络可用时以true完成的 Future，不会以异常完成。
+     */
+    public CompletableFuture<Boolean> checkReachable() {
+        while (true) {
+            State current = state.get();
+            switch (current.phase()) {
+                case ONLINE:
+                    return CompletableFuture.completedFuture(true);
+                case PROBING:
+                    return current.probe();
+                case COOLDOWN:
+                    if (System.currentTimeMillis() < current.until()) {
+                        log.info("⏰ 网络错误冷却中，跳过本次获取任务。");
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    State probing = current.probing(new CompletableFuture<>());
+                    if (state.compareAndSet(current, probing)) {
+                        startProbe(probing);
+                        return probing.probe();
+                    }
+                    break; // 状态已被其他线程改变，重新判断
+                default:
+                    throw new IllegalStateException("未知的网络状态: " + current.phase());
+            }
+        }
+    }
+
+    /**
+     * 记录一次网络层面的失败（超时或连接错误）。在线时进入冷却；已在冷却或探测中时忽略。
+     */
+    public void recordNetworkFailure() {
+        State current = state.get();
+        if (current.phase() != Phase.ONLINE) {
+            return;
+        }
+        long cooldownMillis = cooldownFor(current.failures() + 1);
+        State cooldown = current.cooldown(cooldownMillis);
+        if (state.compareAndSet(current, cooldown)) {
+            fetchMetrics.recordCooldown();
+            log.warn("🚨 网络连接异常，将暂停获取 {} 秒 (连续 {} 次)。", cooldownMillis / 1000.0, cooldown.failures());
+        }
+    }
+
+    /**
+     * 记录一次网络可达的证据（收到了任意HTTP响应），清零连续失败次数。
+     */
+    public void recordReachable() {
+        State current = state.get();
+        if (current.phase() == Phase.ONLINE && current.failures() > 0) {
+            state.compareAndSet(current, State.ONLINE);
+        }
+    }
+
+    /**
+     * 获取当前状态。
+     */
+    public State state() {
+        return state.get();
+    }
+
+    private void startProbe(State probing) {
+        long timeoutMillis = Math.max(1, apiProperties.getNetwork().getProbeTimeout().toMillis());
+        CompletableFuture<Boolean> probe;
+        try {
+            probe = CompletableFuture.supplyAsync(this::probe, ioExecutor);
+        } catch (RejectedExecutionException e) {
+            finishProbe(probing, false);
+            return;
+        }
+        probe.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.debug("🌐 网络探测超过 {} ms 未完成，按不可达处理。", timeoutMillis);
+                    return false;
+                })
+                .thenAccept(reachable -> finishProbe(probing, reachable));
+    }
+
+    private void finishProbe(State probing, boolean reachable) {
+        fetchMetrics.recordProbe(reachable);
+        long cooldownMillis = cooldownFor(probing.failures() + 1);
+        State next = reachable ? probing.online() : probing.cooldown(cooldownMillis);
+        state.compareAndSet(probing, next);
+        if (reachable) {
+            log.info("🟢 网络探测成功，恢复正常获取。");
+        } else {
+            fetchMetrics.recordCooldown();
+            log.warn("🚨 网络探测失败，继续暂停获取 {} 秒 (连续 {} 次)。", cooldownMillis / 1000.0, next.failures());
+        }
+        probing.probe().complete(reachable);
+    }
+
+    /**
+     * 探测网络是否可达：解析探测主机，TCP方式下再连接其端口。解析可能阻塞任意长的时间，由调用方限制总时长。
+     */
+    private boolean probe() {
+        ApiProperties.NetworkConfig config = apiProperties.getNetwork();
+        ProbeTarget target = probeTarget(config);
+        if (target == null) {
+            return true; // 没有可探测的主机，直接恢复，由真实请求判断
+        }
+        int timeoutMillis = (int) Math.max(1, config.getProbeTimeout().toMillis());
+        try {
+            List<InetAddress> addresses = Dns.SYSTEM.lookup(target.host());
+            if (config.getProbeMode() == ApiProperties.ProbeMode.DNS) {
+                return true;
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(addresses.get(0), target.port()), timeoutMillis);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.debug("🌐 网络探测 {}:{} 失败: {}", target.host(), target.port(), e.getMessage());
+            return false;
+        }
+    }
+
+    private ProbeTarget probeTarget(ApiProperties.NetworkConfig config) {
+        List<ApiProperties.ApiEndpoint> endpoints = apiProperties.getEndpoints();
+        HttpUrl url = endpoints.isEmpty() ? null
+                : HttpUrl.parse(endpoints.get(ThreadLocalRandom.current().nextInt(endpoints.size())).getUrl());
+        String host = StringUtils.hasText(config.getProbeHost()) ? config.getProbeHost() : url != null ? url.host() : null;
+        if (host == null) {
+            return null;
+        }
+        int port = config.getProbePort() != null ? config.getProbePort() : url != null ? url.port() : 443;
+        return new ProbeTarget(host, port);
+    }
+
+    private long cooldownFor(int failures) {
+        ApiProperties.NetworkConfig config = apiProperties.getNetwork();
+        double multiplier = Math.max(1.0, config.getMultiplier());
+        double millis = config.getInitialCooldown().toMillis() * Math.pow(multiplier, Math.max(0, failures - 1));
+        return (long) Math.min(millis, config.getMaxCooldown().toMillis());
+    }
+
+    private record ProbeTarget(String host, int port) {
+    }
+
+    /**
+     * 网络状态的阶段。
+     */
+    public enum Phase {
+        /**
+         * 正常获取
+         */
+        ONLINE,
+        /**
+         * 冷却中，跳过获取
+         */
+        COOLDOWN,
+        /**
+         * 冷却结束，正在探测网络是否可达
+         */
+        PROBING
+    }
+
+    /**
+     * 网络状态。每次转换都创建新的实例，以便 CAS 比较。
+     *
+     * @param phase    当前阶段
+     * @param failures 连续的网络失败次数（包括探测失败），收到任意HTTP响应后清零
+     * @param until    冷却结束时间（毫秒），仅在 COOLDOWN 阶段有意义
+     * @param probe    进行中的探测，仅在 PROBING 阶段不为null
+     */
+    public record State(Phase phase, int failures, long until, CompletableFuture<Boolean> probe) {
+
+        static final State ONLINE = new State(Phase.ONLINE, 0, 0, null);
+
+        State cooldown(long durationMillis) {
+            return new State(Phase.COOLDOWN, failures + 1, System.currentTimeMillis() + durationMillis, null);
+        }
+
+        State probing(CompletableFuture<Boolean> probe) {
+            return new State(Phase.PROBING, failures, until, probe);
+        }
+
+        /**
+         * 探测成功后回到在线状态，但保留失败次数：如果恢复后很快再次失败，冷却从上次的时长继续增长。
+         */
+        State online() {
+            return new State(Phase.ONLINE, failures, 0, null);
+        }
+    }
+}
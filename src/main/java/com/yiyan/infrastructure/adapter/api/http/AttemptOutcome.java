@@ -0,0 +1,35 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.health.FailureClass;
+
+import java.util.Optional;
+
+/**
+ * 向单个端点发起的一次请求的结果。
+ *
+ * @param endpoint     请求的端点
+ * @param sentence     解析得到的"一言"（来源为端点名称），失败时为空
+ * @param failureClass 失败分类，成功时为 {@link FailureClass#NONE}
+ * @param detail       失败原因的描述，成功时为null
+ * @param latencyMs    从发起请求到得到结果的耗时（毫秒）
+ */
+public record AttemptOutcome(ApiProperties.ApiEndpoint endpoint, Optional<Sentence> sentence,
+                             FailureClass failureClass, String detail, long latencyMs) {
+
+    static AttemptOutcome success(ApiProperties.ApiEndpoint endpoint, Sentence sentence, long latencyMs) {
+        return new AttemptOutcome(endpoint, Optional.of(sentence.withSource(endpoint.getName())), FailureClass.NONE, null, latencyMs);
+    }
+
+    static AttemptOutcome failure(ApiProperties.ApiEndpoint endpoint, FailureClass failureClass, String detail, long latencyMs) {
+        return new AttemptOutcome(endpoint, Optional.empty(), failureClass, detail, latencyMs);
+    }
+
+    /**
+     * 是否得到了有效的"一言"。
+     */
+    public boolean isSuccess() {
+        return sentence.isPresent();
+    }
+}
@@ -0,0 +1,80 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限制最大读取字节数并统计已读字节数的输入流。
+ * <p>
+ * 读取超过上限时抛出 {@link LimitExceededException}，而不是静默截断，
+ * 这样解析器不会把半截响应当作完整内容处理。
+ */
+final class BoundedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    BoundedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    /**
+     * 已从底层流读取的字节数。
+     */
+    long count() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        // 最多只多读1个字节，用于判断是否超限
+        long allowed = limit - count + 1;
+        int n = super.read(b, off, (int) Math.min(len, allowed));
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, limit - count + 1));
+        advance(skipped);
+        return skipped;
+    }
+
+    /**
+     * 不支持 mark/reset，需要预读时在外层包装 BufferedInputStream。
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long n) throws LimitExceededException {
+        count += n;
+        if (count > limit) {
+            throw new LimitExceededException(limit);
+        }
+    }
+
+    /**
+     * 读取的字节数超过上限。
+     */
+    static final class LimitExceededException extends IOException {
+        LimitExceededException(long limit) {
+            super("响应体超过 " + limit + " 字节上限");
+        }
+    }
+}
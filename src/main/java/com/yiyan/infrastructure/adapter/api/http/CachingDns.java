@@ -0,0 +1,144 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Dns;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带进程内缓存的DNS解析。
+ * <p>
+ * 解析结果在 TTL 内直接使用；过期但未超过最长陈旧时间时，立即返回旧结果并在I/O执行器中重新解析
+ * （stale-while-revalidate），因此请求不会因为解析而等待。重新解析失败时保留旧结果，
+ * 只有从未解析过或结果过于陈旧的主机才会同步解析。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CachingDns implements Dns {
+
+    /**
+     * API配置属性，提供DNS缓存的有效期
+     */
+    private final ApiProperties apiProperties;
+    /**
+     * 统一的I/O执行器，后台重新解析在其中进行
+     */
+    private final ExecutorService ioExecutor;
+
+    private final Map<String, CachedLookup> cache = new ConcurrentHashMap<>();
+
+    // --- 统计 ---
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        ApiProperties.DnsCacheConfig config = apiProperties.getTransport().getDns();
+        if (!config.isEnabled()) {
+            return Dns.SYSTEM.lookup(hostname);
+        }
+        long now = System.currentTimeMillis();
+        CachedLookup cached = cache.get(hostname);
+        if (cached != null) {
+            long age = now - cached.resolvedAt();
+            if (age <= config.getTtl().toMillis()) {
+                hits.increment();
+                return cached.addresses();
+            }
+            if (age <= config.getTtl().plus(config.getMaxStale()).toMillis()) {
+                staleHits.increment();
+                refreshInBackground(hostname, cached);
+                return cached.addresses();
+            }
+        }
+        misses.increment();
+        return resolve(hostname);
+    }
+
+    private List<InetAddress> resolve(String hostname) throws UnknownHostException {
+        List<InetAddress> addresses = List.copyOf(Dns.SYSTEM.lookup(hostname));
+        cache.put(hostname, new CachedLookup(addresses, System.currentTimeMillis(), new AtomicBoolean(false)));
+        return addresses;
+    }
+
+    /**
+     * 在后台重新解析一个过期的主机。同一主机同一时间最多只有一个重新解析在进行。
+     */
+    private void refreshInBackground(String hostname, CachedLookup cached) {
+        if (!cached.refreshing().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    resolve(hostname);
+                    log.debug("🌐 已在后台重新解析 {}", hostname);
+                } catch (UnknownHostException e) {
+                    refreshFailures.increment();
+                    log.debug("🌐 后台重新解析 {} 失败，继续使用旧结果: {}", hostname, e.getMessage());
+                } finally {
+                    cached.refreshing().set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cached.refreshing().set(false);
+        }
+    }
+
+    /**
+     * 获取缓存的统计信息。
+     */
+    public Stats stats() {
+        return new Stats(cache.size(), hits.sum(), staleHits.sum(), misses.sum(), refreshFailures.sum());
+    }
+
+    /**
+     * 定期输出缓存统计。
+     */
+    @Scheduled(initialDelayString = "${yiyan.transport.dns.report-interval:PT10M}", fixedDelayString = "${yiyan.transport.dns.report-interval:PT10M}")
+    public void logStats() {
+        Stats stats = stats();
+        if (stats.hits() + stats.staleHits() + stats.misses() == 0) {
+            return;
+        }
+        log.info("🌐 DNS缓存 主机:{} 命中:{} 陈旧命中:{} 未命中:{} 后台解析失败:{}",
+                stats.hosts(), stats.hits(), stats.staleHits(), stats.misses(), stats.refreshFailures());
+    }
+
+    /**
+     * 一个主机的解析结果。
+     *
+     * @param addresses  解析得到的地址
+     * @param resolvedAt 解析时间（毫秒）
+     * @param refreshing 是否正在后台重新解析
+     */
+    private record CachedLookup(List<InetAddress> addresses, long resolvedAt, AtomicBoolean refreshing) {
+    }
+
+    /**
+     * DNS缓存统计信息。
+     *
+     * @param hosts           缓存的主机数
+     * @param hits            在有效期内命中的次数
+     * @param staleHits       返回过期结果并在后台重新解析的次数
+     * @param misses          同步解析的次数
+     * @param refreshFailures 后台重新解析失败的次数
+     */
+    public record Stats(int hosts, long hits, long staleHits, long misses, long refreshFailures) {
+    }
+}
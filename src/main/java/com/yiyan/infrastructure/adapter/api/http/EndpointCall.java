@@ -0,0 +1,30 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import okhttp3.Call;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个已发起、可能仍在进行中的端点请求。
+ *
+ * @param endpoint   请求的端点
+ * @param call       底层的OkHttp调用
+ * @param startNanos 发起时间
+ */
+public record EndpointCall(ApiProperties.ApiEndpoint endpoint, Call call, long startNanos) {
+
+    /**
+     * 自发起以来经过的时间（毫秒）。
+     */
+    public long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 取消请求。结果回调仍会收到一次 {@code CANCELLED} 结果。
+     */
+    public void cancel() {
+        call.cancel();
+    }
+}
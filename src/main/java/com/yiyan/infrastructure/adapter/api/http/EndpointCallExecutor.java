@@ -0,0 +1,225 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.health.EndpointCircuitBreakers;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStats;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import com.yiyan.infrastructure.adapter.api.health.FailureClass;
+import com.yiyan.infrastructure.adapter.api.parser.EndpointParsePlans;
+import com.yiyan.infrastructure.adapter.api.parser.HtmlSniffer;
+import com.yiyan.infrastructure.adapter.api.parser.ParsePlan;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 负责向单个API端点发起一次异步请求，并把结果统一记录到熔断器和端点统计中。
+ * <p>
+ * 对冲获取和API自检都通过它发起请求，因此熔断、评分和失败分类的规则只在这里定义一次：
+ * 网络层面的失败计入熔断器；HTTP状态码错误和被取消的请求只归还熔断器许可，不计为失败。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EndpointCallExecutor {
+
+    /**
+     * OkHttp客户端，用于执行HTTP请求
+     */
+    private final OkHttpClient httpClient;
+    /**
+     * 每个端点预先构建好的HTTP请求
+     */
+    private final EndpointRequests endpointRequests;
+    /**
+     * 每个端点预编译的解析计划
+     */
+    private final EndpointParsePlans parsePlans;
+    /**
+     * 端点运行统计，记录延迟和成功率
+     */
+    private final EndpointStatsRegistry statsRegistry;
+    /**
+     * 每个端点独立的熔断器
+     */
+    private final EndpointCircuitBreakers circuitBreakers;
+    /**
+     * 获取流程的指标
+     */
+    private final FetchMetrics fetchMetrics;
+
+    /**
+     * 向指定端点发起异步请求。
+     * <p>
+     * 如果端点没有可用的请求、熔断器不允许调用或请求无法创建，则不做任何网络操作、不回调，
+     * 返回的结果以 {@link FailureClass#NO_REQUEST}、{@link FailureClass#CIRCUIT_OPEN} 或 {@link FailureClass#UNEXPECTED}
+     * 说明跳过的原因。否则先以新请求调用 {@code onStart}，再把请求交给OkHttp；结果（包括被取消）会且只会通过 {@code callback} 回调一次。
+     * 回调通常在OkHttp的调度线程中执行，但调度执行器拒绝任务时，OkHttp 会在本方法返回之前于当前线程回调，
+     * 因此调用方必须在 {@code onStart} 中登记请求，而不是等本方法返回后再登记。
+     *
+     * @param endpoint       API端点
+     * @param skipValidation 是否跳过数据校验
+     * @param onStart        请求交给OkHttp之前调用，用于登记在途请求
+     * @param callback       结果回调
+     * @return 已发起的请求，或端点被跳过的原因
+     */
+    public EnqueueResult enqueue(ApiProperties.ApiEndpoint endpoint, boolean skipValidation,
+                                          Consumer<EndpointCall> onStart, Consumer<AttemptOutcome> callback) {
+        Consumer<AttemptOutcome> listener = outcome -> {
+            fetchMetrics.recordRequest(endpoint.getName(), outcome.failureClass(), outcome.latencyMs());
+            callback.accept(outcome);
+        };
+        Optional<Request> request = endpointRequests.forEndpoint(endpoint);
+        if (request.isEmpty()) {
+            log.warn("⚠️ API [{}] 没有可用的请求，跳过。", endpoint.getName());
+            return EnqueueResult.skipped(FailureClass.NO_REQUEST, "没有可用的请求");
+        }
+        CircuitBreaker breaker = circuitBreakers.forEndpoint(endpoint.getName());
+        if (!breaker.tryAcquirePermission()) {
+            log.warn("🛡️ API [{}] 的熔断器处于 {} 状态，跳过。", endpoint.getName(), breaker.getState());
+            return EnqueueResult.skipped(FailureClass.CIRCUIT_OPEN, "熔断器处于 " + breaker.getState() + " 状态");
+        }
+
+        EndpointCall endpointCall;
+        try {
+            endpointCall = new EndpointCall(endpoint, httpClient.newCall(request.get()), System.nanoTime());
+        } catch (RuntimeException e) {
+            // 没有发出任何请求：归还熔断器的许可，只记录指标，不回调
+            breaker.releasePermission();
+            fetchMetrics.recordRequest(endpoint.getName(), FailureClass.UNEXPECTED, 0);
+            log.error("创建API [{}] 的请求时发生意外错误: {}", endpoint.getName(), e.getMessage(), e);
+            return EnqueueResult.skipped(FailureClass.UNEXPECTED, "创建请求失败: " + e.getMessage());
+        }
+        EndpointStats stats = statsRegistry.forEndpoint(endpoint.getName());
+        stats.recordAttempt();
+        onStart.accept(endpointCall);
+        endpointCall.call().enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                long latencyMs = endpointCall.elapsedMs();
+                AttemptOutcome outcome;
+                try (response) {
+                    outcome = readOutcome(endpoint, response, skipValidation, endpointCall, stats);
+                } catch (IOException e) {
+                    // 读取响应体时的网络错误按请求失败处理，HTTP结果由 onFailure 记录，这里不再记录
+                    onFailure(call, e);
+                    return;
+                } catch (Exception e) {
+                    log.error("处理API [{}] 时发生意外错误: {}", endpoint.getName(), e.getMessage(), e);
+                    outcome = AttemptOutcome.failure(endpoint, FailureClass.UNEXPECTED, e.getMessage(), latencyMs);
+                }
+                stats.recordHttpOutcome(response.isSuccessful(), latencyMs);
+                if (outcome.failureClass() == FailureClass.NONE || outcome.failureClass().isContentFailure()) {
+                    breaker.onSuccess(outcome.latencyMs(), TimeUnit.MILLISECONDS);
+                    stats.recordParseOutcome(outcome.isSuccess());
+                } else {
+                    breaker.releasePermission();
+                }
+                listener.accept(outcome);
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                long latencyMs = endpointCall.elapsedMs();
+                if (call.isCanceled()) {
+                    breaker.releasePermission();
+                    listener.accept(AttemptOutcome.failure(endpoint, FailureClass.CANCELLED, "请求已取消", latencyMs));
+                    return;
+                }
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    // 调度执行器已满或已关闭，请求没有发出，与端点和网络无关
+                    breaker.releasePermission();
+                    log.warn("⚠️ I/O执行器拒绝了API [{}] 的请求: {}", endpoint.getName(), e.getCause().getMessage());
+                    listener.accept(AttemptOutcome.failure(endpoint, FailureClass.UNEXPECTED, "I/O执行器拒绝了请求", latencyMs));
+                    return;
+                }
+                breaker.onError(latencyMs, TimeUnit.MILLISECONDS, e);
+                stats.recordHttpOutcome(false, latencyMs);
+                FailureClass failureClass = e instanceof InterruptedIOException ? FailureClass.TIMEOUT : FailureClass.NETWORK;
+                listener.accept(AttemptOutcome.failure(endpoint, failureClass, e.getMessage(), latencyMs));
+            }
+        });
+        return EnqueueResult.started(endpointCall);
+    }
+
+    /**
+     * 读取响应体并解析为"一言"。
+     * <p>
+     * 响应体最多读取解析计划中的字节上限：声明的 Content-Length 超限时直接放弃，
+     * 读取过程中超限或开头识别为HTML页面时立即中止，关闭响应即释放连接。
+     */
+    private AttemptOutcome readOutcome(ApiProperties.ApiEndpoint endpoint, Response response, boolean skipValidation,
+                                       EndpointCall endpointCall, EndpointStats stats) throws IOException {
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            // 对于不成功的HTTP状态码，视为逻辑失败，避免触发熔断
+            fetchMetrics.recordRejection(endpoint.getName(), FetchMetrics.REJECT_HTTP_STATUS);
+            return AttemptOutcome.failure(endpoint, FailureClass.HTTP_STATUS,
+                    String.format("API [%s] 请求失败, HTTP状态码: %d", endpoint.getName(), response.code()), endpointCall.elapsedMs());
+        }
+
+        Optional<ParsePlan> plan = parsePlans.forEndpoint(endpoint);  // 加载配置时编译好的解析计划
+        if (plan.isEmpty()) {
+            return AttemptOutcome.failure(endpoint, FailureClass.INVALID_CONTENT, "端点没有可用的解析计划", endpointCall.elapsedMs());
+        }
+        int maxResponseBytes = plan.get().maxResponseBytes();
+        if (body.contentLength() > maxResponseBytes) {
+            stats.recordAbort();
+            fetchMetrics.recordRejection(endpoint.getName(), FetchMetrics.REJECT_TOO_LARGE);
+            log.warn("⚠️ API [{}] 声明的响应体长度 {} 字节超过上限 {}，不予读取。", endpoint.getName(), body.contentLength(), maxResponseBytes);
+            return AttemptOutcome.failure(endpoint, FailureClass.RESPONSE_TOO_LARGE,
+                    String.format("响应体 %d 字节超过上限 %d", body.contentLength(), maxResponseBytes), endpointCall.elapsedMs());
+        }
+
+        MediaType contentType = body.contentType();
+        Charset charset = contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+        BoundedInputStream bounded = new BoundedInputStream(body.byteStream(), maxResponseBytes);
+        Optional<Sentence> sentence;
+        try {
+            // 直接把响应体字节流交给解析器，避免先复制成完整的字符串
+            InputStream in = new BufferedInputStream(bounded, HtmlSniffer.SNIFF_LIMIT);
+            if (HtmlSniffer.looksLikeHtml(in, charset)) {
+                stats.recordAbort();
+                fetchMetrics.recordRejection(endpoint.getName(), FetchMetrics.REJECT_HTML);
+                log.warn("⚠️ API [{}] 返回了HTML页面, 将丢弃.", endpoint.getName());
+                return AttemptOutcome.failure(endpoint, FailureClass.INVALID_CONTENT, "返回了HTML页面", endpointCall.elapsedMs());
+            }
+            long parseStarted = System.nanoTime();
+            sentence = plan.get().execute(in, charset, skipValidation);
+            fetchMetrics.recordParse(endpoint.getName(), System.nanoTime() - parseStarted);
+        } catch (BoundedInputStream.LimitExceededException e) {
+            stats.recordAbort();
+            fetchMetrics.recordRejection(endpoint.getName(), FetchMetrics.REJECT_TOO_LARGE);
+            log.warn("⚠️ API [{}] 的{}，已中止读取。", endpoint.getName(), e.getMessage());
+            return AttemptOutcome.failure(endpoint, FailureClass.RESPONSE_TOO_LARGE, e.getMessage(), endpointCall.elapsedMs());
+        } finally {
+            stats.recordBytesRead(bounded.count());
+            fetchMetrics.recordResponseBytes(endpoint.getName(), bounded.count());
+        }
+        long latencyMs = endpointCall.elapsedMs();
+        return sentence
+                .map(s -> AttemptOutcome.success(endpoint, s, latencyMs))
+                .orElseGet(() -> AttemptOutcome.failure(endpoint, FailureClass.INVALID_CONTENT, "内容解析后无效", latencyMs));
+    }
+}
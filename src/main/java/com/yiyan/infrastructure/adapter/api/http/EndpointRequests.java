@@ -0,0 +1,115 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 每个API端点预先构建好的HTTP请求。
+ * <p>
+ * URL、请求头（包括默认的 User-Agent）和端点标签对同一个端点总是相同的，因此在 ApiConfigLoader
+ * 加载API列表时一次性构建；OkHttp 的 {@link Request} 不可变，每次获取直接用它创建 {@code Call}，
+ * 不再重复解析URL和复制请求头。
+ * <p>
+ * 请求以端点对象本身为标签，与 EndpointParsePlans 一样只对构建它的那个端点对象有效：
+ * 重新加载后仍在途的获取持有旧快照中的端点，只会取到旧的请求。获取的热路径上从不临时构建请求，
+ * 没有预先构建好的请求的端点直接被跳过。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EndpointRequests {
+
+    private static final String USER_AGENT = "User-Agent";
+
+    /**
+     * API配置属性，提供默认 User-Agent
+     */
+    private final ApiProperties apiProperties;
+
+    /**
+     * 当前生效的请求，整体替换，读取时无需加锁
+     */
+    private volatile Map<String, Request> requests = Map.of();
+    /**
+     * 上一版的请求。重新加载后仍在途的获取使用旧的端点快照，它们的请求保留到下一次重新加载
+     */
+    private volatile Map<String, Request> retiredRequests = Map.of();
+
+    /**
+     * 为所有端点构建请求，整体替换当前的请求。由 ApiConfigLoader 在加载或重新加载API列表时调用。
+     *
+     * @param endpoints 已加载的端点列表
+     */
+    public void register(List<ApiProperties.ApiEndpoint> endpoints) {
+        Map<String, Request> built = new HashMap<>();
+        for (ApiProperties.ApiEndpoint endpoint : endpoints) {
+            try {
+                built.put(endpoint.getName(), build(endpoint));
+            } catch (IllegalArgumentException e) {
+                // ApiConfigLoader 已校验过URL和请求头，正常不会发生
+                log.warn("⚠️ API [{}] 的URL或请求头无效: {}，将不会被使用。", endpoint.getName(), e.getMessage());
+            }
+        }
+        retiredRequests = requests;
+        requests = Map.copyOf(built);
+    }
+
+    /**
+     * 获取指定端点预先构建的请求。
+     * <p>
+     * 只有标签与传入的端点是同一个对象时才会使用，因此重新加载后同名但配置已改变的端点不会用错请求。
+     *
+     * @param endpoint API端点
+     * @return 该端点的HTTP请求；请求无法构建，或端点所属的快照已被替换两次以上时为空
+     */
+    public Optional<Request> forEndpoint(ApiProperties.ApiEndpoint endpoint) {
+        Request request = requests.get(endpoint.getName());
+        if (request == null || request.tag(ApiProperties.ApiEndpoint.class) != endpoint) {
+            request = retiredRequests.get(endpoint.getName());
+        }
+        return request != null && request.tag(ApiProperties.ApiEndpoint.class) == endpoint ? Optional.of(request) : Optional.empty();
+    }
+
+    /**
+     * 构建指定端点的HTTP请求。
+     *
+     * @param endpoint API端点
+     * @return OkHttp的Request对象
+     */
+    private Request build(ApiProperties.ApiEndpoint endpoint) {
+        return new Request.Builder()
+                .url(HttpUrl.get(endpoint.getUrl()))
+                .headers(buildHeaders(endpoint))
+                .tag(ApiProperties.ApiEndpoint.class, endpoint) // 供端点超时和传输层计时使用
+                .build();
+    }
+
+    /**
+     * 构建请求头。
+     * 如果端点配置中没有提供User-Agent（不区分大小写），则使用默认的User-Agent。
+     *
+     * @param endpoint API端点配置
+     * @return OkHttp的Headers对象
+     */
+    private Headers buildHeaders(ApiProperties.ApiEndpoint endpoint) {
+        Headers.Builder headers = new Headers.Builder();
+        if (endpoint.getHeaders() != null) {
+            endpoint.getHeaders().forEach(headers::set);
+        }
+        if (headers.get(USER_AGENT) == null && StringUtils.hasText(apiProperties.getDefaultUserAgent())) {
+            headers.set(USER_AGENT, apiProperties.getDefaultUserAgent());
+        }
+        return headers.build();
+    }
+}
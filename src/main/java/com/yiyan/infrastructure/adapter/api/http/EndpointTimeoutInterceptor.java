@@ -0,0 +1,33 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按端点应用连接和读取超时。
+ * <p>
+ * 所有端点共用一个 {@code OkHttpClient}（以及其中的连接池和DNS缓存），端点自己的超时通过请求上附带的
+ * {@link ApiProperties.ApiEndpoint} 标签在拦截器链中覆盖客户端的默认值。
+ */
+public class EndpointTimeoutInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        ApiProperties.ApiEndpoint endpoint = chain.request().tag(ApiProperties.ApiEndpoint.class);
+        if (endpoint == null) {
+            return chain.proceed(chain.request());
+        }
+        Chain configured = chain;
+        if (endpoint.getConnectTimeout() != null) {
+            configured = configured.withConnectTimeout((int) endpoint.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (endpoint.getReadTimeout() != null) {
+            configured = configured.withReadTimeout((int) endpoint.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return configured.proceed(configured.request());
+    }
+}
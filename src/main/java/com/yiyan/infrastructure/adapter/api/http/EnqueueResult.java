@@ -0,0 +1,30 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.infrastructure.adapter.api.health.FailureClass;
+
+import java.util.Optional;
+
+/**
+ * 向单个端点发起请求的结果：请求已交给OkHttp，或者端点被跳过及其原因。
+ *
+ * @param call       已发起的请求，端点被跳过时为空
+ * @param skipReason 端点被跳过的原因，已发起时为 {@link FailureClass#NONE}
+ * @param detail     跳过原因的描述，已发起时为null
+ */
+public record EnqueueResult(Optional<EndpointCall> call, FailureClass skipReason, String detail) {
+
+    static EnqueueResult started(EndpointCall call) {
+        return new EnqueueResult(Optional.of(call), FailureClass.NONE, null);
+    }
+
+    static EnqueueResult skipped(FailureClass skipReason, String detail) {
+        return new EnqueueResult(Optional.empty(), skipReason, detail);
+    }
+
+    /**
+     * 请求是否已交给OkHttp。
+     */
+    public boolean isStarted() {
+        return call.isPresent();
+    }
+}
@@ -0,0 +1,119 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import lombok.RequiredArgsConstructor;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * 记录每个请求在传输层上的耗时：DNS解析、建立TCP连接和TLS握手，以及连接是新建的还是从连接池复用的。
+ * <p>
+ * 作为 OkHttp 的 {@link EventListener.Factory}，为每个带有端点标签的请求创建一个监听器，
+ * 请求结束时把耗时汇总到该端点的 {@link com.yiyan.infrastructure.adapter.api.health.EndpointStats}。
+ */
+@Component
+@RequiredArgsConstructor
+public class TransportTimingListener implements EventListener.Factory {
+
+    /**
+     * 端点运行统计，传输层耗时记录在其中
+     */
+    private final EndpointStatsRegistry statsRegistry;
+
+    @Override
+    public EventListener create(Call call) {
+        ApiProperties.ApiEndpoint endpoint = call.request().tag(ApiProperties.ApiEndpoint.class);
+        return endpoint == null ? EventListener.NONE : new CallTiming(endpoint.getName());
+    }
+
+    /**
+     * 单个请求的计时。OkHttp 对同一个请求的事件是顺序回调的，因此不需要同步。
+     */
+    private class CallTiming extends EventListener {
+
+        private final String endpointName;
+        private long dnsStartedAt;
+        private long dnsNanos;
+        private long connectStartedAt;
+        private long connectNanos;
+        private long tlsStartedAt;
+        private long tlsNanos;
+        private boolean connected;
+        private boolean acquired;
+        private boolean reported;
+
+        CallTiming(String endpointName) {
+            this.endpointName = endpointName;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStartedAt = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            dnsNanos += System.nanoTime() - dnsStartedAt;
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStartedAt = System.nanoTime();
+            connected = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStartedAt = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tlsNanos += System.nanoTime() - tlsStartedAt;
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectNanos += System.nanoTime() - connectStartedAt;
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+            connectNanos += System.nanoTime() - connectStartedAt;
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            acquired = true;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            report();
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            report();
+        }
+
+        private void report() {
+            if (reported) {
+                return;
+            }
+            reported = true;
+            statsRegistry.forEndpoint(endpointName).recordTransport(dnsNanos, connectNanos, tlsNanos, connected, acquired);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.yiyan.infrastructure.adapter.api.parser;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 每个API端点预编译的解析计划。
+ * <p>
+ * 计划在 ApiConfigLoader 加载API列表时一次性编译，配置错误（未知的解析器类型、非法的映射路径）
+ * 也在此时报告，而不是在每次请求时重复出现。
+ * <p>
+ * 计划与编译它的端点对象绑定：重新加载API列表后，仍在途的请求持有旧快照中的端点对象，
+ * 只会取到旧的计划，不会用新配置解析旧请求的响应。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EndpointParsePlans {
+
+    /**
+     * 解析器工厂，按类型查找解析器
+     */
+    private final SentenceParserFactory parserFactory;
+    /**
+     * API配置属性，提供文本长度上限
+     */
+    private final ApiProperties apiProperties;
+
+    /**
+     * 当前生效的计划，整体替换，读取时无需加锁
+     */
+    private volatile Map<String, CompiledPlan> plans = Map.of();
+    /**
+     * 上一版的计划。重新加载后仍在途的请求使用旧的端点快照，它们的计划保留到下一次重新加载
+     */
+    private volatile Map<String, CompiledPlan> retiredPlans = Map.of();
+
+    /**
+     * 为所有端点编译解析计划，整体替换当前的计划。由 ApiConfigLoader 在加载或重新加载API列表时调用。
+     *
+     * @param endpoints 已加载的端点列表
+     */
+    public void register(List<ApiProperties.ApiEndpoint> endpoints) {
+        Map<String, CompiledPlan> compiled = new HashMap<>();
+        for (ApiProperties.ApiEndpoint endpoint : endpoints) {
+            compile(endpoint).ifPresent(plan -> compiled.put(endpoint.getName(), new CompiledPlan(endpoint, plan)));
+        }
+        retiredPlans = plans;
+        plans = Map.copyOf(compiled);
+        log.info("🧩 已为 {}/{} 个API端点编译解析计划。", compiled.size(), endpoints.size());
+    }
+
+    /**
+     * 获取指定端点的解析计划。
+     * <p>
+     * 只有为同一个端点对象编译的计划才会被使用，因此重新加载后同名但配置已改变的端点不会用错计划。
+     *
+     * @param endpoint API端点
+     * @return 解析计划；端点配置无效，或端点所属的快照已被替换两次以上时为空
+     */
+    public Optional<ParsePlan> forEndpoint(ApiProperties.ApiEndpoint endpoint) {
+        CompiledPlan compiled = plans.get(endpoint.getName());
+        if (compiled == null || compiled.endpoint() != endpoint) {
+            compiled = retiredPlans.get(endpoint.getName());
+        }
+        return compiled != null && compiled.endpoint() == endpoint ? Optional.of(compiled.plan()) : Optional.empty();
+    }
+
+    /**
+     * 解析计划及编译它的端点对象。
+     */
+    private record CompiledPlan(ApiProperties.ApiEndpoint endpoint, ParsePlan plan) {
+    }
+
+    private Optional<ParsePlan> compile(ApiProperties.ApiEndpoint endpoint) {
+        ApiProperties.ParserConfig config = endpoint.getParser();
+        String type = config == null ? null : config.getType();
+        if (!StringUtils.hasText(type)) {
+            log.warn("⚠️ API [{}] 未配置解析器类型，将不会被使用。", endpoint.getName());
+            return Optional.empty();
+        }
+        Optional<SentenceParser> parser = parserFactory.getParser(type);
+        if (parser.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, String> mappings = config.getMappings() == null ? Map.of() : config.getMappings();
+        String textPath = mappings.get("text");
+        String authorPath = mappings.get("author");
+        if (parser.get().requiresTextMapping() && !StringUtils.hasText(textPath)) {
+            log.warn("⚠️ API [{}] 的解析器配置缺少必需的 'text' 字段映射，将不会被使用。", endpoint.getName());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new ParsePlan(
+                    endpoint.getName(),
+                    parser.get(),
+                    textPath,
+                    StringUtils.hasText(textPath) ? ParsePlan.compilePath(textPath) : null,
+                    StringUtils.hasText(authorPath) ? ParsePlan.compilePath(authorPath) : null,
+                    apiProperties.getMaxTextLength(),
+                    endpoint.getMaxResponseBytes() != null
+                            ? endpoint.getMaxResponseBytes()
+                            : parser.get().defaultMaxResponseBytes(apiProperties.getMaxTextLength())));
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ API [{}] 的字段映射无效: {}，将不会被使用。", endpoint.getName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
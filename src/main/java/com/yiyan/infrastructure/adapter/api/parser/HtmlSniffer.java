@@ -0,0 +1,59 @@
+package com.yiyan.infrastructure.adapter.api.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.regex.Pattern;
+
+/**
+ * HTML内容嗅探工具。
+ * <p>
+ * 一些API在出错时会返回HTML错误页面而不是预期的数据，解析器在解析前用它识别并丢弃这类响应。
+ */
+public final class HtmlSniffer {
+
+    /**
+     * 以 {@code <!doctype} 或 {@code <html} 开头的内容视为HTML页面
+     */
+    private static final Pattern HTML_PREFIX = Pattern.compile("^<(!doctype|html)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 流式嗅探时最多预读的字节数
+     */
+    public static final int SNIFF_LIMIT = 64;
+
+    private HtmlSniffer() {
+    }
+
+    /**
+     * 判断文本是否是HTML页面。
+     *
+     * @param body 响应体文本
+     * @return 如果以HTML文档标记开头（忽略前导空白），返回true。
+     */
+    public static boolean looksLikeHtml(CharSequence body) {
+        int start = 0;
+        while (start < body.length() && Character.isWhitespace(body.charAt(start))) {
+            start++;
+        }
+        return HTML_PREFIX.matcher(body).region(start, body.length()).lookingAt();
+    }
+
+    /**
+     * 预读输入流的开头判断是否是HTML页面，之后将流重置到原位置。
+     *
+     * @param in      支持 mark/reset 的输入流
+     * @param charset 响应体的字符集
+     * @return 如果以HTML文档标记开头，返回true。
+     * @throws IOException 读取失败
+     */
+    public static boolean looksLikeHtml(InputStream in, Charset charset) throws IOException {
+        if (!in.markSupported()) {
+            throw new IllegalArgumentException("输入流必须支持 mark/reset");
+        }
+        in.mark(SNIFF_LIMIT);
+        byte[] prefix = in.readNBytes(SNIFF_LIMIT);
+        in.reset();
+        return looksLikeHtml(new String(prefix, charset));
+    }
+}
@@ -0,0 +1,60 @@
+package com.yiyan.infrastructure.adapter.api.parser;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.yiyan.domain.Sentence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Optional;
+
+/**
+ * 单个API端点预编译的解析计划。
+ * <p>
+ * 在加载API列表时由 {@link EndpointParsePlans} 为每个端点生成一次，之后不再变化：
+ * 解析器已按类型解析好，字段映射已编译为 {@link JsonPointer}，校验上限也已确定。
+ * 获取"一言"时只需执行计划，不再重复查找解析器或解释映射配置。
+ *
+ * @param endpointName  端点名称，用于日志
+ * @param parser        已解析的解析器实例
+ * @param textPath      text字段的原始映射配置，用于日志；解析器不需要映射时为null
+ * @param textPointer   text字段的JSON Pointer；未配置时为null
+ * @param authorPointer author字段的JSON Pointer；未配置时为null
+ * @param maxTextLength 文本最大长度
+ * @param maxResponseBytes 响应体最多读取的字节数
+ */
+public record ParsePlan(String endpointName,
+                        SentenceParser parser,
+                        String textPath,
+                        JsonPointer textPointer,
+                        JsonPointer authorPointer,
+                        int maxTextLength,
+                        int maxResponseBytes) {
+
+    /**
+     * 按此计划解析响应体。
+     *
+     * @param body           响应体字节流，由调用方负责关闭
+     * @param charset        响应体的字符集
+     * @param skipValidation 是否跳过业务校验
+     * @return 解析结果
+     * @throws IOException 读取响应体时发生网络异常
+     */
+    public Optional<Sentence> execute(InputStream body, Charset charset, boolean skipValidation) throws IOException {
+        return parser.parse(body, charset, this, skipValidation);
+    }
+
+    /**
+     * 把映射配置编译为JSON Pointer。
+     * 以'/'开头的路径按JSON Pointer解析；否则视为顶层字段名，与 {@code JsonNode.path(name)} 等价。
+     *
+     * @param path 映射配置
+     * @return 编译后的JSON Pointer
+     */
+    public static JsonPointer compilePath(String path) {
+        if (path.startsWith("/")) {
+            return JsonPointer.compile(path);
+        }
+        return JsonPointer.compile("/" + path.replace("~", "~0").replace("/", "~1"));
+    }
+}
@@ -1,14 +1,17 @@
 package com.yiyan.infrastructure.adapter.api.parser;
 
 import com.yiyan.domain.Sentence;
-import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.Optional;
 
 /**
  * "一言"响应解析器接口。
  * <p>
- * 定义了将字符串形式的API响应体，根据特定规则，解析为领域对象 Sentence 的契约。
+ * 定义了将API响应体，根据特定规则，解析为领域对象 Sentence 的契约。
+ * 端点相关的规则（字段路径、长度上限）在加载配置时预编译为 {@link ParsePlan}，解析器只负责执行。
  */
 public interface SentenceParser {
 
@@ -16,9 +19,48 @@ public interface SentenceParser {
      * 解析响应体字符串。
      *
      * @param responseBody   API返回的原始响应体字符串。
-     * @param endpoint       当前API的端点配置，包含解析所需的元数据（如mappings）。
+     * @param plan           当前端点预编译的解析计划，包含字段路径和校验上限。
      * @param skipValidation 如果为 true，则应跳过所有业务逻辑校验（如长度限制）。
      * @return 如果解析成功并符合业务规则，则返回一个包含Sentence的Optional；否则返回空的Optional。
      */
-    Optional<Sentence> parse(String responseBody, ApiProperties.ApiEndpoint endpoint, boolean skipValidation);
-} 
\ No newline at end of file
+    Optional<Sentence> parse(String responseBody, ParsePlan plan, boolean skipValidation);
+
+    /**
+     * 直接从响应体的字节流解析。
+     * <p>
+     * 默认实现把整个流读成字符串后交给 {@link #parse(String, ParsePlan, boolean)}。
+     * 能够边读边解析的实现应覆盖此方法，在取得所需内容后立即返回，不必读完整个响应体。
+     * 调用方已完成HTML嗅探，并限制了流的最大字节数，超限时读取会抛出 {@link IOException}。
+     *
+     * @param body           响应体字节流，由调用方负责关闭。
+     * @param charset        响应体的字符集。
+     * @param plan           当前端点预编译的解析计划。
+     * @param skipValidation 如果为 true，则应跳过所有业务逻辑校验。
+     * @return 解析结果，语义与字符串版本相同。
+     * @throws IOException 读取响应体时发生网络异常。
+     */
+    default Optional<Sentence> parse(InputStream body, Charset charset, ParsePlan plan, boolean skipValidation) throws IOException {
+        return parse(new String(body.readAllBytes(), charset), plan, skipValidation);
+    }
+
+    /**
+     * 此解析器是否依赖 'text' 字段映射。依赖映射的端点缺少该配置时，在编译解析计划阶段即被拒绝。
+     *
+     * @return 默认不依赖
+     */
+    default boolean requiresTextMapping() {
+        return false;
+    }
+
+    /**
+     * 端点未配置 maxResponseBytes 时使用的响应体字节上限。
+     * <p>
+     * 默认按纯文本估算：每个字符在UTF-8下最多4字节，另留1KB给空白和换行。
+     *
+     * @param maxTextLength 文本最大长度（字符数）
+     * @return 字节上限
+     */
+    default int defaultMaxResponseBytes(int maxTextLength) {
+        return maxTextLength * 4 + 1024;
+    }
+}
@@ -1,17 +1,26 @@
 package com.yiyan.infrastructure.adapter.api.parser.impl;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyan.infrastructure.adapter.api.parser.HtmlSniffer;
+import com.yiyan.infrastructure.adapter.api.parser.ParsePlan;
 import com.yiyan.infrastructure.adapter.api.parser.SentenceParser;
 import com.yiyan.domain.Sentence;
-import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 @Component("json")
@@ -24,68 +33,160 @@ public class JsonSentenceParser implements SentenceParser {
      */
     private final ObjectMapper objectMapper;
     /**
-     * API配置属性，用于获取如最大文本长度等全局配置
+     * 获取流程的指标，记录被拒绝的响应
      */
-    private final ApiProperties apiProperties;
+    private final FetchMetrics fetchMetrics;
 
     @Override
-    public Optional<Sentence> parse(String responseBody, ApiProperties.ApiEndpoint endpoint, boolean skipValidation) {
+    public Optional<Sentence> parse(String responseBody, ParsePlan plan, boolean skipValidation) {
         // HTML内容嗅探
-        if (responseBody.trim().toLowerCase().matches("(?s)^<(!doctype|html).*")) {
-            log.warn("⚠️ API [{}] (JSON Parser) 返回了HTML页面, 将丢弃.", endpoint.getName());
+        if (HtmlSniffer.looksLikeHtml(responseBody)) {
+            log.warn("⚠️ API [{}] (JSON Parser) 返回了HTML页面, 将丢弃.", plan.endpointName());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_HTML);
             return Optional.empty();
         }
 
         try {
             JsonNode root = objectMapper.readTree(responseBody);  // 将结果JSON字符串转换为JsonNode对象
-            Map<String, String> mappings = endpoint.getParser().getMappings();  // 获取解析器配置
+            // 获取JSON响应中指定路径的text和作者
+            String text = getNodeText(root, plan.textPointer());
+            String author = getNodeText(root, plan.authorPointer());
+            return toSentence(text, author, plan, skipValidation);
 
-            String textPath = mappings.get("text");  // 获取解析器配置的text字段映射
-            if (!StringUtils.hasText(textPath)) {
-                log.warn("⚠️ API [{}] 的解析器配置缺少必需的 'text' 字段映射。", endpoint.getName());
-                return Optional.empty();
-            }
+        } catch (IOException e) {
+            log.error("❌ API [{}] 的JSON响应无法解析. Body: {}. 错误: {}", plan.endpointName(), getBodySnippet(responseBody), e.getMessage());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_MALFORMED);
+            return Optional.empty();
+        }
+    }
 
-            // 获取JSON响应中指定路径的text
-            String text = getNodeText(root, textPath);
-            if (!StringUtils.hasText(text)) {
-                log.warn("⚠️ API [{}] 的JSON响应中, 路径 '{}' 未找到或内容为空.", endpoint.getName(), textPath);
-                return Optional.empty();
+    /**
+     * 流式解析响应体。
+     * <p>
+     * 使用 Jackson 的 {@link JsonParser} 逐个读取token，只沿着计划中的 text/author 路径深入，
+     * 其余子树直接跳过；两个字段都取到后立即停止，不构建完整的JSON树，也不把响应体复制为字符串。
+     */
+    @Override
+    public Optional<Sentence> parse(InputStream body, Charset charset, ParsePlan plan, boolean skipValidation) throws IOException {
+        Extraction extraction = new Extraction(plan.authorPointer() == null);
+        // Jackson能自行识别UTF-8/16/32字节流；其他字符集需要先解码
+        try (JsonParser parser = StandardCharsets.UTF_8.equals(charset)
+                ? objectMapper.getFactory().createParser(body)
+                : objectMapper.getFactory().createParser(new InputStreamReader(body, charset))) {
+            if (parser.nextToken() != null) {
+                extract(parser, plan.textPointer(), plan.authorPointer(), extraction);
             }
+        } catch (JsonProcessingException e) {
+            log.error("❌ API [{}] 的JSON响应无法解析. 错误: {}", plan.endpointName(), e.getOriginalMessage());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_MALFORMED);
+            return Optional.empty();
+        }
+        return toSentence(extraction.text, extraction.author, plan, skipValidation);
+    }
 
-            // 文本长度校验
-            if (!skipValidation && text.length() > apiProperties.getMaxTextLength()) {
-                log.warn("⚠️ API [{}] 返回的文本过长 ({} > {}), 将被丢弃.", endpoint.getName(), text.length(), apiProperties.getMaxTextLength());
-                return Optional.empty();
+    /**
+     * 解析'text'字段映射是必需的，缺少时端点在编译解析计划阶段即被拒绝。
+     */
+    @Override
+    public boolean requiresTextMapping() {
+        return true;
+    }
+
+    /**
+     * JSON响应除了正文还有包装字段（id、来源、时间等），正文中的字符也可能被转义为6字节的Unicode转义序列，
+     * 因此按每字符6字节估算，另留8KB给包装字段。
+     */
+    @Override
+    public int defaultMaxResponseBytes(int maxTextLength) {
+        return maxTextLength * 6 + 8 * 1024;
+    }
+
+    /**
+     * 从当前token开始遍历一个JSON值，只深入与目标路径匹配的子树。
+     *
+     * @param parser        已定位在某个值的起始token上的解析器
+     * @param textPointer   text路径相对于当前值的剩余部分，不在此子树中时为null
+     * @param authorPointer author路径相对于当前值的剩余部分，不在此子树中时为null
+     * @param extraction    提取结果
+     */
+    private void extract(JsonParser parser, JsonPointer textPointer, JsonPointer authorPointer, Extraction extraction) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (!extraction.isComplete() && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                descend(parser,
+                        textPointer == null ? null : textPointer.matchProperty(name),
+                        authorPointer == null ? null : authorPointer.matchProperty(name),
+                        extraction);
             }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            while (!extraction.isComplete() && parser.nextToken() != JsonToken.END_ARRAY) {
+                descend(parser,
+                        textPointer == null ? null : textPointer.matchElement(index),
+                        authorPointer == null ? null : authorPointer.matchElement(index),
+                        extraction);
+                index++;
+            }
+        }
+    }
 
-            // 作者
-            String authorPath = mappings.get("author");  // 获取解析器配置的author字段映射
-            String author = StringUtils.hasText(authorPath) ? getNodeText(root, authorPath) : null;
+    private void descend(JsonParser parser, JsonPointer textPointer, JsonPointer authorPointer, Extraction extraction) throws IOException {
+        boolean isValue = !parser.currentToken().isStructStart();
+        // 与 JsonNode.textValue() 一致：只有字符串值才被视为文本
+        String value = parser.currentToken() == JsonToken.VALUE_STRING ? parser.getText() : null;
+        if (textPointer != null && textPointer.matches()) {
+            extraction.text = value;
+            extraction.textDone = true;
+            textPointer = null;
+        }
+        if (authorPointer != null && authorPointer.matches()) {
+            extraction.author = value;
+            extraction.authorDone = true;
+            authorPointer = null;
+        }
+        if (isValue) {
+            return;
+        }
+        if (textPointer == null && authorPointer == null) {
+            parser.skipChildren();
+        } else {
+            extract(parser, textPointer, authorPointer, extraction);
+        }
+    }
 
-            return Optional.of(Sentence.of(text, author));
+    /**
+     * 校验提取到的字段并封装为"一言"。
+     */
+    private Optional<Sentence> toSentence(String text, String author, ParsePlan plan, boolean skipValidation) {
+        if (!StringUtils.hasText(text)) {
+            log.warn("⚠️ API [{}] 的JSON响应中, 路径 '{}' 未找到或内容为空.", plan.endpointName(), plan.textPath());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_EMPTY);
+            return Optional.empty();
+        }
 
-        } catch (IOException e) {
-            log.error("❌ API [{}] 的JSON响应无法解析. Body: {}. 错误: {}", endpoint.getName(), getBodySnippet(responseBody), e.getMessage());
+        // 文本长度校验
+        if (!skipValidation && text.length() > plan.maxTextLength()) {
+            log.warn("⚠️ API [{}] 返回的文本过长 ({} > {}), 将被丢弃.", plan.endpointName(), text.length(), plan.maxTextLength());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_TOO_LONG);
             return Optional.empty();
         }
+
+        return Optional.of(Sentence.of(text, author));
     }
 
     /**
      * 获取JSON节点的文本
-     * @param root JsonNode 结果
-     * @param path 节点路径
+     * @param root    JsonNode 结果
+     * @param pointer 预编译的节点路径，未配置时为null
      * @return  节点文本
      */
-    private String getNodeText(JsonNode root, String path) {
-        if (root == null || !StringUtils.hasText(path)) {
+    private String getNodeText(JsonNode root, JsonPointer pointer) {
+        if (root == null || pointer == null) {
             return null;
         }
-        // 如果路径以'/'开头，则使用JSON Pointer的at()方法；否则，使用常规的path()方法。
-        // 这使得解析器能同时支持 "key" 和 "/pointer/to/key" 两种格式。
-        // 如果开头是'/'，则使用 /a/b 取出子节点，否则使用常规的path()方法。
-        JsonNode node = path.startsWith("/") ? root.at(path) : root.path(path);
-
+        JsonNode node = root.at(pointer);
         //如果节点存在，则返回节点的文本值
         return node.isMissingNode() ? null : node.textValue();
     }
@@ -93,4 +194,25 @@ public class JsonSentenceParser implements SentenceParser {
     private String getBodySnippet(String body) {
         return body.length() > 100 ? body.substring(0, 100) + "..." : body;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 流式解析的提取状态。
+     */
+    private static final class Extraction {
+        private String text;
+        private String author;
+        private boolean textDone;
+        private boolean authorDone;
+
+        private Extraction(boolean authorDone) {
+            this.authorDone = authorDone;
+        }
+
+        /**
+         * 所需字段是否都已取到，取到后即可停止读取。
+         */
+        boolean isComplete() {
+            return textDone && authorDone;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.yiyan.infrastructure.adapter.api.parser.impl;
 
+import com.yiyan.infrastructure.adapter.api.parser.HtmlSniffer;
+import com.yiyan.infrastructure.adapter.api.parser.ParsePlan;
 import com.yiyan.infrastructure.adapter.api.parser.SentenceParser;
 import com.yiyan.domain.Sentence;
-import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -15,31 +17,34 @@ import java.util.Optional;
 public class PlainTextSentenceParser implements SentenceParser {
 
     /**
-     * API配置属性，用于获取如最大文本长度等全局配置
+     * 获取流程的指标，记录被拒绝的响应
      */
-    private final ApiProperties apiProperties;
+    private final FetchMetrics fetchMetrics;
 
     @Override
-    public Optional<Sentence> parse(String responseBody, ApiProperties.ApiEndpoint endpoint, boolean skipValidation) {
+    public Optional<Sentence> parse(String responseBody, ParsePlan plan, boolean skipValidation) {
         String trimmedBody = responseBody.trim();
 
         // HTML内容嗅探
-        if (trimmedBody.toLowerCase().matches("(?s)^<(!doctype|html).*")) {
-            log.warn("⚠️ API [{}] (Plain Text Parser) 返回了HTML页面, 将丢弃.", endpoint.getName());
+        if (HtmlSniffer.looksLikeHtml(trimmedBody)) {
+            log.warn("⚠️ API [{}] (Plain Text Parser) 返回了HTML页面, 将丢弃.", plan.endpointName());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_HTML);
             return Optional.empty();
         }
 
         // 长度校验
-        if (!skipValidation && trimmedBody.length() > apiProperties.getMaxTextLength()) {
-            log.warn("⚠️ API [{}] 返回的纯文本过长 ({} > {}), 将被丢弃.", endpoint.getName(), trimmedBody.length(), apiProperties.getMaxTextLength());
+        if (!skipValidation && trimmedBody.length() > plan.maxTextLength()) {
+            log.warn("⚠️ API [{}] 返回的纯文本过长 ({} > {}), 将被丢弃.", plan.endpointName(), trimmedBody.length(), plan.maxTextLength());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_TOO_LONG);
             return Optional.empty();
         }
 
         if (trimmedBody.isEmpty()) {
-            log.warn("⚠️ API [{}] 返回了空的纯文本.", endpoint.getName());
+            log.warn("⚠️ API [{}] 返回了空的纯文本.", plan.endpointName());
+            fetchMetrics.recordRejection(plan.endpointName(), FetchMetrics.REJECT_EMPTY);
             return Optional.empty();
         }
 
         return Optional.of(Sentence.of(trimmedBody));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.yiyan.infrastructure.adapter.api.selection;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+
+import java.util.List;
+
+/**
+ * 端点选择策略。
+ * <p>
+ * 决定一次获取中尝试各个API端点的先后顺序。获取逻辑会按返回的顺序依次（或对冲地）发起请求，
+ * 因此排在前面的端点被使用的概率更高。
+ */
+public interface EndpointSelector {
+
+    /**
+     * 为本次获取生成端点的尝试顺序。
+     *
+     * @param endpoints 所有可用的端点，实现不得修改此列表。
+     * @return 一个新的列表，包含所有端点，按尝试顺序排列。
+     */
+    List<ApiProperties.ApiEndpoint> order(List<ApiProperties.ApiEndpoint> endpoints);
+}
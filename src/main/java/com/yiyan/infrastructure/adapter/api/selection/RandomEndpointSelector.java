@@ -0,0 +1,24 @@
+package com.yiyan.infrastructure.adapter.api.selection;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 均匀随机的端点选择策略：每次获取都把端点列表完全打乱，所有端点机会均等。
+ */
+@Component
+@ConditionalOnProperty(prefix = "yiyan.selection", name = "strategy", havingValue = "random")
+public class RandomEndpointSelector implements EndpointSelector {
+
+    @Override
+    public List<ApiProperties.ApiEndpoint> order(List<ApiProperties.ApiEndpoint> endpoints) {
+        List<ApiProperties.ApiEndpoint> ordered = new ArrayList<>(endpoints);
+        Collections.shuffle(ordered);
+        return ordered;
+    }
+}
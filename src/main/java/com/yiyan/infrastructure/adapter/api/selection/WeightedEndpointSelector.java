@@ -0,0 +1,77 @@
+package com.yiyan.infrastructure.adapter.api.selection;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStats;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按延迟和成功率加权的随机端点选择策略。
+ * <p>
+ * 每个端点的权重为 HTTP成功率 × 解析成功率 × 延迟因子，其中延迟因子为
+ * {@code reference / (reference + ewmaLatency)}。顺序通过加权随机排列（Efraimidis-Spirakis）生成：
+ * 每个端点抽取键值 {@code u^(1/w)}，按键值降序排列。这样快速、稳定的端点大概率排在前面，
+ * 但所有端点仍保留被选中的机会，保持"一言"来源的多样性。
+ */
+@Component
+@ConditionalOnProperty(prefix = "yiyan.selection", name = "strategy", havingValue = "weighted", matchIfMissing = true)
+@RequiredArgsConstructor
+public class WeightedEndpointSelector implements EndpointSelector {
+
+    /**
+     * API配置属性，提供评分参数
+     */
+    private final ApiProperties apiProperties;
+    /**
+     * 端点运行统计，提供各端点的延迟和成功率EWMA
+     */
+    private final EndpointStatsRegistry statsRegistry;
+
+    @Override
+    public List<ApiProperties.ApiEndpoint> order(List<ApiProperties.ApiEndpoint> endpoints) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Keyed[] keyed = new Keyed[endpoints.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            ApiProperties.ApiEndpoint endpoint = endpoints.get(i);
+            double weight = weight(statsRegistry.forEndpoint(endpoint.getName()));
+            // u 取自 (0, 1]，避免 log(0)
+            double u = 1.0 - random.nextDouble();
+            keyed[i] = new Keyed(endpoint, Math.log(u) / weight);
+        }
+        Arrays.sort(keyed, Comparator.comparingDouble(Keyed::key).reversed());
+
+        List<ApiProperties.ApiEndpoint> ordered = new ArrayList<>(keyed.length);
+        for (Keyed k : keyed) {
+            ordered.add(k.endpoint());
+        }
+        return ordered;
+    }
+
+    /**
+     * 计算端点的选择权重。
+     *
+     * @param stats 端点统计
+     * @return 权重，不小于配置的最小权重
+     */
+    public double weight(EndpointStats stats) {
+        ApiProperties.SelectionConfig selection = apiProperties.getSelection();
+        double reference = selection.getReferenceLatency().toMillis();
+        double latencyFactor = reference / (reference + Math.max(0, stats.getEwmaLatencyMs()));
+        double score = stats.getHttpSuccessRate() * stats.getParseSuccessRate() * latencyFactor;
+        return Math.max(selection.getMinWeight(), score);
+    }
+
+    /**
+     * 带随机排序键的端点。键值为 {@code log(u)/w}，与 {@code u^(1/w)} 单调等价且数值更稳定。
+     */
+    private record Keyed(ApiProperties.ApiEndpoint endpoint, double key) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.yiyan.infrastructure.config;
+
+import com.yiyan.config.EventProperties;
+import com.yiyan.infrastructure.event.BoundedAsyncEventMulticaster;
+import com.yiyan.infrastructure.execution.InstrumentedThreadFactory;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.AbstractApplicationContext;
+
+/**
+ * 事件投递配置类。
+ * <p>
+ * 以Spring约定的名称注册事件多播器，替换默认的同步实现。
+ */
+@Configuration
+public class EventConfig {
+
+    /**
+     * 创建带有界队列的异步事件多播器。
+     * <p>
+     * 多播器在上下文初始化的早期（其他Bean创建之前）创建，因此这里的依赖尽量少，指标在第一次使用时才获取。
+     *
+     * @param beanFactory     Bean工厂
+     * @param eventProperties 异步事件投递配置
+     * @param fetchMetrics        获取流程的指标
+     * @param workerThreadFactory 创建各队列处理线程的工厂
+     * @return 事件多播器
+     */
+    @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public static BoundedAsyncEventMulticaster applicationEventMulticaster(BeanFactory beanFactory, EventProperties eventProperties,
+                                                                            ObjectProvider<FetchMetrics> fetchMetrics,
+                                                                            InstrumentedThreadFactory workerThreadFactory) {
+        return new BoundedAsyncEventMulticaster(beanFactory, eventProperties, fetchMetrics, workerThreadFactory);
+    }
+}
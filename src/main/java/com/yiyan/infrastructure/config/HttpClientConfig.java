@@ -1,43 +1,125 @@
 package com.yiyan.infrastructure.config;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.yiyan.config.SchedulerProperties;
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.http.CachingDns;
+import com.yiyan.infrastructure.adapter.api.http.EndpointTimeoutInterceptor;
+import com.yiyan.infrastructure.adapter.api.http.TransportTimingListener;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP客户端配置类。
  */
 @Configuration
+@Slf4j
 public class HttpClientConfig {
 
+    private static final Duration DEFAULT_KEEP_ALIVE = Duration.ofMinutes(5);
+
     /**
      * 创建一个全局共享的 OkHttpClient Bean。
      * <p>
      * 使用共享实例可以有效管理和复用HTTP连接，提升性能。
      * 同时，配置了合理的超时时间，以防止应用因等待无响应的API而永久阻塞。
+     * 异步请求在统一的I/O执行器中运行，而不是 OkHttp 自建的线程池。
+     * <p>
+     * 连接池的保活时间与调度间隔匹配，DNS解析经过进程内缓存，使相隔数分钟的两次获取仍能复用连接和解析结果；
+     * 端点自己的超时由 {@link EndpointTimeoutInterceptor} 应用，传输层耗时由 {@link TransportTimingListener} 记录。
      *
+     * @param ioExecutor          统一的I/O执行器
+     * @param apiProperties       API配置属性，提供传输层配置
+     * @param schedulerProperties 调度器配置属性，用于推算连接保活时间
+     * @param cachingDns          带缓存的DNS解析
+     * @param timingListener      传输层计时
      * @return 配置好的 OkHttpClient 实例。
      */
     @Bean
-    public OkHttpClient okHttpClient() {
+    public OkHttpClient okHttpClient(ExecutorService ioExecutor, ApiProperties apiProperties, SchedulerProperties schedulerProperties,
+                                     CachingDns cachingDns, TransportTimingListener timingListener) {
+        ApiProperties.TransportConfig transport = apiProperties.getTransport();
+        Duration keepAlive = keepAlive(transport, schedulerProperties);
+        log.info("🔌 HTTP连接池: 最多保留 {} 个空闲连接, 保活 {} 秒; DNS缓存: {}",
+                transport.getMaxIdleConnections(), keepAlive.toSeconds(), transport.getDns().isEnabled() ? "启用" : "关闭");
         return new OkHttpClient.Builder()
-                .connectTimeout(Duration.ofSeconds(10)) // 连接超时
-                .readTimeout(Duration.ofSeconds(10))    // 读取超时
-                .writeTimeout(Duration.ofSeconds(10))   // 写入超时
+                .dispatcher(new Dispatcher(ioExecutor))
+                .connectionPool(new ConnectionPool(transport.getMaxIdleConnections(), keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dns(cachingDns)
+                .eventListenerFactory(timingListener)
+                .addInterceptor(new EndpointTimeoutInterceptor())
+                .connectTimeout(transport.getConnectTimeout()) // 连接超时
+                .readTimeout(transport.getReadTimeout())       // 读取超时
+                .writeTimeout(transport.getWriteTimeout())     // 写入超时
                 .build();
     }
 
+    /**
+     * 连接保活时间：未配置时取调度最大间隔的两倍，且不少于 OkHttp 默认的5分钟。
+     */
+    private static Duration keepAlive(ApiProperties.TransportConfig transport, SchedulerProperties schedulerProperties) {
+        if (transport.getKeepAlive() != null) {
+            return transport.getKeepAlive();
+        }
+        Duration twoIntervals = Duration.ofSeconds(schedulerProperties.getMaxDelaySeconds()).multipliedBy(2);
+        return twoIntervals.compareTo(DEFAULT_KEEP_ALIVE) > 0 ? twoIntervals : DEFAULT_KEEP_ALIVE;
+    }
+
     /**
      * 创建一个全局共享的 ObjectMapper Bean。
      * <p>
      * 用于JSON的序列化和反序列化，例如在 ApiConfigLoader 中加载外部API列表。
+     * 时长字段（如端点的 connectTimeout / readTimeout）与 application.yml 使用相同的写法，
+     * 例如 {@code "3s"}、{@code "500ms"} 或 {@code "PT3S"}；数字按毫秒处理。
      * @return ObjectMapper 实例。
      */
     @Bean
     public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        return new ObjectMapper().registerModule(new SimpleModule("yiyan-duration")
+                .addDeserializer(Duration.class, new DurationDeserializer()));
+    }
+
+    /**
+     * 按 Spring Boot 配置文件的规则解析时长。
+     */
+    private static final class DurationDeserializer extends StdScalarDeserializer<Duration> {
+
+        private DurationDeserializer() {
+            super(Duration.class);
+        }
+
+        @Override
+        public Duration deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return Duration.ofMillis(parser.getLongValue());
+            }
+            String text = parser.getValueAsString();
+            if (text == null) {
+                return (Duration) context.handleUnexpectedToken(Duration.class, parser);
+            }
+            if (text.isBlank()) {
+                return null;
+            }
+            try {
+                return DurationStyle.detectAndParse(text.strip());
+            } catch (IllegalArgumentException e) {
+                return (Duration) context.handleWeirdStringValue(Duration.class, text, "无法解析的时长，应为 3s、500ms 或 PT3S 的形式");
+            }
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.yiyan.infrastructure.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.simple.CountingMode;
+import io.micrometer.core.instrument.Clock;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 指标配置类。
+ * <p>
+ * 应用不依赖 actuator，也不需要外部的监控服务：所有指标记录在一个进程内的 {@link SimpleMeterRegistry} 中，
+ * 由 {@link com.yiyan.infrastructure.metrics.PrometheusTextExporter} 定期写入本地文件。
+ * 导出的是自启动以来的累计值，因此直方图的桶计数也设为不随时间窗口衰减。
+ * 各端点熔断器的状态和调用统计由 Resilience4j 的自动配置在注册表存在时自动发布，这里不再重复绑定。
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 直方图桶计数的保留时长。导出的是累计值，桶计数不应像默认配置那样每隔几分钟轮转清零
+     */
+    private static final Duration HISTOGRAM_EXPIRY = Duration.ofDays(3650);
+
+    /**
+     * 创建全局共享的指标注册表，并绑定JVM指标。
+     *
+     * @return 指标注册表
+     */
+    @Bean
+    public MeterRegistry meterRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry(new SimpleConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public CountingMode mode() {
+                return CountingMode.CUMULATIVE;
+            }
+        }, Clock.SYSTEM);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .expiry(HISTOGRAM_EXPIRY)
+                        .bufferLength(1)
+                        .build()
+                        .merge(config);
+            }
+        });
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        new UptimeMetrics().bindTo(registry);
+        return registry;
+    }
+}
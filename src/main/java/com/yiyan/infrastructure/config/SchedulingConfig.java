@@ -1,15 +1,57 @@
 package com.yiyan.infrastructure.config;
 
+import com.yiyan.config.ExecutionProperties;
+import com.yiyan.infrastructure.execution.ExecutorMetrics;
+import com.yiyan.infrastructure.execution.InstrumentedExecutorService;
+import com.yiyan.infrastructure.execution.InstrumentedTaskScheduler;
+import com.yiyan.infrastructure.execution.InstrumentedThreadFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 任务调度器配置类。
+ * 任务调度器与执行器配置类。
+ * <p>
+ * 应用只有两个执行器：
+ * <ul>
+ *     <li>调度器 {@code taskScheduler}：只运行定时器和轻量的周期任务，不做阻塞I/O。</li>
+ *     <li>I/O执行器 {@code ioExecutor}：所有阻塞的网络和文件I/O（OkHttp请求、历史记录写入、@Async方法）都在这里运行。
+ *     运行在 JDK 21 及以上时可以使用虚拟线程。</li>
+ * </ul>
+ * 长期阻塞等待的专用线程（事件队列的处理线程等）不占用这两个执行器，由 {@code workerThreadFactory} 统一创建；
+ * 三者的运行统计都由 {@link com.yiyan.infrastructure.execution.ExecutorMetricsReporter} 输出。
  */
 @Configuration
-public class SchedulingConfig {
+@Slf4j
+@RequiredArgsConstructor
+public class SchedulingConfig implements AsyncConfigurer {
+
+    /**
+     * I/O执行器的线程名前缀
+     */
+    public static final String IO_THREAD_PREFIX = "yiyan-io-";
+    /**
+     * 专用线程的线程名前缀
+     */
+    public static final String WORKER_THREAD_PREFIX = "yiyan-worker-";
+
+    /**
+     * 执行模型配置属性
+     */
+    private final ExecutionProperties executionProperties;
 
     /**
      * 创建一个线程池任务调度器 Bean。
@@ -20,11 +62,104 @@ public class SchedulingConfig {
      * @return 配置好的 TaskScheduler 实例。
      */
     @Bean
-    public TaskScheduler taskScheduler() {
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(2); // 对于我们的应用，2个线程足够了
+    public InstrumentedTaskScheduler taskScheduler() {
+        InstrumentedTaskScheduler scheduler = new InstrumentedTaskScheduler("yiyan-scheduler");
+        scheduler.setPoolSize(executionProperties.getSchedulerPoolSize()); // 调度线程只负责定时，2个线程足够了
         scheduler.setThreadNamePrefix("yiyan-scheduler-");
         scheduler.setDaemon(true); // 设置为守护线程，以便主程序退出时它们也能退出
         return scheduler;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 创建统一的I/O执行器 Bean。
+     *
+     * @return 统计运行情况的I/O执行器
+     */
+    @Bean
+    public InstrumentedExecutorService ioExecutor() {
+        ExecutionProperties.Mode mode = executionProperties.getMode();
+        if (mode != ExecutionProperties.Mode.PLATFORM) {
+            Optional<ExecutorService> virtual = newVirtualThreadExecutor();
+            if (virtual.isPresent()) {
+                log.info("🧵 I/O执行器使用虚拟线程。");
+                return new InstrumentedExecutorService(virtual.get(), new ExecutorMetrics("yiyan-io", null));
+            }
+            if (mode == ExecutionProperties.Mode.VIRTUAL) {
+                log.warn("⚠️ 当前JDK {} 不支持虚拟线程，I/O执行器回退到平台线程池。", Runtime.version().feature());
+            }
+        }
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                executionProperties.getIoPoolSize(), executionProperties.getIoPoolSize(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, executionProperties.getIoQueueCapacity())),
+                daemonThreadFactory());
+        pool.allowCoreThreadTimeOut(true); // 空闲时回收线程
+        log.info("🧵 I/O执行器使用平台线程池 (最大 {} 个线程)。", executionProperties.getIoPoolSize());
+        return new InstrumentedExecutorService(pool, new ExecutorMetrics("yiyan-io", () -> pool.getQueue().size()));
+    }
+
+    /**
+     * 创建专用线程的工厂 Bean。
+     * <p>
+     * 声明为静态方法：事件多播器在上下文初始化的早期就需要它，不应因此提前创建本配置类。
+     *
+     * @return 统计运行情况的线程工厂
+     */
+    @Bean
+    public static InstrumentedThreadFactory workerThreadFactory() {
+        return new InstrumentedThreadFactory("yiyan-worker", WORKER_THREAD_PREFIX);
+    }
+
+    @Bean
+    public ExecutorMetrics workerThreadMetrics(InstrumentedThreadFactory workerThreadFactory) {
+        return workerThreadFactory.getMetrics();
+    }
+
+    @Bean
+    public ExecutorMetrics ioExecutorMetrics(InstrumentedExecutorService ioExecutor) {
+        return ioExecutor.getMetrics();
+    }
+
+    @Bean
+    public ExecutorMetrics schedulerMetrics(InstrumentedTaskScheduler taskScheduler) {
+        return taskScheduler.getMetrics();
+    }
+
+    /**
+     * {@code @Async} 方法同样在I/O执行器中运行。
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        return ioExecutor();
+    }
+
+    private ThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(IO_THREAD_PREFIX);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，使项目在 JDK 17 上仍可编译和运行。
+     *
+     * @return 每个任务一个虚拟线程的执行器；当前JDK不支持时为空
+     */
+    private Optional<ExecutorService> newVirtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) {
+            return Optional.empty();
+        }
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, IO_THREAD_PREFIX, 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return Optional.of((ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory));
+        } catch (ReflectiveOperationException e) {
+            log.warn("⚠️ 无法创建虚拟线程执行器: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.yiyan.infrastructure.event;
+
+import com.yiyan.config.EventProperties;
+import com.yiyan.event.AsyncEvent;
+import com.yiyan.infrastructure.execution.InstrumentedThreadFactory;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.beans.Introspector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带有界队列的异步事件多播器。
+ * <p>
+ * 实现了 {@link AsyncEvent} 的事件不在发布线程中调用监听器，而是放入每个监听器独立的有界队列，
+ * 由该监听器专属的守护线程（由 {@link InstrumentedThreadFactory} 创建，计入执行器统计）依次处理；发布方（获取流程）只承担入队的开销，增加监听器也不会拖慢获取。
+ * 队列已满时按 {@link EventProperties.Overflow} 处理：界面丢弃最旧的事件只显示最新的"一言"，持久化则让发布方等待，不丢记录。
+ * <p>
+ * 其他事件（包括Spring自身的生命周期事件）仍在发布线程中同步处理。
+ * 应用关闭时（{@link ContextClosedEvent}）先等待各队列处理完剩余事件，再交给Spring销毁各个Bean。
+ */
+@Slf4j
+public class BoundedAsyncEventMulticaster extends SimpleApplicationEventMulticaster implements DisposableBean {
+
+    private final EventProperties eventProperties;
+    private final ObjectProvider<FetchMetrics> fetchMetrics;
+    private final InstrumentedThreadFactory workerThreadFactory;
+    private final Map<ApplicationListener<?>, ListenerQueue> queues = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    /**
+     * @param beanFactory     用于解析监听器Bean的Bean工厂
+     * @param eventProperties 异步事件投递配置
+     * @param fetchMetrics        指标，在第一个队列创建时才获取，避免在上下文初始化早期创建指标注册表
+     * @param workerThreadFactory 创建各队列处理线程的工厂
+     */
+    public BoundedAsyncEventMulticaster(BeanFactory beanFactory, EventProperties eventProperties,
+                                        ObjectProvider<FetchMetrics> fetchMetrics, InstrumentedThreadFactory workerThreadFactory) {
+        super(beanFactory);
+        this.eventProperties = eventProperties;
+        this.fetchMetrics = fetchMetrics;
+        this.workerThreadFactory = workerThreadFactory;
+        // 监听器的异常只记录日志，不影响发布方和队列线程
+        setErrorHandler(e -> log.error("❌ 事件监听器处理失败: {}", e.getMessage(), e));
+    }
+
+    @Override
+    public void multicastEvent(ApplicationEvent event, ResolvableType eventType) {
+        if (event instanceof ContextClosedEvent) {
+            drain();
+        }
+        if (!(event instanceof AsyncEvent) || closed) {
+            super.multicastEvent(event, eventType);
+            return;
+        }
+        ResolvableType type = eventType != null ? eventType : ResolvableType.forInstance(event);
+        for (ApplicationListener<?> listener : getApplicationListeners(event, type)) {
+            if (listener.supportsAsyncExecution()) {
+                queues.computeIfAbsent(listener, this::createQueue).enqueue(event);
+            } else {
+                invokeListener(listener, event);
+            }
+        }
+    }
+
+    /**
+     * 获取各监听器队列的统计信息。
+     */
+    public List<ListenerStats> stats() {
+        List<ListenerStats> stats = new ArrayList<>(queues.size());
+        queues.values().forEach(queue -> stats.add(queue.stats()));
+        return stats;
+    }
+
+    /**
+     * 等待所有队列处理完剩余事件，最多等待 {@link EventProperties#getDrainTimeout()}。
+     */
+    private void drain() {
+        long deadline = System.nanoTime() + eventProperties.getDrainTimeout().toNanos();
+        for (ListenerQueue queue : queues.values()) {
+            if (!queue.awaitEmpty(deadline)) {
+                log.warn("⚠️ 事件队列 [{}] 未能在关闭前处理完，剩余 {} 个事件。", queue.name, queue.queue.size());
+            }
+        }
+        closed = true;
+        stats().forEach(s -> log.info("📨 事件队列 [{}] 已处理 {} 个事件，丢弃 {} 个，平均耗时 {} ms，最长 {} ms。",
+                s.listener(), s.handled(), s.dropped(), String.format("%.2f", s.avgHandlingMs()), String.format("%.2f", s.maxHandlingMs())));
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        queues.values().forEach(queue -> queue.worker.interrupt());
+    }
+
+    private ListenerQueue createQueue(ApplicationListener<?> listener) {
+        String beanName = beanName(listener);
+        EventProperties.ListenerConfig config = eventProperties.getListeners().get(beanName);
+        int capacity = config != null && config.getQueueCapacity() != null ? config.getQueueCapacity() : eventProperties.getQueueCapacity();
+        EventProperties.Overflow overflow = config != null && config.getOverflow() != null ? config.getOverflow() : eventProperties.getOverflow();
+        ListenerQueue queue = new ListenerQueue(listener, displayName(listener), Math.max(1, capacity), overflow);
+        FetchMetrics metrics = fetchMetrics.getIfAvailable();
+        if (metrics != null) {
+            metrics.bindEventQueue(queue.name, queue.queue);
+        }
+        queue.worker.start();
+        log.info("📨 监听器 [{}] 使用异步事件队列 (容量 {}, 溢出策略 {})。", queue.name, capacity, overflow);
+        return queue;
+    }
+
+    /**
+     * 监听器所在Bean的名称，按Spring的默认命名规则由类名推导，用于查找配置。
+     */
+    private static String beanName(ApplicationListener<?> listener) {
+        return Introspector.decapitalize(ClassUtils.getShortName(declaringClassName(listener)));
+    }
+
+    /**
+     * 用于日志和指标的监听器名称，如 {@code UiController.onSentenceFetched}。
+     */
+    private static String displayName(ApplicationListener<?> listener) {
+        String method = listenerMethod(listener);
+        String className = declaringClassName(listener);
+        return method == null ? ClassUtils.getShortName(className)
+                : ClassUtils.getShortName(className) + method.substring(className.length());
+    }
+
+    /**
+     * 监听器的声明类：{@code @EventListener} 方法所在的类，或实现了 {@link ApplicationListener} 的类。
+     */
+    private static String declaringClassName(ApplicationListener<?> listener) {
+        String method = listenerMethod(listener);
+        return method == null ? ClassUtils.getUserClass(listener).getName() : method.substring(0, method.lastIndexOf('.'));
+    }
+
+    /**
+     * {@code @EventListener} 方法的全限定名（如 {@code com.yiyan.X.onEvent}），由监听器ID去掉参数列表得到；
+     * 不是方法监听器时返回null。
+     */
+    private static String listenerMethod(ApplicationListener<?> listener) {
+        if (!(listener instanceof SmartApplicationListener smart)) {
+            return null;
+        }
+        String id = smart.getListenerId();
+        int params = id.indexOf('(');
+        String method = params >= 0 ? id.substring(0, params) : id;
+        return method.lastIndexOf('.') > 0 ? method : null;
+    }
+
+    /**
+     * 单个监听器的有界队列及其处理线程。
+     */
+    private final class ListenerQueue {
+
+        private final ApplicationListener<?> listener;
+        private final String name;
+        private final BlockingQueue<ApplicationEvent> queue;
+        private final EventProperties.Overflow overflow;
+        private final Thread worker;
+
+        // --- 统计 ---
+        private final LongAdder handled = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder handlingNanos = new LongAdder();
+        private final LongAccumulator maxHandlingNanos = new LongAccumulator(Math::max, 0);
+        /**
+         * 已入队但尚未处理完的事件数，用于关闭时判断队列是否已处理完
+         */
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private ListenerQueue(ApplicationListener<?> listener, String name, int capacity, EventProperties.Overflow overflow) {
+            this.listener = listener;
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.overflow = overflow;
+            this.worker = workerThreadFactory.newThread("event-" + name, this::run);
+        }
+
+        void enqueue(ApplicationEvent event) {
+            outstanding.incrementAndGet();
+            switch (overflow) {
+                case BLOCK -> {
+                    try {
+                        queue.put(event);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        drop(event);
+                    }
+                }
+                case DROP_OLDEST -> {
+                    while (!queue.offer(event)) {
+                        if (queue.poll() != null) {
+                            outstanding.decrementAndGet();
+                            dropped.increment();
+                            recordDropped();
+                        }
+                    }
+                }
+                case DROP_NEWEST -> {
+                    if (!queue.offer(event)) {
+                        drop(event);
+                    }
+                }
+            }
+        }
+
+        private void drop(ApplicationEvent event) {
+            outstanding.decrementAndGet();
+            dropped.increment();
+            recordDropped();
+            log.warn("⚠️ 事件队列 [{}] 已满，丢弃事件 {}。", name, event.getClass().getSimpleName());
+        }
+
+        private void recordDropped() {
+            FetchMetrics metrics = fetchMetrics.getIfAvailable();
+            if (metrics != null) {
+                metrics.recordEventDropped(name);
+            }
+        }
+
+        private void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                ApplicationEvent event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long started = System.nanoTime();
+                try {
+                    invokeListener(listener, event);
+                } finally {
+                    long nanos = System.nanoTime() - started;
+                    outstanding.decrementAndGet();
+                    handled.increment();
+                    handlingNanos.add(nanos);
+                    maxHandlingNanos.accumulate(nanos);
+                    FetchMetrics metrics = fetchMetrics.getIfAvailable();
+                    if (metrics != null) {
+                        metrics.recordEventHandled(name, nanos);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 等待队列清空且当前事件处理完毕。
+         *
+         * @param deadline 截止时间（{@link System#nanoTime()}）
+         * @return 在截止时间前处理完时返回true
+         */
+        boolean awaitEmpty(long deadline) {
+            while (outstanding.get() > 0) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ListenerStats stats() {
+            long count = handled.sum();
+            return new ListenerStats(name, overflow, queue.size(), queue.size() + queue.remainingCapacity(), count, dropped.sum(),
+                    count == 0 ? 0 : handlingNanos.sum() / 1e6 / count, maxHandlingNanos.get() / 1e6);
+        }
+    }
+
+    /**
+     * 单个监听器队列的统计信息。
+     *
+     * @param listener       监听器名称
+     * @param overflow       溢出策略
+     * @param depth          当前排队的事件数
+     * @param capacity       队列容量
+     * @param handled        已处理的事件数
+     * @param dropped        因队列已满而丢弃的事件数
+     * @param avgHandlingMs  平均处理耗时（毫秒）
+     * @param maxHandlingMs  最长处理耗时（毫秒）
+     */
+    public record ListenerStats(String listener, EventProperties.Overflow overflow, int depth, int capacity,
+                                long handled, long dropped, double avgHandlingMs, double maxHandlingMs) {
+    }
+}
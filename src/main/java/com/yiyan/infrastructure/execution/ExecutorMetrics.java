@@ -0,0 +1,148 @@
+package com.yiyan.infrastructure.execution;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 单个执行器的运行统计：活跃任务数、排队深度、排队等待时间和执行时间。
+ * <p>
+ * 任务经 {@link #wrap(Runnable)} 包装后提交，包装器在任务开始和结束时更新计数器；
+ * 定时任务的等待是有意安排的延迟，因此调度器只通过 {@link #taskStarted()}/{@link #taskFinished(long, boolean)} 统计执行时间。
+ * 所有计数器都是无锁的。
+ */
+public class ExecutorMetrics {
+
+    /**
+     * 执行器名称
+     */
+    @Getter
+    private final String name;
+    /**
+     * 排队深度的来源；为null时按"已提交但未开始"的任务数计算
+     */
+    private final IntSupplier queueDepth;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder waitedTasks = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    /**
+     * @param name       执行器名称
+     * @param queueDepth 排队深度的来源，例如线程池队列的大小；为null时按已提交未开始的任务数计算
+     */
+    public ExecutorMetrics(String name, IntSupplier queueDepth) {
+        this.name = name;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * 包装一个即将提交的任务，记录它的排队等待时间和执行时间。
+     *
+     * @param task 原始任务
+     * @return 包装后的任务
+     */
+    public Runnable wrap(Runnable task) {
+        submitted.increment();
+        long submittedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            long waited = startedAt - submittedAt;
+            waitedTasks.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            run(task);
+        };
+    }
+
+    /**
+     * 记录一次被执行器拒绝的提交。
+     */
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    private void run(Runnable task) {
+        long startedAt = taskStarted();
+        boolean failed = true;
+        try {
+            task.run();
+            failed = false;
+        } finally {
+            taskFinished(startedAt, failed);
+        }
+    }
+
+    /**
+     * 记录一个任务开始执行。供无法包装任务、只能通过执行器钩子统计的场景使用。
+     *
+     * @return 开始时间（纳秒），结束时传给 {@link #taskFinished(long, boolean)}
+     */
+    public long taskStarted() {
+        started.increment();
+        active.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录一个任务执行结束。
+     *
+     * @param startedAt {@link #taskStarted()} 返回的开始时间
+     * @param failed    任务是否抛出了异常
+     */
+    public void taskFinished(long startedAt, boolean failed) {
+        active.decrementAndGet();
+        (failed ? this.failed : completed).increment();
+        long ran = System.nanoTime() - startedAt;
+        totalRunNanos.add(ran);
+        maxRunNanos.accumulateAndGet(ran, Math::max);
+    }
+
+    /**
+     * 生成当前统计的只读快照。
+     */
+    public Snapshot snapshot() {
+        long startedCount = started.sum();
+        long waitedCount = waitedTasks.sum();
+        long finished = completed.sum() + failed.sum();
+        int depth = queueDepth != null
+                ? queueDepth.getAsInt()
+                : (int) Math.max(0, submitted.sum() - rejected.sum() - waitedCount);
+        return new Snapshot(name, active.get(), depth, submitted.sum(), rejected.sum(), startedCount,
+                completed.sum(), failed.sum(),
+                waitedCount == 0 ? 0 : totalWaitNanos.sum() / 1e6 / waitedCount, maxWaitNanos.get() / 1e6,
+                finished == 0 ? 0 : totalRunNanos.sum() / 1e6 / finished, maxRunNanos.get() / 1e6);
+    }
+
+    /**
+     * 执行器统计快照。
+     *
+     * @param name       执行器名称
+     * @param active     正在执行的任务数
+     * @param queueDepth 排队等待的任务数
+     * @param submitted  提交的任务数
+     * @param rejected   被拒绝的任务数
+     * @param started    开始执行的次数（周期任务每次执行计一次）
+     * @param completed  正常结束的次数
+     * @param failed     抛出异常的次数
+     * @param avgWaitMs  平均排队等待时间（毫秒）
+     * @param maxWaitMs  最大排队等待时间（毫秒）
+     * @param avgRunMs   平均执行时间（毫秒）
+     * @param maxRunMs   最大执行时间（毫秒）
+     */
+    public record Snapshot(String name, int active, int queueDepth, long submitted, long rejected, long started,
+                           long completed, long failed, double avgWaitMs, double maxWaitMs,
+                           double avgRunMs, double maxRunMs) {
+    }
+}
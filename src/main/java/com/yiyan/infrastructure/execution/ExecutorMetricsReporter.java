@@ -0,0 +1,39 @@
+package com.yiyan.infrastructure.execution;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 定期输出所有执行器的运行统计。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ExecutorMetricsReporter {
+
+    /**
+     * 所有已注册的执行器统计
+     */
+    private final List<ExecutorMetrics> executorMetrics;
+
+    /**
+     * 获取所有执行器当前的统计快照。
+     */
+    public List<ExecutorMetrics.Snapshot> snapshot() {
+        return executorMetrics.stream().map(ExecutorMetrics::snapshot).toList();
+    }
+
+    @Scheduled(initialDelayString = "${execution.report-interval:PT10M}", fixedDelayString = "${execution.report-interval:PT10M}")
+    public void logStats() {
+        for (ExecutorMetrics.Snapshot s : snapshot()) {
+            log.info("🧵 [{}] 活跃:{} 排队:{} 已提交:{} 拒绝:{} 完成:{} 失败:{} | 平均等待:{}ms 最大等待:{}ms 平均执行:{}ms 最大执行:{}ms",
+                    s.name(), s.active(), s.queueDepth(), s.submitted(), s.rejected(), s.completed(), s.failed(),
+                    String.format("%.1f", s.avgWaitMs()), String.format("%.1f", s.maxWaitMs()),
+                    String.format("%.1f", s.avgRunMs()), String.format("%.1f", s.maxRunMs()));
+        }
+    }
+}
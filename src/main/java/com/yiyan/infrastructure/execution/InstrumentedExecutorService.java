@@ -0,0 +1,65 @@
+package com.yiyan.infrastructure.execution;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为另一个 {@link ExecutorService} 统计运行情况的包装器。
+ * <p>
+ * 所有提交的任务都经 {@link ExecutorMetrics#wrap(Runnable)} 包装后交给被包装的执行器执行，
+ * 生命周期方法直接委托。
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    /**
+     * 此执行器的运行统计
+     */
+    @Getter
+    private final ExecutorMetrics metrics;
+
+    public InstrumentedExecutorService(ExecutorService delegate, ExecutorMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            delegate.execute(metrics.wrap(command));
+        } catch (RejectedExecutionException e) {
+            metrics.recordRejected();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
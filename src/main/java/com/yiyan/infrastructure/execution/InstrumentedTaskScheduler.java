@@ -0,0 +1,40 @@
+package com.yiyan.infrastructure.execution;
+
+import lombok.Getter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 统计运行情况的 {@link ThreadPoolTaskScheduler}。
+ * <p>
+ * 通过执行前后的钩子记录活跃任务数和执行时间，排队深度为尚未到期或等待线程的任务数。
+ */
+public class InstrumentedTaskScheduler extends ThreadPoolTaskScheduler {
+
+    /**
+     * 此调度器的运行统计
+     */
+    @Getter
+    private final ExecutorMetrics metrics;
+
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+    public InstrumentedTaskScheduler(String name) {
+        this.metrics = new ExecutorMetrics(name, () -> getScheduledThreadPoolExecutor().getQueue().size());
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        startedAt.set(metrics.taskStarted());
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable ex) {
+        Long started = startedAt.get();
+        if (started != null) {
+            startedAt.remove();
+            metrics.taskFinished(started, ex != null);
+        }
+        super.afterExecute(task, ex);
+    }
+}
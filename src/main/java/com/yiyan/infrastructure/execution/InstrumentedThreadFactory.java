@@ -0,0 +1,42 @@
+package com.yiyan.infrastructure.execution;
+
+import lombok.Getter;
+
+/**
+ * 为长期运行的专用线程统计运行情况的线程工厂。
+ * <p>
+ * 事件队列的处理线程、文件监视线程等会在整个应用生命周期内阻塞等待，不适合占用I/O执行器或调度器的线程，
+ * 因此各自使用一个专用的守护线程。这些线程都由此工厂创建，名称带有统一的前缀，
+ * 任务经 {@link ExecutorMetrics#wrap(Runnable)} 包装，在执行器统计中表现为一直活跃的任务。
+ */
+public class InstrumentedThreadFactory {
+
+    private final String threadNamePrefix;
+    /**
+     * 此工厂创建的线程的运行统计
+     */
+    @Getter
+    private final ExecutorMetrics metrics;
+
+    /**
+     * @param name             统计中显示的名称
+     * @param threadNamePrefix 线程名前缀
+     */
+    public InstrumentedThreadFactory(String name, String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+        this.metrics = new ExecutorMetrics(name, null);
+    }
+
+    /**
+     * 创建一个尚未启动的守护线程。
+     *
+     * @param name 线程名（不含前缀）
+     * @param task 线程要运行的任务
+     * @return 新线程，由调用方启动和中断
+     */
+    public Thread newThread(String name, Runnable task) {
+        Thread thread = new Thread(metrics.wrap(task), threadNamePrefix + name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
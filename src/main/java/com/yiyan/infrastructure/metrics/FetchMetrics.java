@@ -0,0 +1,250 @@
+package com.yiyan.infrastructure.metrics;
+
+import com.yiyan.infrastructure.adapter.api.health.FailureClass;
+import com.yiyan.infrastructure.scheduling.interval.IntervalPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 获取流程的指标。
+ * <p>
+ * 获取流程各环节（HTTP请求、解析、去重、展示、历史记录写入）都通过这里记录指标，
+ * 指标名称和标签因此只在一处定义。延迟和响应大小按固定的桶记录直方图，便于跨天比较。
+ */
+@Component
+@RequiredArgsConstructor
+public class FetchMetrics {
+
+    // --- 拒绝原因 ---
+    public static final String REJECT_EMPTY = "empty";
+    public static final String REJECT_TOO_LONG = "too_long";
+    public static final String REJECT_MALFORMED = "malformed";
+    public static final String REJECT_HTML = "html";
+    public static final String REJECT_TOO_LARGE = "too_large";
+    public static final String REJECT_HTTP_STATUS = "http_status";
+    public static final String REJECT_DUPLICATE = "duplicate";
+
+    private static final Duration[] LATENCY_BUCKETS = {
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(10)};
+    private static final Duration[] LOCAL_BUCKETS = {
+            Duration.ofNanos(100_000), Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25),
+            Duration.ofMillis(100), Duration.ofMillis(500)};
+    private static final double[] BYTE_BUCKETS = {256, 1024, 4096, 16384, 65536, 262144};
+    private static final String UNKNOWN = "unknown";
+
+    /**
+     * 指标注册表
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 记录对单个端点的一次请求。
+     *
+     * @param endpoint  端点名称
+     * @param outcome   请求结果分类
+     * @param latencyMs 请求耗时（毫秒）
+     */
+    public void recordRequest(String endpoint, FailureClass outcome, long latencyMs) {
+        Timer.builder("yiyan.request")
+                .description("对单个API端点的请求耗时")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .serviceLevelObjectives(LATENCY_BUCKETS)
+                .register(meterRegistry)
+                .record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录读取的响应体字节数。
+     */
+    public void recordResponseBytes(String endpoint, long bytes) {
+        DistributionSummary.builder("yiyan.response")
+                .description("读取的响应体大小")
+                .baseUnit("bytes")
+                .tag("endpoint", endpoint)
+                .serviceLevelObjectives(BYTE_BUCKETS)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    /**
+     * 记录一次响应体解析的耗时。解析是流式的，耗时包括边读取边解析的时间。
+     */
+    public void recordParse(String endpoint, long nanos) {
+        Timer.builder("yiyan.parse")
+                .description("响应体的流式解析耗时")
+                .tag("endpoint", endpoint)
+                .serviceLevelObjectives(LOCAL_BUCKETS)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次被拒绝的响应或"一言"。
+     *
+     * @param endpoint 端点名称，未知时为null
+     * @param reason   拒绝原因，取值见 {@code REJECT_*} 常量
+     */
+    public void recordRejection(String endpoint, String reason) {
+        Counter.builder("yiyan.rejected")
+                .description("被拒绝的响应或一言，按原因分类")
+                .tag("endpoint", endpoint == null ? UNKNOWN : endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录一次完整的网络获取（包括对冲的多个请求）。
+     *
+     * @param success 是否得到了有效的"一言"
+     * @param nanos   从开始到结束的耗时（纳秒）
+     */
+    public void recordFetch(boolean success, long nanos) {
+        Timer.builder("yiyan.fetch")
+                .description("一次网络获取（包括对冲请求）的耗时")
+                .tag("result", success ? "success" : "empty")
+                .serviceLevelObjectives(LATENCY_BUCKETS)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次网络错误冷却的开始。
+     */
+    public void recordCooldown() {
+        Counter.builder("yiyan.cooldown.activations")
+                .description("网络错误冷却的触发次数")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录一次冷却结束后的网络可达性探测。
+     */
+    public void recordProbe(boolean reachable) {
+        Counter.builder("yiyan.network.probes")
+                .description("冷却结束后的网络可达性探测次数")
+                .tag("result", reachable ? "reachable" : "unreachable")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录一次获取的"一言"来自预取缓冲区还是实时请求。
+     */
+    public void recordSource(boolean fromBuffer) {
+        Counter.builder("yiyan.fetch.source")
+                .description("获取的一言来自预取缓冲区还是实时请求")
+                .tag("source", fromBuffer ? "buffer" : "live")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录从开始获取到界面显示的耗时。
+     *
+     * @param fetchStartedNanos 开始获取时的 {@link System#nanoTime()}
+     */
+    public void recordDisplayed(long fetchStartedNanos) {
+        Timer.builder("yiyan.display.latency")
+                .description("从开始获取到界面显示的耗时")
+                .serviceLevelObjectives(LATENCY_BUCKETS)
+                .register(meterRegistry)
+                .record(System.nanoTime() - fetchStartedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 发布调度器间隔策略的状态：连续失败的周期数和最近给出的延迟。
+     */
+    public void bindIntervalPolicy(IntervalPolicy policy) {
+        Gauge.builder("yiyan.scheduler.consecutive.failures", policy, p -> p.state().consecutiveFailures())
+                .description("调度器连续失败的周期数")
+                .register(meterRegistry);
+        TimeGauge.builder("yiyan.scheduler.next.delay", policy, TimeUnit.MILLISECONDS, p -> p.state().lastDelay().toMillis())
+                .description("调度器最近一次给出的执行间隔")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 发布一个监听器事件队列的深度。
+     *
+     * @param listener 监听器名称
+     * @param queue    监听器的事件队列
+     */
+    public void bindEventQueue(String listener, Collection<?> queue) {
+        Gauge.builder("yiyan.event.queue.depth", queue, Collection::size)
+                .description("监听器事件队列中等待处理的事件数")
+                .tag("listener", listener)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录监听器处理一个异步事件的耗时。
+     */
+    public void recordEventHandled(String listener, long nanos) {
+        Timer.builder("yiyan.event.handling")
+                .description("监听器处理一个异步事件的耗时")
+                .tag("listener", listener)
+                .serviceLevelObjectives(LOCAL_BUCKETS)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一个因监听器队列已满而丢弃的事件。
+     */
+    public void recordEventDropped(String listener) {
+        Counter.builder("yiyan.event.dropped")
+                .description("因监听器队列已满而丢弃的事件数")
+                .tag("listener", listener)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录一次历史记录的批量写入。
+     *
+     * @param entries 写入的记录数
+     * @param bytes   写入的字节数
+     * @param nanos   写入耗时（纳秒）
+     */
+    public void recordHistoryFlush(int entries, long bytes, long nanos) {
+        Timer.builder("yiyan.history.flush")
+                .description("历史记录批量写入的耗时")
+                .serviceLevelObjectives(LOCAL_BUCKETS)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder("yiyan.history.entries")
+                .description("写入历史记录的条数")
+                .register(meterRegistry)
+                .increment(entries);
+        Counter.builder("yiyan.history.written")
+                .description("写入历史记录的字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
+    /**
+     * 记录因写入队列已满而丢弃的历史记录。
+     */
+    public void recordHistoryDropped() {
+        Counter.builder("yiyan.history.dropped")
+                .description("因写入队列已满而丢弃的历史记录条数")
+                .register(meterRegistry)
+                .increment();
+    }
+}
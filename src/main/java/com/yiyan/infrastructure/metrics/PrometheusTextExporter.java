@@ -0,0 +1,229 @@
+package com.yiyan.infrastructure.metrics;
+
+import com.yiyan.config.MetricsProperties;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把指标注册表中的所有指标以 Prometheus 文本格式定期写入本地文件。
+ * <p>
+ * 文件先写入临时文件再原子替换，读取方（node_exporter 的 textfile 收集器、脚本或人工查看）不会读到写了一半的内容。
+ * 时间统一以秒为单位，计数器以 {@code _total} 结尾，直方图输出累计的 {@code _bucket} 行。
+ * 直方图的最大值不属于 Prometheus 直方图的样本，与 Micrometer 的 Prometheus 注册表一样，
+ * 作为单独的 {@code _max} 仪表族输出在同名直方图族之后。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PrometheusTextExporter {
+
+    /**
+     * 指标导出配置属性
+     */
+    private final MetricsProperties metricsProperties;
+    /**
+     * 指标注册表
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 定期导出指标。
+     */
+    @Scheduled(initialDelayString = "${metrics.export-interval:PT1M}", fixedDelayString = "${metrics.export-interval:PT1M}")
+    public void export() {
+        if (!metricsProperties.isExportEnabled()) {
+            return;
+        }
+        Path file = Path.of(metricsProperties.getExportFile());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(temp, scrape(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("⚠️ 无法导出指标到 '{}': {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 退出时导出最后的数值。
+     */
+    @PreDestroy
+    public void close() {
+        export();
+    }
+
+    /**
+     * 以 Prometheus 文本格式输出当前所有指标。
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        Set<String> described = new HashSet<>();
+        List<Meter> meters = meterRegistry.getMeters().stream()
+                // 注册表为直方图额外生成的桶计数指标与下面输出的 _bucket 行重复
+                .filter(m -> m.getId().syntheticAssociation() == null)
+                .sorted(Comparator.comparing((Meter m) -> m.getId().getName()))
+                .toList();
+        // 同名指标的 _max 仪表族在该名称的所有直方图之后输出，每个族的样本保持连续
+        StringBuilder maxFamily = new StringBuilder();
+        String currentName = null;
+        for (Meter meter : meters) {
+            if (!meter.getId().getName().equals(currentName)) {
+                out.append(maxFamily);
+                maxFamily.setLength(0);
+                currentName = meter.getId().getName();
+            }
+            meter.use(
+                    gauge -> sample(out, described, meter, name(meter, null), "gauge", "", gauge.value()),
+                    counter -> sample(out, described, meter, name(meter, null), "counter", "_total", counter.count()),
+                    timer -> histogram(out, maxFamily, described, meter, timer.takeSnapshot(), true),
+                    summary -> histogram(out, maxFamily, described, meter, summary.takeSnapshot(), false),
+                    longTaskTimer -> writeLongTaskTimer(out, described, meter, longTaskTimer),
+                    timeGauge -> sample(out, described, meter, name(meter, "seconds"), "gauge", "", timeGauge.value(TimeUnit.SECONDS)),
+                    functionCounter -> sample(out, described, meter, name(meter, null), "counter", "_total", functionCounter.count()),
+                    functionTimer -> writeFunctionTimer(out, described, meter, functionTimer),
+                    other -> writeGeneric(out, described, meter));
+        }
+        out.append(maxFamily);
+        return out.toString();
+    }
+
+    /**
+     * @param maxFamily 最大值样本写入这里，由调用方在同名直方图族之后输出
+     */
+    private void histogram(StringBuilder out, StringBuilder maxFamily, Set<String> described, Meter meter,
+                           HistogramSnapshot snapshot, boolean time) {
+        String name = name(meter, time ? "seconds" : null);
+        header(out, described, meter, name, "histogram");
+        String labels = labels(meter, null);
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            double le = time ? bucket.bucket(TimeUnit.SECONDS) : bucket.bucket();
+            line(out, name + "_bucket", labels(meter, format(le)), bucket.count());
+        }
+        line(out, name + "_bucket", labels(meter, "+Inf"), snapshot.count());
+        line(out, name + "_count", labels, snapshot.count());
+        line(out, name + "_sum", labels, time ? snapshot.total(TimeUnit.SECONDS) : snapshot.total());
+        header(maxFamily, described, meter, name + "_max", "gauge");
+        line(maxFamily, name + "_max", labels, time ? snapshot.max(TimeUnit.SECONDS) : snapshot.max());
+    }
+
+    private void writeLongTaskTimer(StringBuilder out, Set<String> described, Meter meter, LongTaskTimer timer) {
+        String name = name(meter, "seconds");
+        header(out, described, meter, name, "gauge");
+        line(out, name + "_active_count", labels(meter, null), timer.activeTasks());
+        line(out, name + "_duration_sum", labels(meter, null), timer.duration(TimeUnit.SECONDS));
+    }
+
+    private void writeFunctionTimer(StringBuilder out, Set<String> described, Meter meter, FunctionTimer timer) {
+        String name = name(meter, "seconds");
+        header(out, described, meter, name, "summary");
+        line(out, name + "_count", labels(meter, null), timer.count());
+        line(out, name + "_sum", labels(meter, null), timer.totalTime(TimeUnit.SECONDS));
+    }
+
+    private void writeGeneric(StringBuilder out, Set<String> described, Meter meter) {
+        String name = name(meter, null);
+        header(out, described, meter, name, "untyped");
+        for (Measurement measurement : meter.measure()) {
+            line(out, name + "_" + measurement.getStatistic().name().toLowerCase(Locale.ROOT), labels(meter, null), measurement.getValue());
+        }
+    }
+
+    private void sample(StringBuilder out, Set<String> described, Meter meter, String name, String type, String suffix, double value) {
+        header(out, described, meter, name + suffix, type);
+        line(out, name + suffix, labels(meter, null), value);
+    }
+
+    private static void header(StringBuilder out, Set<String> described, Meter meter, String name, String type) {
+        if (!described.add(name)) {
+            return;
+        }
+        String description = meter.getId().getDescription();
+        if (description != null) {
+            out.append("# HELP ").append(name).append(' ')
+                    .append(description.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        }
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void line(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(format(value)).append('\n');
+    }
+
+    /**
+     * 把 Micrometer 的点分名称转换为 Prometheus 名称，并附加基本单位。
+     *
+     * @param unit 强制使用的单位（计时类为 seconds）；为null时使用指标自己声明的基本单位
+     */
+    private static String name(Meter meter, String unit) {
+        String name = meter.getId().getName().replaceAll("[^a-zA-Z0-9_:]", "_");
+        String baseUnit = unit != null ? unit : meter.getId().getBaseUnit();
+        if (baseUnit != null && !name.endsWith("_" + baseUnit)) {
+            name = name + "_" + baseUnit.replaceAll("[^a-zA-Z0-9_]", "_");
+        }
+        return name;
+    }
+
+    private static String labels(Meter meter, String le) {
+        List<Tag> tags = meter.getId().getTags();
+        if (tags.isEmpty() && le == null) {
+            return "";
+        }
+        StringBuilder labels = new StringBuilder("{");
+        for (Tag tag : tags) {
+            if (labels.length() > 1) {
+                labels.append(',');
+            }
+            labels.append(tag.getKey().replaceAll("[^a-zA-Z0-9_]", "_")).append("=\"").append(escape(tag.getValue())).append('"');
+        }
+        if (le != null) {
+            if (labels.length() > 1) {
+                labels.append(',');
+            }
+            labels.append("le=\"").append(le).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
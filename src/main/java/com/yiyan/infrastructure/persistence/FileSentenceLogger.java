@@ -1,52 +1,389 @@
 package com.yiyan.infrastructure.persistence;
 
+import com.yiyan.config.HistoryProperties;
 import com.yiyan.event.SentenceFetchedEvent;
 import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import com.yiyan.infrastructure.persistence.binary.BinaryHistoryWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 文件日志记录器，负责将获取到的"一言"持久化到本地文件。
  * <p>
  * 它通过监听 {@link SentenceFetchedEvent} 事件来触发，实现了持久化逻辑与核心业务的解耦。
  * 每条记录都会附带时间戳。
+ * <p>
+ * 写入采用组提交：事件线程只把记录放入有界的无锁队列后立即返回；累积到一批或等待超过刷新间隔时，
+ * 由I/O执行器把整批记录一次写入长期打开的 {@link FileChannel}。队列已满时丢弃新记录并计数。
+ * 同一批记录也会存入去重的 {@link SentenceStore}。
+ * <p>
+ * 记录写入 {@link HistorySegments} 的活动分段；写入前如果活动分段已超过大小或时间上限，先轮转到新的分段。
+ * 二进制格式的分段由 {@link BinaryHistoryWriter} 编码，其字典只在一个分段内有效，因此轮转后整批重新编码。
  */
 @Component
 @Slf4j
 public class FileSentenceLogger {
 
-    private static final String LOG_FILE = "yiyan_log.txt";
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FORMATTER = HistorySegments.TIMESTAMP_FORMAT;
 
     /**
-     * 监听 SentenceFetchedEvent 事件，并将获取到的"一言"写入文件。
+     * 历史记录配置属性
+     */
+    private final HistoryProperties historyProperties;
+    /**
+     * 统一的I/O执行器，批量写入在其中进行
+     */
+    private final ExecutorService ioExecutor;
+    /**
+     * 调度器，按刷新间隔触发写入
+     */
+    private final TaskScheduler taskScheduler;
+    /**
+     * 去重的"一言"历史存储
+     */
+    private final SentenceStore sentenceStore;
+    /**
+     * 历史分段及清单
+     */
+    private final HistorySegments historySegments;
+    /**
+     * 获取流程的指标，记录历史写入的批次、字节数和丢弃条数
+     */
+    private final FetchMetrics fetchMetrics;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * 队列中的记录数。ConcurrentLinkedQueue.size() 需要遍历，因此单独计数
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Object writeLock = new Object();
+
+    private FileChannel channel;
+    // 只在持有 writeLock 时访问：活动分段及其统计
+    private HistorySegments.Segment segment;
+    private long segmentEntries;
+    private long segmentBytes;
+    private long segmentFirstTimestamp;
+    private long segmentLastTimestamp;
+    /**
+     * 活动分段为二进制格式时的编码器，文本格式时为 null
+     */
+    private BinaryHistoryWriter binaryWriter;
+    private ScheduledFuture<?> flushTimer;
+    private volatile boolean closed = false;
+
+    // --- 统计 ---
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private long droppedReported = 0;
+
+    // 只在持有 writeLock 时访问：同一秒内的记录复用格式化好的时间戳
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+
+    public FileSentenceLogger(HistoryProperties historyProperties, ExecutorService ioExecutor, TaskScheduler taskScheduler,
+                              SentenceStore sentenceStore, HistorySegments historySegments, FetchMetrics fetchMetrics) {
+        this.historyProperties = historyProperties;
+        this.ioExecutor = ioExecutor;
+        this.taskScheduler = taskScheduler;
+        this.sentenceStore = sentenceStore;
+        this.historySegments = historySegments;
+        this.fetchMetrics = fetchMetrics;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        synchronized (writeLock) {
+            openSegment(historySegments.active());
+        }
+        flushTimer = taskScheduler.scheduleWithFixedDelay(this::requestFlush, historyProperties.getFlushInterval());
+    }
+
+    private void openSegment(HistorySegments.Segment active) throws IOException {
+        channel = FileChannel.open(historySegments.path(active),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = active;
+        segmentEntries = active.entries();
+        segmentFirstTimestamp = active.firstTimestamp();
+        segmentLastTimestamp = active.lastTimestamp();
+        binaryWriter = active.isBinary() ? resumeBinary(historySegments.path(active)) : null;
+        segmentBytes = channel.size();
+    }
+
+    /**
+     * 从二进制分段的内容恢复编码器，并截掉末尾不完整的记录（例如上次写入时进程被终止）。
+     */
+    private BinaryHistoryWriter resumeBinary(Path file) throws IOException {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.resume(ByteBuffer.wrap(Files.readAllBytes(file)));
+        long size = channel.size();
+        if (size > 0 && writer.validEnd() < size) {
+            log.warn("⚠️ 历史分段 '{}' 末尾有 {} 字节不完整的记录，已截断。", file.getFileName(), size - writer.validEnd());
+            channel.truncate(writer.validEnd());
+        }
+        return writer;
+    }
+
+    /**
+     * 活动分段非空且写入这批记录后会超过大小上限，或已超过时间上限时，关闭它并开始新的分段。
+     *
+     * @return 是否已轮转
+     */
+    private boolean rollIfNeeded(long batchBytes) throws IOException {
+        if (segmentEntries == 0) {
+            return false;
+        }
+        boolean tooLarge = segmentBytes + batchBytes > historyProperties.getSegmentMaxSize().toBytes();
+        boolean tooOld = System.currentTimeMillis() - segment.createdAt() >= historyProperties.getSegmentMaxAge().toMillis();
+        if (!tooLarge && !tooOld) {
+            return false;
+        }
+        channel.force(false);
+        channel.close();
+        openSegment(historySegments.roll(segmentEntries, segmentBytes, segmentFirstTimestamp, segmentLastTimestamp));
+        return true;
+    }
+
+    /**
+     * 监听 SentenceFetchedEvent 事件，并将获取到的"一言"放入写入队列。此方法不会阻塞在磁盘I/O上。
      *
      * @param event 包含新获取的"一言"的事件对象。
      */
     @EventListener
     public void onSentenceFetched(SentenceFetchedEvent event) {
         Sentence sentence = event.getSentence();
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-        String logEntry = String.format("[%s] %s", timestamp, sentence.toString());
+        if (closed || !reserveSlot()) {
+            dropped.increment();
+            fetchMetrics.recordHistoryDropped();
+            return;
+        }
+        queue.offer(new Entry(event.getTimestamp(), sentence));
+        log.info("📝 记录新的一言到文件: {}", sentence);
 
-        log.info("📝 记录新的一言到文件: {}", logEntry);
+        int batchSize = historyProperties.getFlushEveryEntries();
+        if (batchSize > 0 && pending.get() >= batchSize) {
+            requestFlush();
+        }
+    }
 
-        // 使用 try-with-resources 确保写入器被正确关闭
-        try (FileWriter fw = new FileWriter(LOG_FILE, StandardCharsets.UTF_8, true);
-             BufferedWriter bw = new BufferedWriter(fw);
-             PrintWriter out = new PrintWriter(bw)) {
-            out.println(logEntry);
+    /**
+     * 在队列容量内占用一个位置。
+     */
+    private boolean reserveSlot() {
+        int capacity = historyProperties.getQueueCapacity();
+        while (true) {
+            int current = pending.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 有待写入的记录时，在I/O执行器中安排一次批量写入。同一时间最多只有一个写入任务在排队。
+     */
+    private void requestFlush() {
+        if (pending.get() == 0 || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ioExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush(historyProperties.isFsync());
+            });
+        } catch (RejectedExecutionException e) {
+            // 执行器已关闭，剩余记录在关闭时写入
+            flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * 把队列中的所有记录合并为一次写入。
+     *
+     * @param force 写入后是否 fsync
+     */
+    private void flush(boolean force) {
+        synchronized (writeLock) {
+            if (channel == null || !channel.isOpen()) {
+                return;
+            }
+            List<Entry> batch = new ArrayList<>();
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                pending.decrementAndGet();
+                batch.add(entry);
+                store(entry);
+            }
+            int count = batch.size();
+            try {
+                if (count > 0) {
+                    long started = System.nanoTime();
+                    ByteBuffer buffer = encode(batch);
+                    int bytes = buffer.remaining();
+                    if (rollIfNeeded(bytes)) {
+                        buffer = encode(batch);
+                        bytes = buffer.remaining();
+                    }
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    if (binaryWriter != null) {
+                        binaryWriter.clearPending();
+                    }
+                    if (segmentEntries == 0) {
+                        segmentFirstTimestamp = batch.get(0).timestamp();
+                    }
+                    segmentEntries += count;
+                    segmentBytes += bytes;
+                    segmentLastTimestamp = batch.get(count - 1).timestamp();
+                    written.add(count);
+                    batches.increment();
+                    fetchMetrics.recordHistoryFlush(count, bytes, System.nanoTime() - started);
+                }
+                if (force) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                log.error("❌ 无法将 {} 条一言写入历史分段 '{}': {}", count, segment.file(), e.getMessage());
+                recoverBinaryWriter();
+            }
+            long droppedTotal = dropped.sum();
+            if (droppedTotal > droppedReported) {
+                log.warn("⚠️ 写入队列已满，已丢弃 {} 条一言记录 (累计 {} 条)。", droppedTotal - droppedReported, droppedTotal);
+                droppedReported = droppedTotal;
+            }
+        }
+    }
+
+    /**
+     * 按活动分段的格式编码一批记录。
+     */
+    private ByteBuffer encode(List<Entry> batch) {
+        if (binaryWriter != null) {
+            // 新分段的编码器中已有待写入的文件头部
+            for (Entry entry : batch) {
+                binaryWriter.append(entry.timestamp(), entry.sentence());
+            }
+            return binaryWriter.pending();
+        }
+        StringBuilder text = new StringBuilder();
+        for (Entry entry : batch) {
+            text.append('[').append(timestamp(entry.timestamp())).append("] ")
+                    .append(entry.sentence()).append(System.lineSeparator());
+        }
+        return StandardCharsets.UTF_8.encode(text.toString());
+    }
+
+    /**
+     * 写入失败后编码器中的字典可能包含未写入文件的定义，从文件重新恢复。
+     */
+    private void recoverBinaryWriter() {
+        if (binaryWriter == null || !channel.isOpen()) {
+            return;
+        }
+        try {
+            binaryWriter = resumeBinary(historySegments.path(segment));
+            segmentBytes = channel.size();
         } catch (IOException e) {
-            log.error("❌ 无法将一言写入日志文件 '{}': {}", LOG_FILE, e.getMessage());
+            log.error("❌ 无法恢复二进制历史分段 '{}' 的编码状态: {}", segment.file(), e.getMessage());
+        }
+    }
+
+    private void store(Entry entry) {
+        try {
+            if (!sentenceStore.add(entry.sentence(), entry.timestamp())) {
+                log.debug("🗃️ 一言已在历史中: {}", entry.sentence());
+            }
+        } catch (UncheckedIOException e) {
+            log.error("❌ 无法将一言存入历史存储: {}", e.getMessage());
+        }
+    }
+
+    private String timestamp(long epochMillis) {
+        long second = Math.floorDiv(epochMillis, 1000);
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = FORMATTER.format(Instant.ofEpochSecond(second));
+        }
+        return cachedTimestamp;
+    }
+
+    /**
+     * 获取写入统计。
+     */
+    public Stats stats() {
+        return new Stats(pending.get(), written.sum(), dropped.sum(), batches.sum());
+    }
+
+    /**
+     * 应用退出时写入剩余记录并 fsync，然后关闭文件。
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        if (flushTimer != null) {
+            flushTimer.cancel(false);
+        }
+        flush(true);
+        synchronized (writeLock) {
+            try {
+                channel.close();
+                historySegments.updateActive(segmentEntries, segmentBytes, segmentFirstTimestamp, segmentLastTimestamp);
+            } catch (IOException e) {
+                log.warn("关闭历史分段 '{}' 失败: {}", segment.file(), e.getMessage());
+            }
         }
+        Stats stats = stats();
+        log.info("📝 历史记录已关闭，共写入 {} 条 ({} 批)，丢弃 {} 条。", stats.written(), stats.batches(), stats.dropped());
+    }
+
+    /**
+     * 一条待写入的记录。
+     *
+     * @param timestamp 获取时间（毫秒）
+     * @param sentence  获取到的"一言"
+     */
+    private record Entry(long timestamp, Sentence sentence) {
+    }
+
+    /**
+     * 历史记录写入统计。
+     *
+     * @param pending 等待写入的记录数
+     * @param written 已写入的记录数
+     * @param dropped 因队列已满而丢弃的记录数
+     * @param batches 批量写入的次数
+     */
+    public record Stats(int pending, long written, long dropped, long batches) {
     }
-} 
\ No newline at end of file
+}
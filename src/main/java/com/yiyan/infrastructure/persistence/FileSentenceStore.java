@@ -0,0 +1,620 @@
+package com.yiyan.infrastructure.persistence;
+
+import com.yiyan.config.HistoryProperties;
+import com.yiyan.domain.Sentence;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 基于文件的"一言"历史存储。
+ * <p>
+ * 由两个文件组成：
+ * <ul>
+ *     <li>{@value #LOG_FILE}：只追加的记录日志，是唯一的数据来源。每条记录为
+ *     {@code [int 负载长度][int CRC32][long 时间戳][int 文本字节数][文本][int 作者字节数或-1][作者][int 来源字节数或-1][来源]}。
+ *     旧版本写入的记录没有来源部分，读取时来源为null。</li>
+ *     <li>{@value #INDEX_FILE}：内存映射的开放寻址哈希表，键为规范化文本的64位哈希，值为记录在日志中的偏移量，
+ *     查找和插入都是常数时间。哈希命中后会读取日志中的记录核对文本，哈希冲突不会导致误判。</li>
+ * </ul>
+ * 索引头部记录了它覆盖到的日志长度和一个"未正常关闭"标记。启动时如果索引缺失、损坏或上次未正常关闭，
+ * 就从日志重建索引；日志末尾不完整或校验失败的记录会被丢弃。
+ * <p>
+ * 首次启动（存储为空）时，在I/O执行器中从历史分段回填已有的记录。
+ * <p>
+ * 记录在日志中的偏移量从不改变，{@link #forEachFrom(long, RecordVisitor)} 和 {@link #read(long)}
+ * 让其他索引（例如历史搜索）直接建立在这份日志之上，而不必另存一份数据。
+ * <p>
+ * 索引文件只会原地扩大，从不截断或替换，因此在 Windows 上映射期间也能正常扩容。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FileSentenceStore implements SentenceStore {
+
+    static final String LOG_FILE = "sentences.log";
+    static final String INDEX_FILE = "sentences.idx";
+
+    private static final int INDEX_MAGIC = 0x59594958; // "YYIX"
+    private static final int INDEX_VERSION = 1;
+    /**
+     * 索引头部：magic, version, capacity, size, 覆盖到的日志长度, 未正常关闭标记
+     */
+    private static final int HEADER_BYTES = 32;
+    private static final int POS_MAGIC = 0;
+    private static final int POS_VERSION = 4;
+    private static final int POS_CAPACITY = 8;
+    private static final int POS_SIZE = 12;
+    private static final int POS_LOG_END = 16;
+    private static final int POS_DIRTY = 24;
+    /**
+     * 每个槽位：long 哈希 + long (日志偏移量 + 1)，0 表示空槽
+     */
+    private static final int SLOT_BYTES = 16;
+    private static final double MAX_LOAD_FACTOR = 0.7;
+    /**
+     * 记录头部：int 负载长度 + int CRC32
+     */
+    private static final int RECORD_HEADER_BYTES = 8;
+    /**
+     * 单条记录负载的上限，超过即视为日志损坏
+     */
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    /**
+     * 历史记录配置属性
+     */
+    private final HistoryProperties historyProperties;
+    /**
+     * 历史记录分段，存储为空时从中回填
+     */
+    private final HistorySegments historySegments;
+    /**
+     * 统一的I/O执行器，回填在其中进行
+     */
+    private final ExecutorService ioExecutor;
+
+    private FileChannel logChannel;
+    /**
+     * 日志中最后一条完整记录的结束位置，新记录从这里写入
+     */
+    private long logEnd;
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int size;
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Path directory = Path.of(historyProperties.getStoreDirectory());
+        Files.createDirectories(directory);
+        logChannel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (!openIndex()) {
+            rebuildIndex();
+        }
+        // 运行期间保持"未正常关闭"标记，崩溃后下次启动会从日志重建索引
+        index.putInt(POS_DIRTY, 1);
+        index.force();
+        log.info("🗃️ 一言历史存储已打开: {} 条记录, 日志 {} 字节。", size, logEnd);
+        if (size == 0) {
+            try {
+                ioExecutor.execute(this::backfill);
+            } catch (RejectedExecutionException e) {
+                log.debug("I/O执行器已关闭，跳过一言历史存储的回填。");
+            }
+        }
+    }
+
+    /**
+     * 从历史分段导入已有的记录。与运行中的写入并行时，重复的文本只保存一次。
+     */
+    private void backfill() {
+        long started = System.currentTimeMillis();
+        int[] imported = {0};
+        for (HistorySegments.Segment segment : historySegments.segments()) {
+            try {
+                historySegments.forEachRecord(segment, record -> {
+                    if (add(record.sentence(), record.timestamp())) {
+                        imported[0]++;
+                    }
+                });
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                log.warn("⚠️ 回填历史分段 {} 到一言历史存储失败: {}", segment.file(), e.getMessage());
+            }
+        }
+        if (imported[0] > 0) {
+            log.info("🗃️ 已从历史分段回填 {} 条记录到一言历史存储，耗时 {} ms。", imported[0], System.currentTimeMillis() - started);
+        }
+    }
+
+    @Override
+    public synchronized boolean add(Sentence sentence, long timestamp) {
+        String normalized = SentenceKeys.normalize(sentence.getText());
+        long hash = SentenceKeys.hashNormalized(normalized);
+        if (findSlot(hash, normalized) >= 0) {
+            return false;
+        }
+        long offset;
+        try {
+            offset = appendRecord(timestamp, sentence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法写入一言历史日志", e);
+        }
+        insert(hash, offset);
+        index.putLong(POS_LOG_END, logEnd);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean contains(String text) {
+        String normalized = SentenceKeys.normalize(text);
+        return findSlot(SentenceKeys.hashNormalized(normalized), normalized) >= 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<StoredSentence> action) {
+        try {
+            scan(0, logEnd, (offset, record) -> action.accept(record));
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取一言历史日志", e);
+        }
+    }
+
+    /**
+     * 从指定位置开始按保存顺序遍历记录，并给出每条记录在日志中的偏移量。
+     *
+     * @param from    开始位置：0 或者上一次遍历返回的结束位置
+     * @param visitor 对每条记录执行的操作
+     * @return 最后一条完整记录的结束位置；开始位置不是记录的边界时，返回开始位置
+     */
+    public synchronized long forEachFrom(long from, RecordVisitor visitor) {
+        if (from < 0 || from > logEnd) {
+            return from;
+        }
+        try {
+            return scan(from, logEnd, visitor);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取一言历史日志", e);
+        }
+    }
+
+    /**
+     * 日志中最后一条完整记录的结束位置。
+     */
+    public synchronized long logEnd() {
+        return logEnd;
+    }
+
+    /**
+     * 读取 {@link #forEachFrom(long, RecordVisitor)} 给出的偏移量处的记录。
+     * 只使用按位置读取，不需要持有锁，可以与追加写入并发进行。
+     *
+     * @return 记录；该位置不是一条完整的记录时返回空
+     */
+    public Optional<StoredSentence> read(long offset) {
+        try {
+            return Optional.ofNullable(readRecord(offset));
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取一言历史日志", e);
+        }
+    }
+
+    /**
+     * 应用退出时把日志和索引刷到磁盘，并清除"未正常关闭"标记。
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (logChannel == null || !logChannel.isOpen()) {
+            return;
+        }
+        try {
+            logChannel.force(true);
+            index.putInt(POS_SIZE, size);
+            index.putLong(POS_LOG_END, logEnd);
+            index.force();
+            index.putInt(POS_DIRTY, 0);
+            index.force();
+            logChannel.close();
+            indexChannel.close();
+        } catch (IOException e) {
+            log.warn("关闭一言历史存储失败: {}", e.getMessage());
+        }
+    }
+
+    // --- 索引 ---
+
+    /**
+     * 打开已有的索引文件并校验。
+     *
+     * @return 索引可用时返回true；需要重建时返回false
+     */
+    private boolean openIndex() throws IOException {
+        long fileSize = indexChannel.size();
+        if (fileSize < HEADER_BYTES) {
+            return false;
+        }
+        // 先用普通读取校验头部，校验通过后再映射
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        indexChannel.read(header, 0);
+        header.flip();
+        int cap = header.getInt(POS_CAPACITY);
+        if (header.getInt(POS_MAGIC) != INDEX_MAGIC || header.getInt(POS_VERSION) != INDEX_VERSION
+                || cap <= 0 || Integer.bitCount(cap) != 1 || fileSize < indexBytes(cap)) {
+            log.warn("⚠️ 一言历史索引无效，将从日志重建。");
+            return false;
+        }
+        if (header.getInt(POS_DIRTY) != 0) {
+            log.warn("⚠️ 一言历史存储上次未正常关闭，将从日志重建索引。");
+            return false;
+        }
+        long indexedEnd = header.getLong(POS_LOG_END);
+        if (indexedEnd > logChannel.size()) {
+            log.warn("⚠️ 一言历史索引超出日志长度，将从日志重建。");
+            return false;
+        }
+
+        capacity = cap;
+        size = header.getInt(POS_SIZE);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexBytes(cap));
+        logEnd = indexedEnd;
+        if (indexedEnd < logChannel.size()) {
+            // 索引之后还有记录（例如上次关闭时只写完了日志），补入索引
+            replay(indexedEnd);
+        }
+        return true;
+    }
+
+    /**
+     * 从日志重建整个索引。
+     */
+    private void rebuildIndex() throws IOException {
+        long started = System.currentTimeMillis();
+        mapEmptyIndex(Integer.highestOneBit(Math.max(16, historyProperties.getIndexInitialCapacity() - 1)) << 1);
+        logEnd = 0;
+        replay(0);
+        log.info("🗃️ 已从日志重建一言历史索引: {} 条记录, 耗时 {} ms。", size, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * 把日志中从指定位置开始的记录补入索引，并丢弃末尾不完整的记录。
+     */
+    private void replay(long from) throws IOException {
+        long end = scan(from, logChannel.size(), (offset, record) -> {
+            String normalized = SentenceKeys.normalize(record.sentence().getText());
+            long hash = SentenceKeys.hashNormalized(normalized);
+            if (findSlot(hash, normalized) < 0) {
+                insert(hash, offset);
+            }
+        });
+        if (end < logChannel.size()) {
+            log.warn("⚠️ 一言历史日志末尾有 {} 字节不完整或已损坏，已丢弃。", logChannel.size() - end);
+            logChannel.truncate(end);
+        }
+        logEnd = end;
+        index.putInt(POS_SIZE, size);
+        index.putLong(POS_LOG_END, logEnd);
+    }
+
+    /**
+     * 映射一个指定容量的空索引。文件只会变大，不会被截断。
+     */
+    private void mapEmptyIndex(int newCapacity) throws IOException {
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexBytes(newCapacity));
+        for (int pos = 0; pos < index.capacity(); pos += 8) {
+            index.putLong(pos, 0L);
+        }
+        index.putInt(POS_MAGIC, INDEX_MAGIC);
+        index.putInt(POS_VERSION, INDEX_VERSION);
+        index.putInt(POS_CAPACITY, newCapacity);
+        index.putInt(POS_DIRTY, 1);
+        capacity = newCapacity;
+        size = 0;
+    }
+
+    /**
+     * 查找规范化文本所在的槽位。
+     *
+     * @return 找到时返回槽位下标；否则返回 {@code -(空槽下标 + 1)}
+     */
+    private int findSlot(long hash, String normalized) {
+        int mask = capacity - 1;
+        int slot = (int) hash & mask;
+        while (true) {
+            int pos = slotPosition(slot);
+            long storedOffset = index.getLong(pos + 8);
+            if (storedOffset == 0) {
+                return -(slot + 1);
+            }
+            if (index.getLong(pos) == hash && textMatches(storedOffset - 1, normalized)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 插入一个新键，必要时先扩容。调用方需确认键不存在。
+     */
+    private void insert(long hash, long offset) {
+        if (size + 1 > capacity * MAX_LOAD_FACTOR) {
+            grow();
+        }
+        int mask = capacity - 1;
+        int slot = (int) hash & mask;
+        while (index.getLong(slotPosition(slot) + 8) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        int pos = slotPosition(slot);
+        index.putLong(pos, hash);
+        index.putLong(pos + 8, offset + 1);
+        size++;
+        index.putInt(POS_SIZE, size);
+    }
+
+    /**
+     * 把索引容量翻倍。槽位中保存了完整的哈希，重新分布时无需读取日志。
+     */
+    private void grow() {
+        int oldCapacity = capacity;
+        long[] hashes = new long[size];
+        long[] offsets = new long[size];
+        int n = 0;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int pos = slotPosition(slot);
+            long storedOffset = index.getLong(pos + 8);
+            if (storedOffset != 0) {
+                hashes[n] = index.getLong(pos);
+                offsets[n] = storedOffset - 1;
+                n++;
+            }
+        }
+        try {
+            mapEmptyIndex(oldCapacity << 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法扩容一言历史索引", e);
+        }
+        for (int i = 0; i < n; i++) {
+            insert(hashes[i], offsets[i]);
+        }
+        index.putLong(POS_LOG_END, logEnd);
+        log.debug("🗃️ 一言历史索引已扩容: {} -> {}", oldCapacity, capacity);
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static long indexBytes(int capacity) {
+        return HEADER_BYTES + (long) capacity * SLOT_BYTES;
+    }
+
+    // --- 日志 ---
+
+    private long appendRecord(long timestamp, Sentence sentence) throws IOException {
+        byte[] text = sentence.getText().getBytes(StandardCharsets.UTF_8);
+        byte[] author = utf8(sentence.getAuthor());
+        byte[] source = utf8(sentence.getSource());
+        int payloadLength = 8 + 4 + text.length + 4 + (author == null ? 0 : author.length)
+                + 4 + (source == null ? 0 : source.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadLength);
+        buffer.position(RECORD_HEADER_BYTES);
+        buffer.putLong(timestamp);
+        buffer.putInt(text.length).put(text);
+        putOptional(buffer, author);
+        putOptional(buffer, source);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), RECORD_HEADER_BYTES, payloadLength);
+        buffer.putInt(0, payloadLength);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+
+        long offset = logEnd;
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += logChannel.write(buffer, position);
+        }
+        logEnd = position;
+        return offset;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putOptional(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private boolean textMatches(long offset, String normalized) {
+        try {
+            StoredSentence record = readRecord(offset);
+            return record != null && SentenceKeys.normalize(record.sentence().getText()).equals(normalized);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取一言历史日志", e);
+        }
+    }
+
+    /**
+     * 读取指定位置的一条记录。
+     *
+     * @return 记录；不完整或校验失败时返回null
+     */
+    private StoredSentence readRecord(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        if (!readFully(header, offset)) {
+            return null;
+        }
+        int payloadLength = header.getInt(0);
+        if (payloadLength < 16 || payloadLength > MAX_PAYLOAD_BYTES) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+        if (!readFully(payload, offset + RECORD_HEADER_BYTES)) {
+            return null;
+        }
+        return decode(payload.array(), 0, payloadLength, header.getInt(4));
+    }
+
+    /**
+     * 顺序扫描日志中的完整记录。
+     *
+     * @return 最后一条完整记录的结束位置
+     */
+    private long scan(long from, long to, RecordVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long bufferStart = from;
+        buffer.limit(0);
+        long offset = from;
+        while (offset + RECORD_HEADER_BYTES <= to) {
+            int relative = (int) (offset - bufferStart);
+            if (relative + RECORD_HEADER_BYTES > buffer.limit()) {
+                buffer = refill(buffer, offset, to, RECORD_HEADER_BYTES);
+                bufferStart = offset;
+                relative = 0;
+                if (buffer.limit() < RECORD_HEADER_BYTES) {
+                    break;
+                }
+            }
+            int payloadLength = buffer.getInt(relative);
+            int checksum = buffer.getInt(relative + 4);
+            if (payloadLength < 16 || payloadLength > MAX_PAYLOAD_BYTES || offset + RECORD_HEADER_BYTES + payloadLength > to) {
+                break;
+            }
+            int recordLength = RECORD_HEADER_BYTES + payloadLength;
+            if (relative + recordLength > buffer.limit()) {
+                buffer = refill(buffer, offset, to, recordLength);
+                bufferStart = offset;
+                relative = 0;
+                if (buffer.limit() < recordLength) {
+                    break;
+                }
+            }
+            StoredSentence record = decode(buffer.array(), relative + RECORD_HEADER_BYTES, payloadLength, checksum);
+            if (record == null) {
+                break;
+            }
+            visitor.visit(offset, record);
+            offset += recordLength;
+        }
+        return offset;
+    }
+
+    /**
+     * 从指定位置重新填充缓冲区，缓冲区不足以容纳一条记录时换用更大的。
+     */
+    private ByteBuffer refill(ByteBuffer buffer, long position, long to, int minBytes) throws IOException {
+        if (buffer.capacity() < minBytes) {
+            buffer = ByteBuffer.allocate(minBytes);
+        }
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), to - position));
+        while (buffer.hasRemaining()) {
+            int n = logChannel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private StoredSentence decode(byte[] bytes, int start, int length, int checksum) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, start, length);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.wrap(bytes, start, length);
+        long timestamp = payload.getLong();
+        int textLength = payload.getInt();
+        if (textLength < 0 || textLength > payload.remaining() - 4) {
+            return null;
+        }
+        String text = new String(bytes, payload.position(), textLength, StandardCharsets.UTF_8);
+        payload.position(payload.position() + textLength);
+        String[] author = new String[1];
+        if (!getOptional(payload, author)) {
+            return null;
+        }
+        // 旧版本的记录在作者之后结束，没有来源
+        String[] source = new String[1];
+        if (payload.hasRemaining() && !getOptional(payload, source)) {
+            return null;
+        }
+        return new StoredSentence(timestamp, Sentence.of(text, author[0], source[0]));
+    }
+
+    /**
+     * 读取一个可能为null的字符串，结果放入 {@code value[0]}。
+     *
+     * @return 长度超出负载时返回false
+     */
+    private static boolean getOptional(ByteBuffer payload, String[] value) {
+        if (payload.remaining() < 4) {
+            return false;
+        }
+        int length = payload.getInt();
+        if (length < 0) {
+            value[0] = null;
+            return true;
+        }
+        if (length > payload.remaining()) {
+            return false;
+        }
+        value[0] = new String(payload.array(), payload.arrayOffset() + payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return true;
+    }
+
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (logChannel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 遍历日志时对每条记录执行的操作。
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @param offset 记录在日志中的偏移量
+         * @param record 记录
+         */
+        void visit(long offset, StoredSentence record);
+    }
+}
@@ -0,0 +1,489 @@
+package com.yiyan.infrastructure.persistence;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyan.config.HistoryProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.persistence.binary.BinaryHistoryFormat;
+import com.yiyan.infrastructure.persistence.binary.BinaryHistoryReader;
+import com.yiyan.infrastructure.persistence.binary.HistoryFormatConverter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * "一言"历史记录的分段文件及其清单。
+ * <p>
+ * 历史记录按顺序写入分段目录中的 {@code yiyan_log-000001.txt}、{@code yiyan_log-000002.txt} ……
+ * （二进制格式的分段扩展名为 {@value BinaryHistoryFormat#FILE_SUFFIX}）
+ * 同一时间只有最后一个分段处于活动状态并被追加写入；它超过大小或时间上限后被关闭，
+ * 关闭的分段在I/O执行器中压缩为 {@code .gz}。
+ * <p>
+ * 分段目录中的 {@value #MANIFEST_FILE} 按顺序列出所有分段及其时间范围、记录数和是否已压缩，
+ * 读取方（历史搜索、本地语料等）据此按顺序或并行扫描，无需逐个打开文件确认内容。
+ * 清单通过写入临时文件再原子替换的方式更新。
+ * <p>
+ * 分段文件名从不复用，活动分段也不会被重命名，因此其他组件内存映射着某个分段时，轮转和压缩不受影响。
+ * 旧版的单文件历史记录（{@link HistoryProperties#getFile()}）在首次启动时作为第一个分段迁移进来。
+ */
+@Component
+@Slf4j
+public class HistorySegments {
+
+    static final String MANIFEST_FILE = "manifest.json";
+    private static final String SEGMENT_PREFIX = "yiyan_log-";
+    private static final String SEGMENT_SUFFIX = ".txt";
+    private static final String COMPRESSED_SUFFIX = ".gz";
+    /**
+     * 历史记录每行开头的时间戳格式：{@code [yyyy-MM-dd HH:mm:ss] 文本 —— 作者}
+     */
+    static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+    private static final String AUTHOR_SEPARATOR = " —— ";
+
+    /**
+     * 历史记录配置属性
+     */
+    private final HistoryProperties historyProperties;
+    /**
+     * JSON序列化工具，用于读写清单
+     */
+    private final ObjectMapper objectMapper;
+    /**
+     * 统一的I/O执行器，关闭的分段在其中压缩
+     */
+    private final ExecutorService ioExecutor;
+
+    private Path directory;
+    private Manifest manifest;
+    /**
+     * 清单每次变化时递增，读取方据此判断是否需要重新读取分段列表
+     */
+    private volatile long version;
+
+    public HistorySegments(HistoryProperties historyProperties, ObjectMapper objectMapper, ExecutorService ioExecutor) {
+        this.historyProperties = historyProperties;
+        this.objectMapper = objectMapper;
+        this.ioExecutor = ioExecutor;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        directory = Path.of(historyProperties.getSegmentDirectory());
+        Files.createDirectories(directory);
+        Path manifestFile = directory.resolve(MANIFEST_FILE);
+        manifest = Files.exists(manifestFile)
+                ? objectMapper.readValue(manifestFile.toFile(), Manifest.class)
+                : new Manifest(1, new ArrayList<>());
+        manifest = new Manifest(manifest.nextSequence(), new ArrayList<>(manifest.segments()));
+
+        migrateLegacyFile();
+        for (Segment segment : manifest.segments()) {
+            if (segment.compressed()) {
+                // 压缩后未能删除的原文件（例如当时仍被映射）
+                Files.deleteIfExists(directory.resolve(segment.file()));
+            } else if (!segment.isActive()) {
+                scheduleCompression(segment);
+            }
+        }
+        Optional<Segment> active = activeSegment();
+        if (active.isPresent()) {
+            reconcile(active.get());
+            switchFormatIfChanged(active().format());
+        } else {
+            startSegment(System.currentTimeMillis());
+        }
+        save();
+        log.info("🗂️ 历史分段已打开: {} 个分段，活动分段 {}。", manifest.segments().size(), active().file());
+    }
+
+    /**
+     * 当前活动分段，新记录追加到其中。
+     */
+    public synchronized Segment active() {
+        return activeSegment().orElseThrow();
+    }
+
+    /**
+     * 按顺序返回所有分段（最后一个为活动分段）。
+     */
+    public synchronized List<Segment> segments() {
+        return List.copyOf(manifest.segments());
+    }
+
+    /**
+     * 分段文件的当前路径，已压缩的分段指向 {@code .gz} 文件。
+     */
+    public Path path(Segment segment) {
+        return directory.resolve(segment.compressed() ? segment.file() + COMPRESSED_SUFFIX : segment.file());
+    }
+
+    /**
+     * 清单的版本号，分段列表或其中任一分段发生变化时递增。
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 打开一个文本分段用于按行读取，已压缩的分段会被透明解压。
+     *
+     * @throws IllegalArgumentException 如果分段是二进制格式（使用 {@link #openBinary(Segment)}）
+     */
+    public BufferedReader openReader(Segment segment) throws IOException {
+        if (segment.isBinary()) {
+            throw new IllegalArgumentException("分段 " + segment.file() + " 是二进制格式");
+        }
+        InputStream in = Files.newInputStream(path(segment));
+        if (segment.compressed()) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /**
+     * 打开一个二进制分段的顺序读取游标。未压缩的分段被内存映射，已压缩的分段边解压边读取。读取器需要关闭。
+     *
+     * @throws IllegalArgumentException 如果分段不是二进制格式
+     */
+    public BinaryHistoryReader openBinary(Segment segment) throws IOException {
+        if (!segment.isBinary()) {
+            throw new IllegalArgumentException("分段 " + segment.file() + " 不是二进制格式");
+        }
+        return HistoryFormatConverter.openBinary(path(segment));
+    }
+
+    /**
+     * 按顺序读取一个分段中的所有记录：二进制分段直接解码，文本分段逐行解析（跳过空行）。
+     *
+     * @param segment  要读取的分段
+     * @param consumer 接收每条记录
+     */
+    public void forEachRecord(Segment segment, Consumer<SentenceStore.StoredSentence> consumer) throws IOException {
+        if (segment.isBinary()) {
+            try (BinaryHistoryReader reader = openBinary(segment)) {
+                while (reader.next()) {
+                    consumer.accept(new SentenceStore.StoredSentence(reader.timestamp(), reader.toSentence()));
+                }
+            }
+            return;
+        }
+        try (BufferedReader reader = openReader(segment)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parseLine(line).ifPresent(consumer);
+            }
+        }
+    }
+
+    /**
+     * 解析历史记录中的一行。
+     *
+     * @param line {@code [yyyy-MM-dd HH:mm:ss] 文本 —— 作者} 格式的一行，作者部分可选；
+     *             也接受语料文件中 {@code *:文本 —— 作者} 格式的行
+     * @return 解析出的记录，时间戳无法解析或没有时间戳时为0；空行返回空的Optional
+     */
+    public static Optional<SentenceStore.StoredSentence> parseLine(String line) {
+        String content = line.strip();
+        long timestamp = 0;
+        if (content.startsWith("*:")) {
+            content = content.substring(2);
+        }
+        int close = content.startsWith("[") ? content.indexOf("] ") : -1;
+        if (close > 0) {
+            try {
+                timestamp = Instant.from(TIMESTAMP_FORMAT.parse(content.substring(1, close))).toEpochMilli();
+            } catch (DateTimeException e) {
+                // 保留时间戳为0
+            }
+            content = content.substring(close + 2);
+        }
+        String author = null;
+        int separator = content.lastIndexOf(AUTHOR_SEPARATOR);
+        if (separator > 0) {
+            author = content.substring(separator + AUTHOR_SEPARATOR.length()).strip();
+            content = content.substring(0, separator).strip();
+        }
+        if (content.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SentenceStore.StoredSentence(timestamp,
+                Sentence.of(content, author == null || author.isEmpty() ? null : author)));
+    }
+
+    /**
+     * 按历史记录文本格式输出一行（含换行符）。
+     */
+    public static String formatLine(long timestamp, Sentence sentence) {
+        return "[" + TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(timestamp)) + "] " + sentence + System.lineSeparator();
+    }
+
+    /**
+     * 更新活动分段的统计信息并写入清单。
+     */
+    public synchronized void updateActive(long entries, long bytes, long firstTimestamp, long lastTimestamp) throws IOException {
+        Segment active = active();
+        replace(active, active.withStats(entries, bytes, firstTimestamp, lastTimestamp));
+        save();
+    }
+
+    /**
+     * 关闭活动分段并开始一个新的分段。关闭的分段会在后台压缩。
+     *
+     * @return 新的活动分段
+     */
+    public synchronized Segment roll(long entries, long bytes, long firstTimestamp, long lastTimestamp) throws IOException {
+        long now = System.currentTimeMillis();
+        Segment closedSegment = active().withStats(entries, bytes, firstTimestamp, lastTimestamp).close(now);
+        replace(active(), closedSegment);
+        Segment next = startSegment(now);
+        save();
+        log.info("🗂️ 历史分段 {} 已关闭 ({} 条, {} 字节)，开始写入 {}。",
+                closedSegment.file(), entries, bytes, next.file());
+        scheduleCompression(closedSegment);
+        return next;
+    }
+
+    private Optional<Segment> activeSegment() {
+        List<Segment> segments = manifest.segments();
+        if (segments.isEmpty() || !segments.get(segments.size() - 1).isActive()) {
+            return Optional.empty();
+        }
+        return Optional.of(segments.get(segments.size() - 1));
+    }
+
+    private Segment startSegment(long now) throws IOException {
+        int sequence = manifest.nextSequence();
+        HistoryProperties.Format format = historyProperties.getFormat();
+        String suffix = format == HistoryProperties.Format.BINARY ? BinaryHistoryFormat.FILE_SUFFIX : SEGMENT_SUFFIX;
+        Segment segment = new Segment(sequence, String.format("%s%06d%s", SEGMENT_PREFIX, sequence, suffix),
+                now, 0, 0, 0, 0, 0, false, format);
+        Files.write(directory.resolve(segment.file()), new byte[0]);
+        manifest.segments().add(segment);
+        manifest = new Manifest(sequence + 1, manifest.segments());
+        return segment;
+    }
+
+    /**
+     * 配置的格式与活动分段不同时，关闭活动分段（空的直接删除），从新格式的分段开始写入。
+     */
+    private void switchFormatIfChanged(HistoryProperties.Format activeFormat) throws IOException {
+        if (activeFormat == historyProperties.getFormat()) {
+            return;
+        }
+        Segment active = active();
+        long now = System.currentTimeMillis();
+        if (active.entries() == 0) {
+            manifest.segments().remove(active);
+            Files.deleteIfExists(directory.resolve(active.file()));
+        } else {
+            Segment closedSegment = active.close(now);
+            replace(active, closedSegment);
+            scheduleCompression(closedSegment);
+        }
+        Segment next = startSegment(now);
+        log.info("🗂️ 历史记录格式已切换为 {}，开始写入 {}。", historyProperties.getFormat(), next.file());
+    }
+
+    /**
+     * 把旧版的单文件历史记录移入分段目录，作为一个已关闭的分段。
+     */
+    private void migrateLegacyFile() throws IOException {
+        Path legacy = Path.of(historyProperties.getFile());
+        if (!Files.isRegularFile(legacy) || Files.size(legacy) == 0) {
+            return;
+        }
+        int sequence = manifest.nextSequence();
+        String file = String.format("%s%06d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+        Path target = directory.resolve(file);
+        Files.move(legacy, target);
+        long entries = countLines(target);
+        long now = System.currentTimeMillis();
+        Segment segment = new Segment(sequence, file, Files.getLastModifiedTime(target).toMillis(), now,
+                0, 0, entries, Files.size(target), false, HistoryProperties.Format.TEXT);
+        // 按时间顺序插入，但始终排在活动分段之前
+        List<Segment> segments = manifest.segments();
+        int limit = activeSegment().isPresent() ? segments.size() - 1 : segments.size();
+        int insertAt = 0;
+        while (insertAt < limit && segments.get(insertAt).createdAt() <= segment.createdAt()) {
+            insertAt++;
+        }
+        segments.add(insertAt, segment);
+        manifest = new Manifest(sequence + 1, segments);
+        log.info("🗂️ 已将旧版历史记录 '{}' 迁移为分段 {} ({} 条)。", legacy, file, entries);
+    }
+
+    /**
+     * 上次未正常关闭时，清单中活动分段的统计可能落后于文件，以文件为准。
+     */
+    private void reconcile(Segment active) throws IOException {
+        Path file = directory.resolve(active.file());
+        if (!Files.exists(file)) {
+            Files.write(file, new byte[0]);
+        }
+        long bytes = Files.size(file);
+        if (bytes != active.bytes()) {
+            long entries = active.isBinary() ? countBinaryEntries(file) : countLines(file);
+            replace(active, active.withStats(entries, bytes, active.firstTimestamp(), active.lastTimestamp()));
+        }
+    }
+
+    private static long countLines(Path file) throws IOException {
+        long lines = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static long countBinaryEntries(Path file) throws IOException {
+        try (BinaryHistoryReader reader = HistoryFormatConverter.openBinary(file)) {
+            long entries = 0;
+            while (reader.next()) {
+                entries++;
+            }
+            return entries;
+        }
+    }
+
+    private void scheduleCompression(Segment segment) {
+        if (!historyProperties.isCompressSegments()) {
+            return;
+        }
+        try {
+            ioExecutor.execute(() -> compress(segment));
+        } catch (RejectedExecutionException e) {
+            log.debug("I/O执行器已关闭，分段 {} 将在下次启动时压缩。", segment.file());
+        }
+    }
+
+    /**
+     * 压缩一个已关闭的分段：先写入临时文件，完成后原子替换为 {@code .gz} 并更新清单，最后删除原文件。
+     */
+    private void compress(Segment segment) {
+        Path source = directory.resolve(segment.file());
+        Path target = directory.resolve(segment.file() + COMPRESSED_SUFFIX);
+        Path temp = directory.resolve(segment.file() + COMPRESSED_SUFFIX + ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                Files.copy(source, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                manifest.segments().stream()
+                        .filter(s -> s.sequence() == segment.sequence())
+                        .findFirst()
+                        .ifPresent(s -> replace(s, s.compress()));
+                save();
+            }
+            log.info("🗜️ 历史分段 {} 已压缩: {} -> {} 字节。", segment.file(), Files.size(source), Files.size(target));
+        } catch (IOException e) {
+            log.warn("⚠️ 压缩历史分段 {} 失败: {}", segment.file(), e.getMessage());
+            return;
+        }
+        try {
+            Files.deleteIfExists(source);
+        } catch (IOException e) {
+            // 例如在 Windows 上仍被映射；下次启动时再删除
+            log.debug("暂时无法删除已压缩的分段 {}: {}", segment.file(), e.getMessage());
+        }
+    }
+
+    private void replace(Segment current, Segment updated) {
+        List<Segment> segments = manifest.segments();
+        segments.set(segments.indexOf(current), updated);
+    }
+
+    private void save() throws IOException {
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), manifest);
+        Files.move(temp, directory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        version++;
+    }
+
+    /**
+     * 分段清单。
+     *
+     * @param nextSequence 下一个分段的序号
+     * @param segments     按顺序排列的分段
+     */
+    record Manifest(int nextSequence, List<Segment> segments) {
+    }
+
+    /**
+     * 一个历史分段。
+     *
+     * @param sequence       分段序号，从不复用
+     * @param file           未压缩时的文件名（相对于分段目录）
+     * @param createdAt      分段开始写入的时间（毫秒）
+     * @param closedAt       分段关闭的时间（毫秒），活动分段为0
+     * @param firstTimestamp 第一条记录的时间（毫秒），未知时为0
+     * @param lastTimestamp  最后一条记录的时间（毫秒），未知时为0
+     * @param entries        记录数
+     * @param bytes          未压缩时的字节数
+     * @param compressed     是否已压缩为 {@code .gz}
+     * @param format         分段格式，较早的清单中没有此项，视为文本格式
+     */
+    public record Segment(int sequence, String file, long createdAt, long closedAt, long firstTimestamp,
+                          long lastTimestamp, long entries, long bytes, boolean compressed,
+                          HistoryProperties.Format format) {
+
+        public Segment {
+            if (format == null) {
+                format = HistoryProperties.Format.TEXT;
+            }
+        }
+
+        @JsonIgnore
+        public boolean isActive() {
+            return closedAt == 0;
+        }
+
+        @JsonIgnore
+        public boolean isBinary() {
+            return format == HistoryProperties.Format.BINARY;
+        }
+
+        Segment withStats(long entries, long bytes, long firstTimestamp, long lastTimestamp) {
+            return new Segment(sequence, file, createdAt, closedAt, firstTimestamp, lastTimestamp, entries, bytes, compressed, format);
+        }
+
+        Segment close(long now) {
+            return new Segment(sequence, file, createdAt, now, firstTimestamp, lastTimestamp, entries, bytes, compressed, format);
+        }
+
+        Segment compress() {
+            return new Segment(sequence, file, createdAt, closedAt, firstTimestamp, lastTimestamp, entries, bytes, true, format);
+        }
+    }
+}
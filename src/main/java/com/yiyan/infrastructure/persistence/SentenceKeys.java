@@ -0,0 +1,74 @@
+package com.yiyan.infrastructure.persistence;
+
+import java.text.Normalizer;
+
+/**
+ * "一言"去重键的计算工具。
+ * <p>
+ * 同一句话在不同API中常有细微差别（全角/半角、空白、标点），因此去重前先做规范化，
+ * 再对规范化文本计算64位哈希。
+ */
+public final class SentenceKeys {
+
+    private SentenceKeys() {
+    }
+
+    /**
+     * 规范化文本：NFKC 统一全角/半角，转为小写，并去掉所有空白和标点。
+     *
+     * @param text 原始文本
+     * @return 规范化后的文本
+     */
+    public static String normalize(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); ) {
+            int cp = folded.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp) || isPunctuation(cp)) {
+                continue;
+            }
+            sb.appendCodePoint(Character.toLowerCase(cp));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 计算文本规范化后的64位哈希。
+     *
+     * @param text 原始文本
+     * @return 哈希值
+     */
+    public static long hash(String text) {
+        return hashNormalized(normalize(text));
+    }
+
+    /**
+     * 计算已规范化文本的64位哈希：FNV-1a 后再做一次 MurmurHash3 的 fmix64 混合，使低位分布均匀。
+     *
+     * @param normalized 已规范化的文本
+     * @return 哈希值
+     */
+    public static long hashNormalized(String normalized) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static boolean isPunctuation(int cp) {
+        return switch (Character.getType(cp)) {
+            case Character.CONNECTOR_PUNCTUATION, Character.DASH_PUNCTUATION, Character.START_PUNCTUATION,
+                 Character.END_PUNCTUATION, Character.INITIAL_QUOTE_PUNCTUATION, Character.FINAL_QUOTE_PUNCTUATION,
+                 Character.OTHER_PUNCTUATION -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.yiyan.infrastructure.persistence;
+
+import com.yiyan.domain.Sentence;
+
+import java.util.function.Consumer;
+
+/**
+ * "一言"历史存储接口。
+ * <p>
+ * 保存所有获取过的"一言"，并能以常数时间回答"这句话是否已经出现过"。
+ * 是否为同一句话按 {@link SentenceKeys#normalize(String)} 规范化后的文本判断。
+ */
+public interface SentenceStore {
+
+    /**
+     * 保存一条"一言"。规范化文本相同的记录只保存第一次出现的那条。
+     *
+     * @param sentence  "一言"
+     * @param timestamp 获取时间（毫秒）
+     * @return 如果是新的"一言"并已保存，返回true；已存在时返回false。
+     */
+    boolean add(Sentence sentence, long timestamp);
+
+    /**
+     * 判断文本是否已经保存过。
+     *
+     * @param text "一言"文本
+     * @return 已存在时返回true
+     */
+    boolean contains(String text);
+
+    /**
+     * 已保存的"一言"数量。
+     */
+    int size();
+
+    /**
+     * 按保存顺序遍历所有记录。
+     *
+     * @param action 对每条记录执行的操作
+     */
+    void forEach(Consumer<StoredSentence> action);
+
+    /**
+     * 一条已保存的记录。
+     *
+     * @param timestamp 首次获取时间（毫秒）
+     * @param sentence  "一言"
+     */
+    record StoredSentence(long timestamp, Sentence sentence) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.yiyan.infrastructure.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyan.config.WarmStartProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.event.SentenceFetchedEvent;
+import com.yiyan.event.SentenceRestoredEvent;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStats;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import com.yiyan.service.RecentSentenceFilter;
+import com.yiyan.service.SentencePrefetchBuffer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 热启动快照：保存上次展示的"一言"、预取缓冲区的内容和各端点的健康评分。
+ * <p>
+ * 快照在退出时和运行中定期写入。启动时（上下文刷新完成后、加载API列表和发起任何网络请求之前）恢复：
+ * 上次展示的"一言"立即交给界面显示，缓冲区内容放回预取缓冲区，使第一次调度无需等待网络。
+ * 端点评分只有在快照不超过 {@link WarmStartProperties#getHealthMaxAge()} 时才被采用，过旧的评分不再反映端点的现状。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class WarmStartSnapshot {
+
+    /**
+     * 热启动快照配置属性
+     */
+    private final WarmStartProperties warmStartProperties;
+    /**
+     * Jackson的ObjectMapper，用于读写快照文件
+     */
+    private final ObjectMapper objectMapper;
+    /**
+     * 预取缓冲区，保存和恢复其中的"一言"
+     */
+    private final SentencePrefetchBuffer prefetchBuffer;
+    /**
+     * 端点统计注册表，保存和恢复各端点的评分
+     */
+    private final EndpointStatsRegistry statsRegistry;
+    /**
+     * 近期重复过滤器，恢复的"一言"计入其中，避免紧接着再次展示
+     */
+    private final RecentSentenceFilter recentFilter;
+    /**
+     * 事件发布器，用于通知界面显示恢复的"一言"
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 最近一次展示的"一言"
+     */
+    private volatile Sentence lastSentence;
+
+    /**
+     * 上下文就绪后立即恢复快照。此时还没有加载API列表，也没有发起网络请求。
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void restore() {
+        if (!warmStartProperties.isEnabled()) {
+            return;
+        }
+        Path file = Path.of(warmStartProperties.getFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        long started = System.nanoTime();
+        Snapshot snapshot;
+        try {
+            snapshot = objectMapper.readValue(file.toFile(), Snapshot.class);
+        } catch (IOException e) {
+            log.warn("⚠️ 无法读取热启动快照 '{}'，将正常冷启动: {}", file, e.getMessage());
+            return;
+        }
+        Duration age = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - snapshot.savedAt()));
+
+        int restoredEndpoints = 0;
+        if (snapshot.endpoints() != null && age.compareTo(warmStartProperties.getHealthMaxAge()) <= 0) {
+            for (EndpointScore score : snapshot.endpoints()) {
+                statsRegistry.forEndpoint(score.name())
+                        .restoreScores(score.ewmaLatencyMs(), score.httpSuccessRate(), score.parseSuccessRate());
+                restoredEndpoints++;
+            }
+        }
+        int restoredPrefetch = snapshot.prefetched() == null ? 0
+                : prefetchBuffer.restore(snapshot.prefetched().stream().map(SavedSentence::toSentence).toList());
+
+        if (snapshot.lastSentence() != null) {
+            Sentence sentence = snapshot.lastSentence().toSentence();
+            lastSentence = sentence;
+            recentFilter.isRecentDuplicate(sentence);
+            eventPublisher.publishEvent(new SentenceRestoredEvent(this, sentence, snapshot.savedAt()));
+        }
+        log.info("♨️ 已恢复热启动快照 (保存于 {} 分钟前): 上次的一言{}, 预取 {} 条, 端点评分 {} 个{}, 耗时 {} ms。",
+                age.toMinutes(), snapshot.lastSentence() != null ? "已显示" : "无", restoredPrefetch, restoredEndpoints,
+                restoredEndpoints == 0 && snapshot.endpoints() != null && !snapshot.endpoints().isEmpty() ? " (快照过旧，未采用)" : "",
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * 记录最近展示的"一言"。
+     */
+    @EventListener
+    public void onSentenceFetched(SentenceFetchedEvent event) {
+        lastSentence = event.getSentence();
+    }
+
+    /**
+     * 定期保存快照。
+     */
+    @Scheduled(initialDelayString = "${warm-start.save-interval:PT1M}", fixedDelayString = "${warm-start.save-interval:PT1M}")
+    public void save() {
+        if (!warmStartProperties.isEnabled()) {
+            return;
+        }
+        Sentence last = lastSentence;
+        List<EndpointScore> endpoints = statsRegistry.snapshot().stream().map(EndpointScore::of).toList();
+        Snapshot snapshot = new Snapshot(System.currentTimeMillis(), last == null ? null : SavedSentence.of(last),
+                prefetchBuffer.contents().stream().map(SavedSentence::of).toList(), endpoints);
+        Path file = Path.of(warmStartProperties.getFile());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("♨️ 热启动快照已保存: 预取 {} 条, 端点评分 {} 个。", snapshot.prefetched().size(), endpoints.size());
+        } catch (IOException e) {
+            log.warn("⚠️ 无法保存热启动快照 '{}': {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 退出时保存最后的状态。预取缓冲区在此之后才会关闭，其内容仍然完整。
+     */
+    @PreDestroy
+    public void close() {
+        save();
+    }
+
+    /**
+     * 热启动快照文件的内容。
+     *
+     * @param savedAt      保存时间（毫秒）
+     * @param lastSentence 最近展示的"一言"，没有时为null
+     * @param prefetched   预取缓冲区中的"一言"
+     * @param endpoints    各端点的健康评分
+     */
+    record Snapshot(long savedAt, SavedSentence lastSentence, List<SavedSentence> prefetched,
+                    List<EndpointScore> endpoints) {
+    }
+
+    /**
+     * 快照中的一条"一言"。
+     */
+    record SavedSentence(String text, String author, String source) {
+
+        static SavedSentence of(Sentence sentence) {
+            return new SavedSentence(sentence.getText(), sentence.getAuthor(), sentence.getSource());
+        }
+
+        Sentence toSentence() {
+            return Sentence.of(text, author, source);
+        }
+    }
+
+    /**
+     * 快照中一个端点的健康评分。
+     */
+    record EndpointScore(String name, double ewmaLatencyMs, double httpSuccessRate, double parseSuccessRate) {
+
+        static EndpointScore of(EndpointStats.Snapshot stats) {
+            return new EndpointScore(stats.name(), stats.ewmaLatencyMs(), stats.httpSuccessRate(), stats.parseSuccessRate());
+        }
+    }
+}
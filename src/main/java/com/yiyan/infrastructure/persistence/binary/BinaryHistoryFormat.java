@@ -0,0 +1,41 @@
+package com.yiyan.infrastructure.persistence.binary;
+
+/**
+ * 二进制历史记录格式的常量。
+ * <p>
+ * 文件以5字节的头部开始：{@code "YYHB"} 和版本号。之后是一串记录，每条记录以变长整数标签开头：
+ * <ul>
+ *     <li>{@link #TAG_DEFINE_AUTHOR} / {@link #TAG_DEFINE_SOURCE}：{@code [varint 字节数][UTF-8]}，
+ *     向作者或来源字典追加一项，编号按出现顺序从0开始。</li>
+ *     <li>{@link #TAG_ENTRY}：{@code [zigzag varint 与上一条的时间差(毫秒)][varint 作者编号+1][varint 来源编号+1]
+ *     [varint 文本字节数][UTF-8 文本]}，编号为0表示没有作者或来源。</li>
+ * </ul>
+ * 字典定义总是出现在第一次引用它的记录之前，因此文件可以只追加写入、顺序解码。
+ * 每个文件（历史分段）的字典和时间差都是独立的。
+ */
+public final class BinaryHistoryFormat {
+
+    static final byte[] MAGIC = {'Y', 'Y', 'H', 'B'};
+    static final byte VERSION = 1;
+    static final int HEADER_BYTES = MAGIC.length + 1;
+
+    static final int TAG_DEFINE_AUTHOR = 1;
+    static final int TAG_DEFINE_SOURCE = 2;
+    static final int TAG_ENTRY = 3;
+
+    /**
+     * 二进制历史文件的扩展名。
+     */
+    public static final String FILE_SUFFIX = ".yyb";
+
+    private BinaryHistoryFormat() {
+    }
+
+    static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
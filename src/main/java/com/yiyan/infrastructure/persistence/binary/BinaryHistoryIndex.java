@@ -0,0 +1,84 @@
+package com.yiyan.infrastructure.persistence.binary;
+
+import com.yiyan.domain.Sentence;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 内存映射的二进制历史文件的记录索引，支持按序号随机读取记录。
+ * <p>
+ * 建立索引时顺序扫描一遍文件，为每条记录记下文本的位置、长度以及作者和来源的字典编号（每条16字节），
+ * 不在堆上保存文本。之后按序号读取一条记录只需解码它的文本，时间复杂度为 O(1)。
+ * 文件被追加写入后，换成更大的映射即可只为新增的部分补充索引。
+ * <p>
+ * 非线程安全，由调用方同步。
+ */
+public final class BinaryHistoryIndex {
+
+    private final BinaryHistoryReader reader;
+    private int[] textOffsets = new int[1024];
+    private int[] textLengths = new int[1024];
+    private int[] authorIds = new int[1024];
+    private int[] sourceIds = new int[1024];
+    private int size;
+
+    /**
+     * @param buffer 从文件开头开始的映射
+     * @throws IllegalArgumentException 如果文件头部无效
+     */
+    public BinaryHistoryIndex(ByteBuffer buffer) {
+        this.reader = new BinaryHistoryReader(buffer);
+        scan();
+    }
+
+    /**
+     * 换成同一文件追加写入后更大的映射，并为新增的记录补充索引。
+     *
+     * @param larger 从文件开头开始的新映射
+     */
+    public void remap(ByteBuffer larger) {
+        reader.remap(larger);
+        scan();
+    }
+
+    /**
+     * 已索引的完整记录数。
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 读取第 index 条记录。
+     *
+     * @throws IndexOutOfBoundsException 如果序号超出范围
+     */
+    public Sentence sentence(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int author = authorIds[index];
+        int source = sourceIds[index];
+        return Sentence.of(reader.textAt(textOffsets[index], textLengths[index]),
+                author < 0 ? null : reader.authorAt(author),
+                source < 0 ? null : reader.sourceAt(source));
+    }
+
+    private void scan() {
+        while (reader.next()) {
+            if (size == textOffsets.length) {
+                int capacity = size * 2;
+                textOffsets = Arrays.copyOf(textOffsets, capacity);
+                textLengths = Arrays.copyOf(textLengths, capacity);
+                authorIds = Arrays.copyOf(authorIds, capacity);
+                sourceIds = Arrays.copyOf(sourceIds, capacity);
+            }
+            textOffsets[size] = reader.textOffset();
+            textLengths[size] = reader.textLength();
+            authorIds[size] = reader.authorId();
+            sourceIds[size] = reader.sourceId();
+            size++;
+        }
+    }
+}
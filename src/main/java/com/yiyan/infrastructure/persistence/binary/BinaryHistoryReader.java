@@ -0,0 +1,420 @@
+package com.yiyan.infrastructure.persistence.binary;
+
+import com.yiyan.domain.Sentence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 二进制历史记录的顺序读取游标。
+ * <p>
+ * 每次 {@link #next()} 前进到下一条记录，之后通过访问方法读取当前记录的字段。读取过程不为每条记录创建对象：
+ * 作者和来源来自字典（每个不同的值只解码一次），文本可以用 {@link #text()} 解码到复用的字符缓冲区，
+ * 或通过 {@link #textOffset()}/{@link #textLength()} 直接访问原始字节。
+ * 需要保留某条记录时再调用 {@link #textString()} 或 {@link #toSentence()} 创建对象。
+ * <p>
+ * 读取的数据可以是完整的文件内容（通常是内存映射的缓冲区），也可以是一个通道：
+ * 后者只在固定大小的窗口中保留当前记录，读完后从通道补充，适合顺序扫描压缩的分段，不必把整个文件解压到内存。
+ * <p>
+ * 空文件视为没有记录。文件末尾不完整的记录（例如写入时崩溃）被视为结束，{@link #position()} 指向最后一条完整记录之后。
+ */
+public final class BinaryHistoryReader implements Closeable {
+
+    /**
+     * 从通道读取时窗口的初始大小
+     */
+    private static final int WINDOW_BYTES = 64 * 1024;
+    /**
+     * 单条记录或字典项的字节数上限，超过即视为数据损坏
+     */
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private ByteBuffer buffer;
+    /**
+     * 文本解码用的视图，复用同一个对象避免每条记录创建切片
+     */
+    private ByteBuffer textView;
+    /**
+     * 数据来源的通道；读取完整缓冲区时为null
+     */
+    private final ReadableByteChannel source;
+    private boolean endOfSource;
+    /**
+     * 窗口之前已丢弃的字节数，用于计算 {@link #position()}
+     */
+    private long discarded;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private CharBuffer chars = CharBuffer.allocate(256);
+
+    private final List<String> authors = new ArrayList<>();
+    private final List<String> sources = new ArrayList<>();
+
+    private int position;
+    /**
+     * 上一次 {@link #readVarLong(int)} 读取结束的位置
+     */
+    private int nextPosition;
+    private boolean truncated;
+    /**
+     * 读取时数据为空，头部尚未读取；换成更大的映射后再读取
+     */
+    private boolean headerPending;
+    /**
+     * 上一次解析因窗口中的数据不足而中断
+     */
+    private boolean underflow;
+    private long timestamp;
+    private int authorId;
+    private int sourceId;
+    private int textOffset;
+    private int textLength;
+
+    /**
+     * @param buffer 完整的二进制历史文件内容，从其当前位置开始读取
+     * @throws IllegalArgumentException 如果文件头部无效
+     */
+    public BinaryHistoryReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.textView = buffer.duplicate();
+        this.source = null;
+        this.endOfSource = true;
+        this.position = buffer.position();
+        readHeader();
+    }
+
+    /**
+     * 从通道顺序读取。读取器关闭时一并关闭通道。
+     *
+     * @param source 二进制历史文件内容的通道，例如解压流
+     * @throws IllegalArgumentException 如果文件头部无效
+     * @throws UncheckedIOException     如果读取通道失败
+     */
+    public BinaryHistoryReader(ReadableByteChannel source) {
+        this.buffer = ByteBuffer.allocate(WINDOW_BYTES).limit(0);
+        this.textView = buffer.duplicate();
+        this.source = source;
+        while (buffer.limit() < BinaryHistoryFormat.HEADER_BYTES && fill()) {
+            // 读满头部
+        }
+        readHeader();
+    }
+
+    private void readHeader() {
+        int start = position;
+        if (buffer.limit() == start) {
+            headerPending = true; // 空文件
+            return;
+        }
+        headerPending = false;
+        if (buffer.limit() - start < BinaryHistoryFormat.HEADER_BYTES) {
+            throw new IllegalArgumentException("不是二进制历史文件：头部不完整");
+        }
+        for (int i = 0; i < BinaryHistoryFormat.MAGIC.length; i++) {
+            if (buffer.get(start + i) != BinaryHistoryFormat.MAGIC[i]) {
+                throw new IllegalArgumentException("不是二进制历史文件：标识不匹配");
+            }
+        }
+        if (buffer.get(start + BinaryHistoryFormat.MAGIC.length) != BinaryHistoryFormat.VERSION) {
+            throw new IllegalArgumentException("不支持的二进制历史文件版本");
+        }
+        this.position = start + BinaryHistoryFormat.HEADER_BYTES;
+    }
+
+    /**
+     * 前进到下一条记录。
+     *
+     * @return 有下一条完整记录时返回 true；到达末尾或遇到不完整的记录时返回 false
+     * @throws UncheckedIOException 如果读取通道失败
+     */
+    public boolean next() {
+        while (!truncated) {
+            if (position >= buffer.limit()) {
+                if (!fill()) {
+                    return false;
+                }
+                continue;
+            }
+            underflow = false;
+            int limit = buffer.limit();
+            int cursor = position;
+            long tag = readVarLong(cursor);
+            cursor = nextPosition;
+            if (tag == BinaryHistoryFormat.TAG_DEFINE_AUTHOR || tag == BinaryHistoryFormat.TAG_DEFINE_SOURCE) {
+                long length = readVarLong(cursor);
+                cursor = nextPosition;
+                if (!underflow && !truncated && length > MAX_RECORD_BYTES) {
+                    truncated = true;
+                }
+                if (!truncated && !underflow && cursor + length > limit) {
+                    underflow = true;
+                }
+                if (underflow) {
+                    refillOrTruncate();
+                    continue;
+                }
+                if (truncated) {
+                    return false;
+                }
+                String value = decodeString(cursor, (int) length);
+                (tag == BinaryHistoryFormat.TAG_DEFINE_AUTHOR ? authors : sources).add(value);
+                position = cursor + (int) length;
+            } else if (tag == BinaryHistoryFormat.TAG_ENTRY) {
+                long delta = readVarLong(cursor);
+                long author = readVarLong(nextPosition);
+                long source = readVarLong(nextPosition);
+                long length = readVarLong(nextPosition);
+                cursor = nextPosition;
+                if (!underflow && !truncated
+                        && (length > MAX_RECORD_BYTES || author > authors.size() || source > sources.size())) {
+                    truncated = true;
+                }
+                if (!truncated && !underflow && cursor + length > limit) {
+                    underflow = true;
+                }
+                if (underflow) {
+                    refillOrTruncate();
+                    continue;
+                }
+                if (truncated) {
+                    return false;
+                }
+                timestamp += BinaryHistoryFormat.zigZagDecode(delta);
+                authorId = (int) author - 1;
+                sourceId = (int) source - 1;
+                textOffset = cursor;
+                textLength = (int) length;
+                position = cursor + textLength;
+                return true;
+            } else if (underflow) {
+                refillOrTruncate();
+            } else {
+                truncated = true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 窗口中的数据不足以解析一条记录时，从通道补充；通道已读完时，剩余的数据是不完整的记录。
+     */
+    private void refillOrTruncate() {
+        if (!fill()) {
+            truncated = true;
+        }
+    }
+
+    /**
+     * 把窗口中尚未解析的数据移到开头，再从通道读取更多数据。剩余数据占满窗口时（超长的记录）把窗口扩大一倍。
+     *
+     * @return 读取到了新的数据时返回 true；没有通道或通道已读完时返回 false
+     */
+    private boolean fill() {
+        if (source == null || endOfSource) {
+            return false;
+        }
+        int remaining = buffer.limit() - position;
+        if (remaining == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer.position(position));
+            buffer = larger;
+            textView = buffer.duplicate();
+        } else {
+            buffer.position(position);
+            buffer.compact();
+        }
+        discarded += position;
+        position = 0;
+        try {
+            int read;
+            do {
+                read = source.read(buffer);
+            } while (read == 0);
+            if (read < 0) {
+                endOfSource = true;
+            }
+            buffer.flip();
+            return read > 0;
+        } catch (IOException e) {
+            buffer.flip();
+            throw new UncheckedIOException("读取二进制历史记录失败", e);
+        }
+    }
+
+    /**
+     * 最后一条完整记录之后的位置（相对于数据开头）。
+     */
+    public long position() {
+        return discarded + position;
+    }
+
+    /**
+     * 读取是否因不完整或无法识别的数据而提前结束。
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 当前记录的作者编号，没有作者时为 -1。
+     */
+    public int authorId() {
+        return authorId;
+    }
+
+    public String author() {
+        return authorId < 0 ? null : authors.get(authorId);
+    }
+
+    /**
+     * 当前记录的来源编号，没有来源时为 -1。
+     */
+    public int sourceId() {
+        return sourceId;
+    }
+
+    public String source() {
+        return sourceId < 0 ? null : sources.get(sourceId);
+    }
+
+    /**
+     * 当前记录文本的UTF-8字节在缓冲区中的起始位置。
+     */
+    public int textOffset() {
+        return textOffset;
+    }
+
+    /**
+     * 当前记录文本的UTF-8字节数。
+     */
+    public int textLength() {
+        return textLength;
+    }
+
+    /**
+     * 把当前记录的文本解码到复用的字符缓冲区。返回值在下一次调用前有效。
+     */
+    public CharSequence text() {
+        if (chars.capacity() < textLength) {
+            chars = CharBuffer.allocate(Math.max(textLength, chars.capacity() * 2));
+        }
+        chars.clear();
+        textView.limit(textOffset + textLength).position(textOffset);
+        decoder.reset();
+        decoder.decode(textView, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        return chars;
+    }
+
+    public String textString() {
+        return decodeString(textOffset, textLength);
+    }
+
+    /**
+     * 为当前记录创建 Sentence 对象。
+     */
+    public Sentence toSentence() {
+        return Sentence.of(textString(), author(), source());
+    }
+
+    /**
+     * 换成同一文件追加写入后更大的映射，从最后一条完整记录之后继续读取，已读取的字典保留。
+     * 只用于从完整缓冲区读取的读取器；新的映射必须与原来的映射从同一位置开始。
+     *
+     * @throws IllegalArgumentException 如果原来为空的文件现在的头部无效
+     */
+    void remap(ByteBuffer larger) {
+        if (source != null) {
+            throw new IllegalStateException("从通道读取的读取器不能重新映射");
+        }
+        buffer = larger;
+        textView = larger.duplicate();
+        truncated = false;
+        underflow = false;
+        if (headerPending) {
+            readHeader();
+        }
+    }
+
+    /**
+     * 解码指定位置的UTF-8字符串，位置与 {@link #textOffset()} 相同，相对于缓冲区开头。
+     */
+    String textAt(int offset, int length) {
+        return decodeString(offset, length);
+    }
+
+    int authorCount() {
+        return authors.size();
+    }
+
+    String authorAt(int id) {
+        return authors.get(id);
+    }
+
+    int sourceCount() {
+        return sources.size();
+    }
+
+    String sourceAt(int id) {
+        return sources.get(id);
+    }
+
+    /**
+     * 关闭数据来源的通道（如果有）。
+     */
+    @Override
+    public void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    private String decodeString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从指定位置读取一个变长整数，结束位置保存在 {@link #nextPosition}。
+     * 窗口中的数据不足时设置 {@link #underflow}，超过64位时视为数据损坏。
+     */
+    private long readVarLong(int from) {
+        long value = 0;
+        int shift = 0;
+        int cursor = from;
+        while (!truncated && !underflow) {
+            if (cursor >= buffer.limit()) {
+                underflow = true;
+                break;
+            }
+            if (shift > 63) {
+                truncated = true;
+                break;
+            }
+            byte b = buffer.get(cursor++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            shift += 7;
+        }
+        nextPosition = cursor;
+        return value;
+    }
+}
@@ -0,0 +1,142 @@
+package com.yiyan.infrastructure.persistence.binary;
+
+import com.yiyan.domain.Sentence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 二进制历史记录的编码器。
+ * <p>
+ * 记录被编码到内部的字节缓冲区，由调用方通过 {@link #pending()} 取出写入文件后调用 {@link #clearPending()}。
+ * 编码器保存当前文件的作者/来源字典和上一条记录的时间，因此一个编码器只对应一个文件；
+ * 继续追加已有文件时用 {@link #resume(ByteBuffer)} 从文件内容恢复这些状态。
+ */
+public final class BinaryHistoryWriter {
+
+    private final Map<String, Integer> authors = new HashMap<>();
+    private final Map<String, Integer> sources = new HashMap<>();
+    private long lastTimestamp;
+    private byte[] buffer = new byte[1024];
+    private int length;
+    private int resumedEnd;
+
+    private BinaryHistoryWriter(boolean writeHeader) {
+        if (writeHeader) {
+            ensureCapacity(BinaryHistoryFormat.HEADER_BYTES);
+            System.arraycopy(BinaryHistoryFormat.MAGIC, 0, buffer, 0, BinaryHistoryFormat.MAGIC.length);
+            buffer[BinaryHistoryFormat.MAGIC.length] = BinaryHistoryFormat.VERSION;
+            length = BinaryHistoryFormat.HEADER_BYTES;
+        }
+    }
+
+    /**
+     * 为一个新的空文件创建编码器，第一批待写入的数据包含文件头部。
+     */
+    public static BinaryHistoryWriter create() {
+        return new BinaryHistoryWriter(true);
+    }
+
+    /**
+     * 为继续追加已有文件创建编码器，从文件内容中恢复字典和上一条记录的时间。
+     *
+     * @param existing 已有文件的全部内容；为空时等同于 {@link #create()}
+     * @return 编码器，{@link #validEnd()} 为最后一条完整记录的结束位置，调用方应从这里开始追加
+     */
+    public static BinaryHistoryWriter resume(ByteBuffer existing) {
+        if (!existing.hasRemaining()) {
+            return create();
+        }
+        BinaryHistoryReader reader = new BinaryHistoryReader(existing);
+        BinaryHistoryWriter writer = new BinaryHistoryWriter(false);
+        while (reader.next()) {
+            writer.lastTimestamp = reader.timestamp();
+        }
+        for (int i = 0; i < reader.authorCount(); i++) {
+            writer.authors.put(reader.authorAt(i), i);
+        }
+        for (int i = 0; i < reader.sourceCount(); i++) {
+            writer.sources.put(reader.sourceAt(i), i);
+        }
+        writer.resumedEnd = (int) reader.position();
+        return writer;
+    }
+
+    /**
+     * 恢复时文件中最后一条完整记录的结束位置；新建的编码器返回0。
+     */
+    public int validEnd() {
+        return resumedEnd;
+    }
+
+    /**
+     * 编码一条记录，必要时先编码字典定义。
+     */
+    public void append(long timestamp, Sentence sentence) {
+        int author = reference(authors, sentence.getAuthor(), BinaryHistoryFormat.TAG_DEFINE_AUTHOR);
+        int source = reference(sources, sentence.getSource(), BinaryHistoryFormat.TAG_DEFINE_SOURCE);
+        byte[] text = sentence.getText().getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(1 + 10 + 5 + 5 + 5 + text.length);
+        writeVarLong(BinaryHistoryFormat.TAG_ENTRY);
+        writeVarLong(BinaryHistoryFormat.zigZagEncode(timestamp - lastTimestamp));
+        writeVarLong(author + 1L);
+        writeVarLong(source + 1L);
+        writeVarLong(text.length);
+        System.arraycopy(text, 0, buffer, length, text.length);
+        length += text.length;
+        lastTimestamp = timestamp;
+    }
+
+    /**
+     * 待写入的数据。
+     */
+    public ByteBuffer pending() {
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    /**
+     * 待写入数据已写出后调用。
+     */
+    public void clearPending() {
+        length = 0;
+    }
+
+    /**
+     * 返回值的字典编号，值第一次出现时先编码一条定义。null 返回 -1。
+     */
+    private int reference(Map<String, Integer> dictionary, String value, int defineTag) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(1 + 5 + bytes.length);
+        writeVarLong(defineTag);
+        writeVarLong(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+        id = dictionary.size();
+        dictionary.put(value, id);
+        return id;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length + extra, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.yiyan.infrastructure.persistence.binary;
+
+import com.yiyan.infrastructure.persistence.HistorySegments;
+import com.yiyan.infrastructure.persistence.SentenceStore;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 文本历史记录与二进制历史记录的相互转换。
+ * <p>
+ * 文本格式为每行 {@code [yyyy-MM-dd HH:mm:ss] 文本 —— 作者}，没有来源字段，因此从文本转换得到的记录没有来源，
+ * 从二进制转换为文本时来源会被丢弃。以 {@code .gz} 结尾的路径会被透明地压缩或解压。
+ * <p>
+ * 也可以单独运行：{@code HistoryFormatConverter to-binary|to-text <输入> <输出>}。
+ */
+public final class HistoryFormatConverter {
+
+    private HistoryFormatConverter() {
+    }
+
+    /**
+     * 把文本历史记录转换为二进制格式。
+     *
+     * @return 转换的记录数
+     */
+    public static long textToBinary(BufferedReader in, OutputStream out) throws IOException {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        long entries = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            Optional<SentenceStore.StoredSentence> record = HistorySegments.parseLine(line);
+            if (record.isEmpty()) {
+                continue;
+            }
+            writer.append(record.get().timestamp(), record.get().sentence());
+            entries++;
+            ByteBuffer pending = writer.pending();
+            if (pending.remaining() >= 64 * 1024) {
+                out.write(pending.array(), 0, pending.remaining());
+                writer.clearPending();
+            }
+        }
+        ByteBuffer pending = writer.pending();
+        out.write(pending.array(), 0, pending.remaining());
+        writer.clearPending();
+        return entries;
+    }
+
+    /**
+     * 把二进制历史记录转换为文本格式。
+     *
+     * @return 转换的记录数
+     */
+    public static long binaryToText(ByteBuffer in, Writer out) throws IOException {
+        return binaryToText(new BinaryHistoryReader(in), out);
+    }
+
+    /**
+     * 把读取器中剩余的二进制记录转换为文本格式。
+     *
+     * @return 转换的记录数
+     */
+    public static long binaryToText(BinaryHistoryReader reader, Writer out) throws IOException {
+        long entries = 0;
+        while (reader.next()) {
+            out.write(HistorySegments.formatLine(reader.timestamp(), reader.toSentence()));
+            entries++;
+        }
+        return entries;
+    }
+
+    public static long textToBinary(Path text, Path binary) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(open(text), StandardCharsets.UTF_8), 64 * 1024);
+             OutputStream out = create(binary)) {
+            return textToBinary(in, out);
+        }
+    }
+
+    public static long binaryToText(Path binary, Path text) throws IOException {
+        try (BinaryHistoryReader reader = openBinary(binary);
+             Writer out = new OutputStreamWriter(create(text), StandardCharsets.UTF_8)) {
+            return binaryToText(reader, out);
+        }
+    }
+
+    /**
+     * 打开一个二进制历史文件的读取器。以 {@code .gz} 结尾的文件边解压边读取，其余文件以只读方式内存映射，
+     * 都不会把整个文件读入堆内存。
+     *
+     * @throws IllegalArgumentException 如果文件头部无效
+     */
+    public static BinaryHistoryReader openBinary(Path file) throws IOException {
+        if (isGzip(file)) {
+            InputStream in = open(file);
+            try {
+                return new BinaryHistoryReader(Channels.newChannel(in));
+            } catch (RuntimeException e) {
+                in.close();
+                throw e;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 映射在通道关闭后仍然有效；活动分段之后追加的内容不在映射范围内
+            return new BinaryHistoryReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return isGzip(file) ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    private static OutputStream create(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        return isGzip(file) ? new GZIPOutputStream(out, 64 * 1024) : new BufferedOutputStream(out, 64 * 1024);
+    }
+
+    private static boolean isGzip(Path file) {
+        return file.getFileName().toString().endsWith(".gz");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("to-binary") || args[0].equals("to-text"))) {
+            System.err.println("用法: HistoryFormatConverter to-binary|to-text <输入> <输出>");
+            System.exit(2);
+        }
+        long started = System.currentTimeMillis();
+        Path in = Path.of(args[1]);
+        Path out = Path.of(args[2]);
+        long entries = args[0].equals("to-binary") ? textToBinary(in, out) : binaryToText(in, out);
+        System.out.printf("已转换 %d 条记录: %s (%d 字节) -> %s (%d 字节), 耗时 %d ms%n",
+                entries, in, Files.size(in), out, Files.size(out), System.currentTimeMillis() - started);
+    }
+}
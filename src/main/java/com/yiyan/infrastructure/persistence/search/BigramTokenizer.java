@@ -0,0 +1,83 @@
+package com.yiyan.infrastructure.persistence.search;
+
+import java.util.Arrays;
+
+/**
+ * 面向中日韩文本的字符二元组分词。
+ * <p>
+ * 输入为规范化后的文本（已去掉空白和标点）。每个相邻字符对产生一个二元组词项，
+ * 每个字符另产生一个一元词项，用于单字查询。词项编码为 {@code long}：高32位为第一个码点，
+ * 低32位为第二个码点，一元词项的低32位为0。
+ */
+final class BigramTokenizer {
+
+    private BigramTokenizer() {
+    }
+
+    /**
+     * 计算文档的词项集合（一元和二元），结果已排序且去重。
+     */
+    static long[] documentTokens(String... normalizedFields) {
+        int total = 0;
+        for (String field : normalizedFields) {
+            total += field.length() * 2;
+        }
+        long[] tokens = new long[total];
+        int n = 0;
+        for (String field : normalizedFields) {
+            int previous = 0;
+            for (int i = 0; i < field.length(); ) {
+                int cp = field.codePointAt(i);
+                i += Character.charCount(cp);
+                tokens[n++] = unigram(cp);
+                if (previous != 0) {
+                    tokens[n++] = bigram(previous, cp);
+                }
+                previous = cp;
+            }
+        }
+        return distinct(tokens, n);
+    }
+
+    /**
+     * 计算查询的词项：单字查询使用一元词项，否则只使用选择性更高的二元词项。
+     */
+    static long[] queryTokens(String normalizedQuery) {
+        int codePoints = normalizedQuery.codePointCount(0, normalizedQuery.length());
+        if (codePoints == 0) {
+            return new long[0];
+        }
+        if (codePoints == 1) {
+            return new long[]{unigram(normalizedQuery.codePointAt(0))};
+        }
+        long[] tokens = new long[codePoints - 1];
+        int n = 0;
+        int previous = normalizedQuery.codePointAt(0);
+        for (int i = Character.charCount(previous); i < normalizedQuery.length(); ) {
+            int cp = normalizedQuery.codePointAt(i);
+            i += Character.charCount(cp);
+            tokens[n++] = bigram(previous, cp);
+            previous = cp;
+        }
+        return distinct(tokens, n);
+    }
+
+    private static long unigram(int cp) {
+        return (long) cp << 32;
+    }
+
+    private static long bigram(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    private static long[] distinct(long[] tokens, int length) {
+        Arrays.sort(tokens, 0, length);
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (n == 0 || tokens[n - 1] != tokens[i]) {
+                tokens[n++] = tokens[i];
+            }
+        }
+        return Arrays.copyOf(tokens, n);
+    }
+}
@@ -0,0 +1,426 @@
+package com.yiyan.infrastructure.persistence.search;
+
+import com.yiyan.config.HistoryProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.persistence.FileSentenceStore;
+import com.yiyan.infrastructure.persistence.SentenceKeys;
+import com.yiyan.infrastructure.persistence.SentenceStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * "一言"历史的倒排索引，建立在 {@link FileSentenceStore} 的记录日志之上。
+ * <p>
+ * 历史存储中的每条记录就是一个文档：存储已经按规范化文本去重，文档编号即记录的保存顺序，
+ * 索引只记下每个文档在存储日志中的偏移量，不另存文本。
+ * 文本和作者经 {@link BigramTokenizer} 切分为一元和二元词项，文档编号追加到各词项的倒排表中。
+ * 倒排表按文档编号递增，保存相邻编号之差的变长整数编码，一个常见词项的倒排表通常每个文档只占一个字节。
+ * <p>
+ * 查询前先补入存储中新增的记录，再取出查询的所有二元词项，从最短的倒排表开始依次求交集，
+ * 然后从最新的候选文档开始按偏移量读取记录，核对规范化文本是否真的包含查询（二元组命中不代表连续出现），
+ * 直到凑够需要的条数。
+ * <p>
+ * 倒排表快照 {@value #INDEX_FILE} 与历史存储放在同一目录，定期和退出时写入，保存文档偏移量和倒排表。
+ * 启动时加载快照，再补入快照之后存储中新增的记录；快照缺失、无效或与存储日志不一致时从存储重建。
+ */
+@Component
+@Slf4j
+public class FileSentenceSearchIndex implements SentenceSearch {
+
+    static final String INDEX_FILE = "search.idx";
+    /**
+     * 旧版本单独保存的文档日志，现在直接使用历史存储的日志
+     */
+    private static final String LEGACY_DOCS_FILE = "search.docs";
+
+    private static final int INDEX_MAGIC = 0x59595349; // "YYSI"
+    private static final int INDEX_VERSION = 2;
+
+    /**
+     * 历史记录配置属性
+     */
+    private final HistoryProperties historyProperties;
+    /**
+     * 一言历史存储，文档的唯一来源
+     */
+    private final FileSentenceStore sentenceStore;
+
+    private Path directory;
+
+    // --- 文档 ---
+    /**
+     * 每个文档在存储日志中的偏移量，按文档编号
+     */
+    private long[] docOffsets = new long[1024];
+    private int docCount;
+    /**
+     * 已补入索引的存储日志位置
+     */
+    private long indexedEnd;
+
+    // --- 倒排表，按词项编号 ---
+    private final LongIntHashMap tokenIds = new LongIntHashMap(16 * 1024);
+    private long[] tokenKeys = new long[1024];
+    private byte[][] postings = new byte[1024][];
+    private int[] postingLengths = new int[1024];
+    private int[] lastDocs = new int[1024];
+    private int[] docFrequencies = new int[1024];
+    private int tokenCount;
+
+    /**
+     * 最近一次快照覆盖的文档数
+     */
+    private int snapshotDocCount;
+
+    public FileSentenceSearchIndex(HistoryProperties historyProperties, FileSentenceStore sentenceStore) {
+        this.historyProperties = historyProperties;
+        this.sentenceStore = sentenceStore;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        long started = System.currentTimeMillis();
+        directory = Path.of(historyProperties.getStoreDirectory());
+        Files.createDirectories(directory);
+        if (Files.deleteIfExists(directory.resolve(LEGACY_DOCS_FILE))) {
+            log.info("🔍 已删除旧版本的历史搜索文档日志，改为直接使用一言历史存储。");
+        }
+
+        int covered = loadSnapshot();
+        if (covered < 0) {
+            reset();
+            covered = 0;
+        }
+        if (!catchUp()) {
+            log.warn("⚠️ 历史搜索索引快照与一言历史存储不一致，将从存储重建。");
+            reset();
+            covered = 0;
+            catchUp();
+        }
+        snapshotDocCount = covered;
+        log.info("🔍 历史搜索索引已打开: {} 条记录, {} 个词项, 补入 {} 条, 耗时 {} ms。",
+                docCount, tokenCount, docCount - covered, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * 把存储中新增的记录补入索引。
+     *
+     * @return 索引与存储一致时返回true；已索引的位置不是存储中记录的边界（例如存储被重建过）时返回false
+     */
+    private boolean catchUp() {
+        long storeEnd = sentenceStore.logEnd();
+        if (indexedEnd == storeEnd) {
+            return true;
+        }
+        if (indexedEnd > storeEnd) {
+            return false;
+        }
+        indexedEnd = sentenceStore.forEachFrom(indexedEnd, (offset, record) -> {
+            if (docCount == docOffsets.length) {
+                docOffsets = Arrays.copyOf(docOffsets, docCount * 2);
+            }
+            docOffsets[docCount] = offset;
+            indexDocument(docCount, record.sentence());
+            docCount++;
+        });
+        return indexedEnd >= storeEnd;
+    }
+
+    /**
+     * 补入存储中新增的记录，出错时继续使用已有的索引。
+     */
+    private void catchUpQuietly() {
+        try {
+            if (!catchUp()) {
+                log.warn("⚠️ 历史搜索索引与一言历史存储不一致，重启后将从存储重建。");
+            }
+        } catch (UncheckedIOException e) {
+            log.warn("⚠️ 无法从一言历史存储补入搜索索引: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        String normalized = SentenceKeys.normalize(query == null ? "" : query);
+        long[] queryTokens = BigramTokenizer.queryTokens(normalized);
+        if (queryTokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        // 只在锁内求交集并复制候选文档的偏移量；已写入的记录不会再变化，读取存储日志不需要持有锁
+        long[] candidateOffsets;
+        synchronized (this) {
+            catchUpQuietly();
+            int[] ids = new int[queryTokens.length];
+            for (int i = 0; i < queryTokens.length; i++) {
+                ids[i] = tokenIds.get(queryTokens[i]);
+                if (ids[i] < 0) {
+                    return List.of();
+                }
+            }
+            // 从最短的倒排表开始求交集，候选集只会越来越小
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                order[i] = ids[i];
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(docFrequencies[a], docFrequencies[b]));
+            int[] candidates = decode(order[0]);
+            int candidateCount = candidates.length;
+            for (int i = 1; i < order.length && candidateCount > 0; i++) {
+                candidateCount = intersect(candidates, candidateCount, order[i]);
+            }
+
+            // 从最新的文档开始
+            candidateOffsets = new long[candidateCount];
+            for (int i = 0; i < candidateCount; i++) {
+                candidateOffsets[i] = docOffsets[candidates[candidateCount - 1 - i]];
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(Math.min(limit, candidateOffsets.length));
+        for (int i = 0; i < candidateOffsets.length && hits.size() < limit; i++) {
+            Optional<SentenceStore.StoredSentence> record = sentenceStore.read(candidateOffsets[i]);
+            if (record.isPresent() && matches(record.get().sentence(), normalized)) {
+                hits.add(new SearchHit(record.get().timestamp(), record.get().sentence()));
+            }
+        }
+        return hits;
+    }
+
+    @Override
+    public synchronized int size() {
+        catchUpQuietly();
+        return docCount;
+    }
+
+    private static boolean matches(Sentence sentence, String normalizedQuery) {
+        return SentenceKeys.normalize(sentence.getText()).contains(normalizedQuery)
+                || (sentence.getAuthor() != null && SentenceKeys.normalize(sentence.getAuthor()).contains(normalizedQuery));
+    }
+
+    // --- 倒排表 ---
+
+    private void indexDocument(int doc, Sentence sentence) {
+        String author = sentence.getAuthor() == null ? "" : SentenceKeys.normalize(sentence.getAuthor());
+        for (long token : BigramTokenizer.documentTokens(SentenceKeys.normalize(sentence.getText()), author)) {
+            int id = tokenIds.get(token);
+            if (id < 0) {
+                id = newToken(token);
+            }
+            appendPosting(id, doc);
+        }
+    }
+
+    private int newToken(long token) {
+        if (tokenCount == tokenKeys.length) {
+            int capacity = tokenCount * 2;
+            tokenKeys = Arrays.copyOf(tokenKeys, capacity);
+            postings = Arrays.copyOf(postings, capacity);
+            postingLengths = Arrays.copyOf(postingLengths, capacity);
+            lastDocs = Arrays.copyOf(lastDocs, capacity);
+            docFrequencies = Arrays.copyOf(docFrequencies, capacity);
+        }
+        int id = tokenCount++;
+        tokenKeys[id] = token;
+        postings[id] = new byte[4];
+        postingLengths[id] = 0;
+        lastDocs[id] = -1;
+        docFrequencies[id] = 0;
+        tokenIds.put(token, id);
+        return id;
+    }
+
+    /**
+     * 以变长整数追加与上一个文档编号的差值（每字节7位，最高位表示后面还有字节）。
+     */
+    private void appendPosting(int id, int doc) {
+        int delta = doc - lastDocs[id];
+        byte[] bytes = postings[id];
+        int length = postingLengths[id];
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + 5, bytes.length + (bytes.length >> 1)));
+            postings[id] = bytes;
+        }
+        while ((delta & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        bytes[length++] = (byte) delta;
+        postingLengths[id] = length;
+        lastDocs[id] = doc;
+        docFrequencies[id]++;
+    }
+
+    private int[] decode(int id) {
+        int[] docs = new int[docFrequencies[id]];
+        byte[] bytes = postings[id];
+        int length = postingLengths[id];
+        int doc = -1;
+        int n = 0;
+        for (int pos = 0; pos < length; ) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            docs[n++] = doc;
+        }
+        return docs;
+    }
+
+    /**
+     * 与一个倒排表求交集，边解码边比较，结果写回候选数组的前部。
+     *
+     * @return 交集的大小
+     */
+    private int intersect(int[] candidates, int count, int id) {
+        byte[] bytes = postings[id];
+        int length = postingLengths[id];
+        int doc = -1;
+        int pos = 0;
+        int kept = 0;
+        int i = 0;
+        while (i < count) {
+            if (doc < candidates[i]) {
+                if (pos >= length) {
+                    break;
+                }
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[pos++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+                continue;
+            }
+            if (doc == candidates[i]) {
+                candidates[kept++] = doc;
+            }
+            i++;
+        }
+        return kept;
+    }
+
+    private void reset() {
+        tokenIds.clear();
+        tokenCount = 0;
+        docCount = 0;
+        indexedEnd = 0;
+    }
+
+    // --- 快照 ---
+
+    /**
+     * 加载倒排表快照。
+     *
+     * @return 快照覆盖的文档数；快照缺失或无效时返回 -1
+     */
+    private int loadSnapshot() {
+        Path file = directory.resolve(INDEX_FILE);
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                log.warn("⚠️ 历史搜索索引快照无效，将从一言历史存储重建。");
+                return -1;
+            }
+            int covered = in.readInt();
+            long coveredEnd = in.readLong();
+            if (covered < 0 || coveredEnd < 0 || coveredEnd > sentenceStore.logEnd()) {
+                log.warn("⚠️ 历史搜索索引快照超出一言历史存储，将从存储重建。");
+                return -1;
+            }
+            docOffsets = new long[Math.max(1024, covered)];
+            for (int doc = 0; doc < covered; doc++) {
+                docOffsets[doc] = in.readLong();
+            }
+            docCount = covered;
+            indexedEnd = coveredEnd;
+            int tokens = in.readInt();
+            for (int i = 0; i < tokens; i++) {
+                int id = newToken(in.readLong());
+                docFrequencies[id] = in.readInt();
+                lastDocs[id] = in.readInt();
+                int length = in.readInt();
+                byte[] bytes = new byte[length + 4];
+                in.readFully(bytes, 0, length);
+                postings[id] = bytes;
+                postingLengths[id] = length;
+            }
+            return covered;
+        } catch (IOException e) {
+            log.warn("⚠️ 无法读取历史搜索索引快照，将从一言历史存储重建: {}", e.getMessage());
+            reset();
+            return -1;
+        }
+    }
+
+    /**
+     * 补入存储中新增的记录，有新收录的文档时把快照写入临时文件再原子替换。
+     */
+    @Scheduled(initialDelayString = "${history.search-snapshot-interval:PT10M}",
+            fixedDelayString = "${history.search-snapshot-interval:PT10M}")
+    public synchronized void saveSnapshot() {
+        if (directory == null) {
+            return;
+        }
+        catchUpQuietly();
+        if (snapshotDocCount == docCount) {
+            return;
+        }
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeInt(docCount);
+                out.writeLong(indexedEnd);
+                for (int doc = 0; doc < docCount; doc++) {
+                    out.writeLong(docOffsets[doc]);
+                }
+                out.writeInt(tokenCount);
+                for (int id = 0; id < tokenCount; id++) {
+                    out.writeLong(tokenKeys[id]);
+                    out.writeInt(docFrequencies[id]);
+                    out.writeInt(lastDocs[id]);
+                    out.writeInt(postingLengths[id]);
+                    out.write(postings[id], 0, postingLengths[id]);
+                }
+            }
+            Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotDocCount = docCount;
+            log.debug("🔍 历史搜索索引快照已写入: {} 条记录, {} 个词项。", docCount, tokenCount);
+        } catch (IOException e) {
+            log.warn("⚠️ 无法写入历史搜索索引快照: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        saveSnapshot();
+    }
+}
@@ -0,0 +1,87 @@
+package com.yiyan.infrastructure.persistence.search;
+
+import java.util.Arrays;
+
+/**
+ * {@code long} 到 {@code int} 的开放寻址哈希表，键不能为0，不支持删除。
+ * <p>
+ * 词项表有几十万个键，用基本类型数组保存可以避免装箱对象和链表节点的开销。
+ */
+final class LongIntHashMap {
+
+    private static final double MAX_LOAD_FACTOR = 0.6;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * 查找键对应的值。
+     *
+     * @return 值；键不存在时返回 -1
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * 插入一个新键。调用方需确认键不存在。
+     */
+    void put(long key, int value) {
+        if (size + 1 > keys.length * MAX_LOAD_FACTOR) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new int[oldKeys.length << 1];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0L);
+        size = 0;
+    }
+
+    /**
+     * 词项键的低位只有第二个码点，分布不均，先打散再取槽位。
+     */
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
@@ -0,0 +1,38 @@
+package com.yiyan.infrastructure.persistence.search;
+
+import com.yiyan.domain.Sentence;
+
+import java.util.List;
+
+/**
+ * "一言"历史全文搜索接口。
+ * <p>
+ * 按关键词或作者搜索所有展示过的"一言"。匹配规则与去重一致：查询和文本都先经过
+ * {@link com.yiyan.infrastructure.persistence.SentenceKeys#normalize(String)} 规范化，
+ * 规范化后的文本或作者包含规范化后的查询即为命中。
+ */
+public interface SentenceSearch {
+
+    /**
+     * 搜索历史记录。
+     *
+     * @param query 关键词或作者
+     * @param limit 最多返回的条数
+     * @return 命中的记录，最近收录的在前
+     */
+    List<SearchHit> search(String query, int limit);
+
+    /**
+     * 已收录的"一言"数量。
+     */
+    int size();
+
+    /**
+     * 一条搜索结果。
+     *
+     * @param timestamp 首次获取时间（毫秒），未知时为0
+     * @param sentence  "一言"
+     */
+    record SearchHit(long timestamp, Sentence sentence) {
+    }
+}
@@ -1,24 +1,30 @@
 package com.yiyan.infrastructure.scheduling;
 
+import com.yiyan.event.ApiConfigLoadedEvent;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import com.yiyan.infrastructure.scheduling.interval.IntervalPolicy;
+import com.yiyan.service.FetchOutcome;
 import com.yiyan.service.SentenceService;
-import com.yiyan.infrastructure.adapter.api.config.ApiConfigLoader;
-import com.yiyan.config.SchedulerProperties;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * 动态任务调度器，负责以随机间隔执行"一言"获取任务。
+ * 动态任务调度器，负责按 {@link IntervalPolicy} 给出的间隔执行"一言"获取任务。
+ * <p>
+ * 调度器在收到 {@link ApiConfigLoadedEvent} 后启动，此后每个周期结束时根据其成败向间隔策略询问下一次的延迟。
+ * 网络获取失败后回退到本地语料的周期虽然展示了"一言"，对间隔策略仍按失败计算，网络故障期间照常退避。
  */
 @Service
-@DependsOn("apiConfigLoader")
 @RequiredArgsConstructor
 @Slf4j
 public class DynamicScheduler {
@@ -32,74 +38,79 @@ public class DynamicScheduler {
      */
     private final SentenceService sentenceService;
     /**
-     * 调度器配置属性，包含最小/最大延迟等
+     * 执行间隔策略，根据上一周期的结果决定下一次执行的延迟
      */
-    private final SchedulerProperties schedulerProperties;
+    private final IntervalPolicy intervalPolicy;
     /**
-     * API配置加载器，调度器需要等待其加载完成后再开始
+     * 获取流程的指标，发布间隔策略的状态
      */
-    private final ApiConfigLoader apiConfigLoader;
+    private final FetchMetrics fetchMetrics;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        fetchMetrics.bindIntervalPolicy(intervalPolicy);
+    }
 
     /**
-     * Spring Bean 初始化后，立即执行第一次任务。
+     * API列表加载完成后，立即执行第一次任务并开始调度。重复的加载事件不会再次启动调度。
      */
-    @PostConstruct
-    public void start() {
-        // 使用一个新的线程来等待并启动调度器，避免阻塞Spring主启动线程
-        new Thread(() -> {
-            // 等待API列表加载完成
-            while (!apiConfigLoader.isReady()) {
-                try {
-                    log.debug("等待API配置加载...");
-                    Thread.sleep(100); // 短暂休眠，避免CPU空转
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.error("调度器启动等待线程被中断。", e);
-                    return;
-                }
-            }
-            log.info("API配置已加载，调度器启动。");
-            // 立即执行一次，然后开始调度
-            taskScheduler.schedule(this::runAndReschedule, Instant.now());
-        }).start();
+    @EventListener
+    public void onApiConfigLoaded(ApiConfigLoadedEvent event) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        log.info("API配置已加载 ({} 个端点)，调度器启动 (间隔策略: {})。", event.getEndpointCount(), intervalPolicy.state().policy());
+        // 立即执行一次，然后开始调度
+        taskScheduler.schedule(this::runAndReschedule, Instant.now());
+    }
+
+    /**
+     * 获取间隔策略的当前状态。
+     */
+    public IntervalPolicy.State intervalState() {
+        return intervalPolicy.state();
     }
 
     /**
      * 执行任务，并在完成后重新调度下一次执行。
+     * 获取过程是异步的，调度线程发起请求后立即返回，不会等待网络。
      */
     private void runAndReschedule() {
+        CompletableFuture<FetchOutcome> task;
         try {
             // 执行核心业务逻辑，定时任务需要执行校验
-            sentenceService.fetchNewSentence(false);
+            task = sentenceService.fetchNewSentenceAsync(false);
         } catch (Exception e) {
-            // 捕获所有异常，记录错误，但确保不中断调度循环
-            log.error("❌ 任务周期执行失败: {}", e.getMessage());
-        } finally {
-            // 无论成功还是失败，都安排下一次执行
-            scheduleNext();
+            task = CompletableFuture.failedFuture(e);
         }
+        task.whenComplete((outcome, e) -> {
+            if (e != null) {
+                // 记录错误，但确保不中断调度循环
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                log.error("❌ 任务周期执行失败: {}", cause.getMessage());
+            } else if (!outcome.isRemoteAvailable()) {
+                log.warn("📚 本周期使用了本地语料，网络获取按失败计算。");
+            }
+            // 无论成功还是失败，都安排下一次执行
+            scheduleNext(e == null && outcome.isRemoteAvailable());
+        });
     }
 
     /**
-     * 计算下一次执行的随机延迟并安排任务。
+     * 由间隔策略计算下一次执行的延迟并安排任务。
+     *
+     * @param success 刚结束的周期是否从网络API或预取缓冲区获取成功
      */
-    private void scheduleNext() {
-        Duration minDelay = Duration.ofSeconds(schedulerProperties.getMinDelaySeconds());
-        Duration maxDelay = Duration.ofSeconds(schedulerProperties.getMaxDelaySeconds());
-
-        // 确保minDelay不大于maxDelay，避免负数异常
-        if (minDelay.compareTo(maxDelay) > 0) {
-            log.warn("配置错误：最小延迟时间大于最大延迟时间。将使用最小延迟作为固定延迟。");
-            maxDelay = minDelay;
+    private void scheduleNext(boolean success) {
+        Duration delay = intervalPolicy.nextDelay(success);
+        IntervalPolicy.State state = intervalPolicy.state();
+        if (state.isBackingOff()) {
+            log.info("🕒 任务周期结束，已连续失败 {} 次，退避 {} 秒后再执行。", state.consecutiveFailures(), delay.getSeconds());
+        } else {
+            log.info("🕒 任务周期结束，下一次执行将在 {} 秒后。", delay.getSeconds());
         }
-
-        long delayMillis = ThreadLocalRandom.current().nextLong(
-                minDelay.toMillis(), maxDelay.toMillis() + 1 // +1 使其包含上限
-        );
-        Instant nextExecutionTime = Instant.now().plusMillis(delayMillis);
-
-        log.info("🕒 任务周期结束，下一次执行将在 {} 秒后。", Duration.ofMillis(delayMillis).getSeconds());
-
-        taskScheduler.schedule(this::runAndReschedule, nextExecutionTime);
+        taskScheduler.schedule(this::runAndReschedule, Instant.now().plus(delay));
     }
-} 
\ No newline at end of file
+}
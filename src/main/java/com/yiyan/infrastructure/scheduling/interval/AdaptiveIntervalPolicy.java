@@ -0,0 +1,63 @@
+package com.yiyan.infrastructure.scheduling.interval;
+
+import com.yiyan.config.SchedulerProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按结果自适应的间隔策略。
+ * <p>
+ * 周期成功时与 {@link RandomIntervalPolicy} 相同，在 [最小延迟, 最大延迟] 之间随机选取。
+ * 连续失败时使用去相关抖动（decorrelated jitter）退避：下一次延迟从 [最大随机延迟, 上次延迟 × 倍数] 中随机选取，
+ * 并以 {@code scheduler.interval.max-backoff} 为上限。延迟的上界按倍数增长，单次延迟则在区间内随机、偶尔回落，
+ * 因此重试时刻彼此不相关，不会与网络恢复的时刻或其他实例同步。一旦有周期成功，立即回到正常的随机间隔。
+ */
+@Component
+@ConditionalOnProperty(prefix = "scheduler.interval", name = "policy", havingValue = "adaptive", matchIfMissing = true)
+@RequiredArgsConstructor
+public class AdaptiveIntervalPolicy implements IntervalPolicy {
+
+    /**
+     * 调度器配置属性，包含随机延迟范围和退避参数
+     */
+    private final SchedulerProperties schedulerProperties;
+
+    private int consecutiveFailures = 0;
+    private Duration lastDelay = Duration.ZERO;
+    private volatile State state = new State("adaptive", 0, Duration.ZERO);
+
+    @Override
+    public synchronized Duration nextDelay(boolean success) {
+        if (success) {
+            consecutiveFailures = 0;
+            lastDelay = RandomIntervalPolicy.uniformDelay(schedulerProperties);
+        } else {
+            consecutiveFailures++;
+            lastDelay = backoff(lastDelay);
+        }
+        state = new State("adaptive", consecutiveFailures, lastDelay);
+        return lastDelay;
+    }
+
+    @Override
+    public State state() {
+        return state;
+    }
+
+    /**
+     * 去相关抖动：{@code min(cap, random(base, previous × multiplier))}。
+     * 下限取最大随机延迟，退避期间的执行频率不会高于正常情况。
+     */
+    private Duration backoff(Duration previous) {
+        SchedulerProperties.IntervalConfig config = schedulerProperties.getInterval();
+        long baseMillis = RandomIntervalPolicy.maxDelay(schedulerProperties).toMillis();
+        long capMillis = Math.max(baseMillis, config.getMaxBackoff().toMillis());
+        double multiplier = Math.max(1.0, config.getBackoffMultiplier());
+        long upperMillis = (long) Math.min(capMillis, Math.max(baseMillis, previous.toMillis()) * multiplier);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(baseMillis, Math.max(baseMillis, upperMillis) + 1));
+    }
+}
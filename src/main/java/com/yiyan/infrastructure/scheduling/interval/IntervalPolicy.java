@@ -0,0 +1,42 @@
+package com.yiyan.infrastructure.scheduling.interval;
+
+import java.time.Duration;
+
+/**
+ * 执行间隔策略。
+ * <p>
+ * 调度器每个任务周期结束后调用 {@link #nextDelay(boolean)}，根据本周期是否成功决定下一次执行前的等待时间。
+ * 调度器保证同一时间只有一个周期在执行，但 {@link #state()} 可能从其他线程读取。
+ */
+public interface IntervalPolicy {
+
+    /**
+     * 计算下一次执行前的延迟。
+     *
+     * @param success 刚结束的任务周期是否成功
+     * @return 下一次执行前的延迟
+     */
+    Duration nextDelay(boolean success);
+
+    /**
+     * 获取策略的当前状态。
+     */
+    State state();
+
+    /**
+     * 间隔策略的状态。
+     *
+     * @param policy              策略名称
+     * @param consecutiveFailures 连续失败的周期数，成功后清零
+     * @param lastDelay           最近一次给出的延迟，尚未给出时为 {@link Duration#ZERO}
+     */
+    record State(String policy, int consecutiveFailures, Duration lastDelay) {
+
+        /**
+         * 是否正在因连续失败而退避。
+         */
+        public boolean isBackingOff() {
+            return consecutiveFailures > 0;
+        }
+    }
+}
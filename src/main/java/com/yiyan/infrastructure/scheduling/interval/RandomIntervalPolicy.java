@@ -0,0 +1,62 @@
+package com.yiyan.infrastructure.scheduling.interval;
+
+import com.yiyan.config.SchedulerProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 均匀随机的间隔策略：无论成功与否，都在 [最小延迟, 最大延迟] 之间随机选取。
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "scheduler.interval", name = "policy", havingValue = "random")
+@RequiredArgsConstructor
+public class RandomIntervalPolicy implements IntervalPolicy {
+
+    /**
+     * 调度器配置属性，包含最小/最大延迟
+     */
+    private final SchedulerProperties schedulerProperties;
+
+    private int consecutiveFailures = 0;
+    private volatile State state = new State("random", 0, Duration.ZERO);
+
+    @Override
+    public synchronized Duration nextDelay(boolean success) {
+        consecutiveFailures = success ? 0 : consecutiveFailures + 1;
+        Duration delay = uniformDelay(schedulerProperties);
+        state = new State("random", consecutiveFailures, delay);
+        return delay;
+    }
+
+    @Override
+    public State state() {
+        return state;
+    }
+
+    /**
+     * 在配置的 [最小延迟, 最大延迟] 之间均匀随机选取一个延迟（包含上限）。
+     */
+    static Duration uniformDelay(SchedulerProperties properties) {
+        long minMillis = Duration.ofSeconds(properties.getMinDelaySeconds()).toMillis();
+        long maxMillis = maxDelay(properties).toMillis();
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1)); // +1 使其包含上限
+    }
+
+    /**
+     * 获取随机延迟的上限。最小延迟大于最大延迟时，使用最小延迟作为固定延迟。
+     */
+    static Duration maxDelay(SchedulerProperties properties) {
+        // 确保minDelay不大于maxDelay，避免负数异常
+        if (properties.getMinDelaySeconds() > properties.getMaxDelaySeconds()) {
+            log.warn("配置错误：最小延迟时间大于最大延迟时间。将使用最小延迟作为固定延迟。");
+            return Duration.ofSeconds(properties.getMinDelaySeconds());
+        }
+        return Duration.ofSeconds(properties.getMaxDelaySeconds());
+    }
+}
@@ -29,6 +29,11 @@ public class PopupMenuFactory {
         refreshItem.addActionListener(e -> callback.onRefreshRequested());
         popupMenu.add(refreshItem);
 
+        // 搜索历史
+        JMenuItem searchItem = new JMenuItem("搜索历史");
+        searchItem.addActionListener(e -> callback.onSearchHistoryRequested());
+        popupMenu.add(searchItem);
+
         // 复制
         // JMenuItem copyItem = new JMenuItem("复制");
         // copyItem.addActionListener(e -> {
@@ -1,8 +1,12 @@
 package com.yiyan.infrastructure.ui.presenter;
 
+import com.yiyan.config.HistoryProperties;
 import com.yiyan.event.SentenceFetchedEvent;
+import com.yiyan.event.SentenceRestoredEvent;
 import com.yiyan.service.SentenceService;
 import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import com.yiyan.infrastructure.persistence.search.SentenceSearch;
 import com.yiyan.infrastructure.ui.dto.HorizontalAlignment;
 import com.yiyan.infrastructure.ui.service.AnimationService;
 import com.yiyan.infrastructure.ui.service.DesktopManager;
@@ -15,6 +19,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import javax.swing.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
  * UI的展示器（Presenter），负责连接模型（应用服务）和视图（SentenceView）。
@@ -27,6 +36,9 @@ import javax.swing.*;
 @Slf4j
 public class UiController implements ViewCallback {
 
+    private static final DateTimeFormatter SEARCH_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+
     /**
      * 手动请求服务，用于触发异步获取新的"一言"
      */
@@ -44,6 +56,22 @@ public class UiController implements ViewCallback {
      * 动画服务，提供UI元素的动画效果
      */
     private final AnimationService animationService;
+    /**
+     * 历史搜索索引
+     */
+    private final SentenceSearch sentenceSearch;
+    /**
+     * 历史记录配置属性，用于获取搜索结果条数上限
+     */
+    private final HistoryProperties historyProperties;
+    /**
+     * 统一的I/O执行器，搜索在其中进行，避免阻塞EDT
+     */
+    private final ExecutorService ioExecutor;
+    /**
+     * 获取流程的指标，记录从开始获取到显示的耗时
+     */
+    private final FetchMetrics fetchMetrics;
 
     // --- UI状态 ---
     private boolean isAuthorVisible = false;
@@ -68,13 +96,23 @@ public class UiController implements ViewCallback {
     @EventListener
     public void onSentenceFetched(SentenceFetchedEvent event) {
         // 使用 SwingUtilities.invokeLater() 方法，确保更新UI操作在EDT线程中执行
-        SwingUtilities.invokeLater(() -> updateViewWithAnimation(event.getSentence()));
+        SwingUtilities.invokeLater(() -> updateViewWithAnimation(event.getSentence(), event.getFetchStartedNanos()));
+    }
+
+    /**
+     * 监听热启动快照的恢复事件，在网络请求完成之前先显示上次的"一言"。
+     */
+    @EventListener
+    public void onSentenceRestored(SentenceRestoredEvent event) {
+        SwingUtilities.invokeLater(() -> updateViewWithAnimation(event.getSentence(), 0));
     }
 
     /**
      * 使用动画更新视图。
+     *
+     * @param fetchStartedNanos 开始获取时的 {@link System#nanoTime()}；为0时（如恢复的"一言"）不统计显示耗时
      */
-    private void updateViewWithAnimation(Sentence sentence) {
+    private void updateViewWithAnimation(Sentence sentence, long fetchStartedNanos) {
         log.info("准备更新视图，当前\"临时置顶\"状态为：{}", this.isTemporaryTopEnabled);
         // 创建一个Runnable对象，用于更新UI
         Runnable updateAction = () -> {
@@ -89,6 +127,9 @@ public class UiController implements ViewCallback {
                     isAuthorVisible
             );
             view.alignOnScreen(this.alignment);
+            if (fetchStartedNanos != 0) {
+                fetchMetrics.recordDisplayed(fetchStartedNanos);
+            }
 
             if (isTemporaryTopEnabled) {
                 log.info("-> \"临时置顶\"已启用，执行置顶5秒后沉底的操作。");
@@ -105,6 +146,25 @@ public class UiController implements ViewCallback {
         sentenceService.requestNewSentenceAsync();
     }
 
+    @Override
+    public void onSearchHistoryRequested() {
+        view.promptSearchQuery().ifPresent(query -> CompletableFuture
+                .supplyAsync(() -> sentenceSearch.search(query, historyProperties.getSearchMaxResults()), ioExecutor)
+                .thenApply(hits -> hits.stream().map(UiController::formatSearchHit).toList())
+                .whenComplete((lines, e) -> {
+                    if (e != null) {
+                        log.error("搜索历史失败: {}", e.getMessage());
+                        return;
+                    }
+                    SwingUtilities.invokeLater(() -> view.showSearchResults(query, lines));
+                }));
+    }
+
+    private static String formatSearchHit(SentenceSearch.SearchHit hit) {
+        String time = hit.timestamp() > 0 ? SEARCH_TIME_FORMAT.format(Instant.ofEpochMilli(hit.timestamp())) : "----";
+        return "[" + time + "] " + hit.sentence();
+    }
+
     @Override
     public void onAuthorVisibilityChanged(boolean isVisible) {
         this.isAuthorVisible = isVisible;
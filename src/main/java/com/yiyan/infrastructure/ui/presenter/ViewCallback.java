@@ -13,6 +13,11 @@ public interface ViewCallback {
      */
     void onRefreshRequested();
 
+    /**
+     * 当用户请求搜索历史记录时调用。
+     */
+    void onSearchHistoryRequested();
+
     /**
      * 当用户改变"显示作者"状态时调用。
      * @param isVisible 最新的可见状态。
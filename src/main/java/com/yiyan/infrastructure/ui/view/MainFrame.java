@@ -13,7 +13,9 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * 应用程序的主窗口（JFrame），实现了 SentenceView 接口。
@@ -227,6 +229,30 @@ public class MainFrame extends JFrame implements SentenceView {
         pack();
     }
 
+    @Override
+    public Optional<String> promptSearchQuery() {
+        String query = JOptionPane.showInputDialog(this, "输入关键词或作者：", "搜索历史", JOptionPane.QUESTION_MESSAGE);
+        return StringUtils.hasText(query) ? Optional.of(query.strip()) : Optional.empty();
+    }
+
+    @Override
+    public void showSearchResults(String query, List<String> results) {
+        if (results.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "没有找到包含 \"" + query + "\" 的一言。", "搜索历史", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JTextArea textArea = new JTextArea(String.join("\n", results));
+        textArea.setEditable(false);
+        textArea.setLineWrap(true);
+        textArea.setWrapStyleWord(true);
+        textArea.setFont(fallbackFont.deriveFont(Font.PLAIN, 14f));
+        textArea.setCaretPosition(0);
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(560, 360));
+        JOptionPane.showMessageDialog(this, scrollPane,
+                "搜索历史: " + query + " (" + results.size() + " 条)", JOptionPane.PLAIN_MESSAGE);
+    }
+
     @Override
     public void runDisplayAnimation(Runnable updateAction) {
         animationService.runFadeSequence(this, updateAction);
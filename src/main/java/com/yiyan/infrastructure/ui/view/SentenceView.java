@@ -3,6 +3,9 @@ package com.yiyan.infrastructure.ui.view;
 import com.yiyan.infrastructure.ui.dto.HorizontalAlignment;
 import com.yiyan.infrastructure.ui.presenter.ViewCallback;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * 定义了UI视图（View）必须实现的契约。
  * Presenter (UiController) 通过此接口来命令View更新其状态和显示。
@@ -22,6 +25,19 @@ public interface SentenceView {
      */
     void setAuthorText(String author, boolean visible);
 
+    /**
+     * 弹出对话框，让用户输入搜索历史记录的关键词。
+     * @return 用户输入的关键词；用户取消或输入为空时返回空的Optional。
+     */
+    Optional<String> promptSearchQuery();
+
+    /**
+     * 显示历史搜索的结果。
+     * @param query   搜索的关键词。
+     * @param results 每条结果一行的文本，最近的在前。
+     */
+    void showSearchResults(String query, List<String> results);
+
     /**
      * 将View附加到一个回调接口上。
      * View通过此回调与Presenter通信。
@@ -0,0 +1,30 @@
+package com.yiyan.service;
+
+/**
+ * 一次成功获取的"一言"从何而来。
+ * <p>
+ * 调度器据此判断网络API是否可用：回退到本地语料虽然展示了"一言"，但网络获取是失败的，
+ * 间隔策略应当按失败退避，而不是按成功回到正常间隔。
+ */
+public enum FetchOutcome {
+
+    /**
+     * 本周期从网络API获取
+     */
+    REMOTE,
+    /**
+     * 从预取缓冲区取出，本周期没有访问网络
+     */
+    PREFETCHED,
+    /**
+     * 网络获取失败，回退到本地语料
+     */
+    LOCAL_FALLBACK;
+
+    /**
+     * 网络API在本周期是否被认为可用，预取的"一言"按可用计算。
+     */
+    public boolean isRemoteAvailable() {
+        return this != LOCAL_FALLBACK;
+    }
+}
@@ -0,0 +1,165 @@
+package com.yiyan.service;
+
+import com.yiyan.config.DedupProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.persistence.SentenceKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 近期重复"一言"过滤器。
+ * <p>
+ * 记住最近展示过的 N 条"一言"的指纹（规范化文本的64位哈希，见 {@link SentenceKeys}），
+ * 用于拒绝短时间内再次出现的同一句话。
+ * <p>
+ * 指纹按到达顺序保存在固定大小的 {@code long} 环形数组中，同时放入线性探测的开放寻址哈希集合；
+ * 窗口已满时，最旧的指纹从环中被覆盖，并用后移删除从集合中移除。查询和插入都是常数时间，且不产生装箱对象。
+ */
+@Component
+@Slf4j
+public class RecentSentenceFilter {
+
+    /**
+     * 哈希集合中表示空槽的值。真实指纹为0时映射为1
+     */
+    private static final long EMPTY = 0L;
+
+    /**
+     * 重复过滤配置属性
+     */
+    private final DedupProperties dedupProperties;
+
+    private final long[] ring;
+    private final long[] table;
+    private final int mask;
+    private int head;
+    private int size;
+
+    // --- 统计 ---
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public RecentSentenceFilter(DedupProperties dedupProperties) {
+        this.dedupProperties = dedupProperties;
+        int windowSize = Math.max(1, dedupProperties.getWindowSize());
+        this.ring = new long[windowSize];
+        // 装载因子不超过50%，保证探测序列较短
+        int capacity = Integer.highestOneBit(windowSize * 2 - 1) << 1;
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 检查一条"一言"是否在最近的窗口中出现过；没有出现过则把它加入窗口。
+     *
+     * @param sentence 待检查的"一言"
+     * @return 如果是近期重复，返回 true；过滤未启用时始终返回 false
+     */
+    public boolean isRecentDuplicate(Sentence sentence) {
+        if (!dedupProperties.isEnabled()) {
+            return false;
+        }
+        long fingerprint = fingerprint(sentence.getText());
+        checks.increment();
+        synchronized (this) {
+            if (indexOf(fingerprint) >= 0) {
+                duplicates.increment();
+                return true;
+            }
+            if (size == ring.length) {
+                remove(ring[head]);
+            } else {
+                size++;
+            }
+            ring[head] = fingerprint;
+            head = (head + 1) % ring.length;
+            insert(fingerprint);
+            return false;
+        }
+    }
+
+    private static long fingerprint(String text) {
+        long hash = SentenceKeys.hash(text);
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private int indexOf(long fingerprint) {
+        for (int i = (int) fingerprint & mask; ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == fingerprint) {
+                return i;
+            }
+            if (slot == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private void insert(long fingerprint) {
+        int i = (int) fingerprint & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = fingerprint;
+    }
+
+    /**
+     * 删除一个指纹，并把同一探测序列中后面的元素前移，保持线性探测的不变式。
+     */
+    private void remove(long fingerprint) {
+        int hole = indexOf(fingerprint);
+        if (hole < 0) {
+            return;
+        }
+        table[hole] = EMPTY;
+        for (int i = (hole + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            int home = (int) table[i] & mask;
+            // 如果 home 不在 (hole, i] 区间内，该元素可以前移到空洞
+            boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (movable) {
+                table[hole] = table[i];
+                table[i] = EMPTY;
+                hole = i;
+            }
+        }
+    }
+
+    /**
+     * 获取过滤器当前的统计信息。
+     */
+    public Stats stats() {
+        long checked = checks.sum();
+        long rejected = duplicates.sum();
+        int current;
+        synchronized (this) {
+            current = size;
+        }
+        return new Stats(ring.length, current, checked, rejected, checked == 0 ? 0 : (double) rejected / checked);
+    }
+
+    /**
+     * 定期输出过滤统计信息。
+     */
+    @Scheduled(initialDelayString = "${dedup.report-interval:PT10M}", fixedDelayString = "${dedup.report-interval:PT10M}")
+    public void logStats() {
+        Stats stats = stats();
+        log.info("🔁 近期重复过滤 窗口:{}/{} 检查:{} 重复:{} 命中率:{}%",
+                stats.size(), stats.windowSize(), stats.checks(), stats.duplicates(),
+                String.format("%.1f", stats.hitRate() * 100));
+    }
+
+    /**
+     * 近期重复过滤统计信息。
+     *
+     * @param windowSize 窗口大小
+     * @param size       窗口中当前的指纹数
+     * @param checks     检查的总次数
+     * @param duplicates 判定为近期重复的次数
+     * @param hitRate    重复命中率
+     */
+    public record Stats(int windowSize, int size, long checks, long duplicates, double hitRate) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.yiyan.service;
+
+import com.yiyan.config.PrefetchProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.SentenceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * "一言"预取缓冲区。
+ * <p>
+ * 在内存中保存一小批已经通过校验的"一言"，调度器和手动刷新直接从中取出，无需等待网络请求。
+ * 当缓冲区低于低水位线时，通过数据仓库的异步接口逐个补充，补充过程不占用线程等待网络；
+ * 缓冲区为空时由调用方回退到实时获取。
+ */
+@Component
+@Slf4j
+public class SentencePrefetchBuffer {
+
+    /**
+     * 网络"一言"数据仓库，后台补充时从中获取数据；不经过本地语料回退，避免网络故障时缓冲区被本地语料填满
+     */
+    private final SentenceRepository sentenceRepository;
+    /**
+     * 预取缓冲区配置属性
+     */
+    private final PrefetchProperties prefetchProperties;
+
+    private final BlockingQueue<Sentence> queue;
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+
+    // --- 统计 ---
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refilled = new LongAdder();
+    private final LongAdder refillFailures = new LongAdder();
+    private final long startedAt = System.currentTimeMillis();
+
+    public SentencePrefetchBuffer(@Qualifier("httpSentenceRepository") SentenceRepository sentenceRepository, PrefetchProperties prefetchProperties) {
+        this.sentenceRepository = sentenceRepository;
+        this.prefetchProperties = prefetchProperties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, prefetchProperties.getCapacity()));
+    }
+
+    /**
+     * 从缓冲区取出一个"一言"，并在低于低水位线时触发后台补充。
+     *
+     * @return 缓冲区中的"一言"；缓冲区为空或未启用时返回空的Optional。
+     */
+    public Optional<Sentence> poll() {
+        if (!prefetchProperties.isEnabled()) {
+            return Optional.empty();
+        }
+        Sentence sentence = queue.poll();
+        if (sentence != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        refillIfBelowLowWaterMark();
+        return Optional.ofNullable(sentence);
+    }
+
+    /**
+     * 当前缓冲区中的"一言"，按取出顺序排列。
+     */
+    public List<Sentence> contents() {
+        return List.copyOf(queue);
+    }
+
+    /**
+     * 放回上次运行时缓冲区中的"一言"，超出容量的部分被忽略。
+     *
+     * @return 实际放回的数量
+     */
+    public int restore(Collection<Sentence> sentences) {
+        if (!prefetchProperties.isEnabled()) {
+            return 0;
+        }
+        int restored = 0;
+        for (Sentence sentence : sentences) {
+            if (!queue.offer(sentence)) {
+                break;
+            }
+            restored++;
+        }
+        return restored;
+    }
+
+    /**
+     * 定期检查水位，使补充失败（如网络冷却）后能够自动恢复。
+     */
+    @Scheduled(initialDelayString = "${prefetch.check-interval:PT1M}", fixedDelayString = "${prefetch.check-interval:PT1M}")
+    public void refillIfBelowLowWaterMark() {
+        if (!prefetchProperties.isEnabled() || queue.size() >= prefetchProperties.getLowWaterMark()) {
+            return;
+        }
+        if (refilling.compareAndSet(false, true)) {
+            refillNext();
+        }
+    }
+
+    /**
+     * 补充一个"一言"，成功后继续补充下一个，直到填满；遇到获取失败时停止，等待下一次触发。
+     */
+    private void refillNext() {
+        if (closed || queue.remainingCapacity() == 0) {
+            refilling.set(false);
+            return;
+        }
+        CompletableFuture<Optional<Sentence>> future;
+        try {
+            future = sentenceRepository.fetchRandomSentenceAsync(false);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((sentence, e) -> {
+            if (e != null) {
+                refillFailures.increment();
+                log.error("❌ 预取缓冲区补充时发生意外错误: {}", e.getMessage(), e);
+                refilling.set(false);
+            } else if (sentence.isEmpty()) {
+                refillFailures.increment();
+                log.warn("⚠️ 预取缓冲区补充失败，当前深度: {}/{}", queue.size(), prefetchProperties.getCapacity());
+                refilling.set(false);
+            } else if (!queue.offer(sentence.get())) {
+                refilling.set(false);
+            } else {
+                refilled.increment();
+                log.debug("📥 预取缓冲区已补充，当前深度: {}/{}", queue.size(), prefetchProperties.getCapacity());
+                refillNext();
+            }
+        });
+    }
+
+    /**
+     * 获取缓冲区当前的统计信息。
+     */
+    public Stats stats() {
+        double minutes = Math.max(1, System.currentTimeMillis() - startedAt) / 60_000.0;
+        return new Stats(queue.size(), prefetchProperties.getCapacity(), hits.sum(), misses.sum(),
+                refilled.sum(), refillFailures.sum(), refilled.sum() / minutes);
+    }
+
+    /**
+     * 定期输出缓冲区统计信息。
+     */
+    @Scheduled(initialDelayString = "${prefetch.report-interval:PT10M}", fixedDelayString = "${prefetch.report-interval:PT10M}")
+    public void logStats() {
+        Stats stats = stats();
+        log.info("📦 预取缓冲区 深度:{}/{} 命中:{} 未命中:{} 已补充:{} 补充失败:{} 补充速率:{}/分钟",
+                stats.depth(), stats.capacity(), stats.hits(), stats.misses(), stats.refilled(),
+                stats.refillFailures(), String.format("%.2f", stats.refillsPerMinute()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+    }
+
+    /**
+     * 预取缓冲区统计信息。
+     *
+     * @param depth             当前缓冲区中的数量
+     * @param capacity          缓冲区容量
+     * @param hits              从缓冲区直接取到的次数
+     * @param misses            缓冲区为空的次数
+     * @param refilled          后台补充的总数
+     * @param refillFailures    后台补充失败的次数
+     * @param refillsPerMinute  自启动以来的平均补充速率（条/分钟）
+     */
+    public record Stats(int depth, int capacity, long hits, long misses, long refilled, long refillFailures,
+                        double refillsPerMinute) {
+    }
+}
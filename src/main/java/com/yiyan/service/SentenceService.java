@@ -9,6 +9,13 @@ public interface SentenceService {
      */
     void fetchNewSentence(boolean skipValidation);
 
+    /**
+     * 异步地执行获取新"一言"并发布的任务，等待网络期间不占用调用线程。
+     * @param skipValidation 是否跳过业务逻辑校验
+     * @return 发布完成后结束的 CompletableFuture，结果说明"一言"从何而来；未能获取时以异常结束。
+     */
+    CompletableFuture<FetchOutcome> fetchNewSentenceAsync(boolean skipValidation);
+
     /**
      * 异步地手动请求一个新的"一言"。
      * @return 一个 CompletableFuture，在获取操作完成后结束。
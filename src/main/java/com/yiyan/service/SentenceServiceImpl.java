@@ -1,8 +1,12 @@
 package com.yiyan.service;
 
+import com.yiyan.config.DedupProperties;
 import com.yiyan.event.SentenceFetchedEvent;
 import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.LocalCorpusSentenceRepository;
 import com.yiyan.infrastructure.adapter.SentenceRepository;
+import com.yiyan.infrastructure.persistence.SentenceStore;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -10,6 +14,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 应用服务（用例实现），负责处理获取"一言"的核心业务逻辑。
@@ -27,46 +32,134 @@ public class SentenceServiceImpl implements SentenceService {
      * Spring应用事件发布器，用于在获取到新的"一言"后通知其他组件
      */
     private final ApplicationEventPublisher eventPublisher;
+    /**
+     * 预取缓冲区，优先从中取出已校验的"一言"，避免每次刷新都等待网络请求
+     */
+    private final SentencePrefetchBuffer prefetchBuffer;
+    /**
+     * 近期重复过滤器，拒绝最近已展示过的"一言"
+     */
+    private final RecentSentenceFilter recentFilter;
+    /**
+     * "一言"历史存储，开启 {@link DedupProperties#isRejectSeen()} 时用于拒绝以前展示过的"一言"
+     */
+    private final SentenceStore sentenceStore;
+    /**
+     * 重复过滤配置属性
+     */
+    private final DedupProperties dedupProperties;
+    /**
+     * 获取流程的指标
+     */
+    private final FetchMetrics fetchMetrics;
 
     @Override
     public CompletableFuture<Void> requestNewSentenceAsync() {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                // 手动刷新时，强制执行校验
-                fetchNewSentence(false);
-            } catch (Exception e) {
-                log.error("手动刷新失败: {}", e.getMessage());
-                // 在这里可以考虑发布一个失败事件，让UI给出提示
-            }
+        // 手动刷新时，强制执行校验
+        return fetchNewSentenceAsync(false).<Void>thenApply(outcome -> null).exceptionally(e -> {
+            log.error("手动刷新失败: {}", unwrap(e).getMessage());
+            // 在这里可以考虑发布一个失败事件，让UI给出提示
+            return null;
         });
     }
 
     /**
-     * 执行获取新"一言"并发布的任务。
-     * <p>
-     * 此方法会尝试获取一次"一言"。如果成功，则发布一个 {@link SentenceFetchedEvent} 事件。
-     * 如果失败（例如，由于网络问题或API返回错误），它会向上抛出异常，
-     * 由调用方（如调度器）来处理重试逻辑。
+     * 执行获取新"一言"并发布的任务，阻塞直到 {@link #fetchNewSentenceAsync(boolean)} 完成。
      *
      * @param skipValidation 如果为 true，则在获取过程中跳过所有业务逻辑校验（如长度限制）。
      * @throws RuntimeException 如果获取"一言"时发生任何错误。
      */
     @Override
     public void fetchNewSentence(boolean skipValidation) {
-        log.info("🚀 开始尝试获取新的一言 (跳过校验: {})...", skipValidation);
+        try {
+            fetchNewSentenceAsync(skipValidation).join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            throw cause instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+    }
 
-        // 调用数据仓库层获取"一言"
-        Optional<Sentence> sentenceOpt = sentenceRepository.fetchRandomSentence(skipValidation);
+    /**
+     * 异步地执行获取新"一言"并发布的任务。
+     * <p>
+     * 此方法会优先从预取缓冲区取出"一言"，缓冲区为空时回退到实时获取。
+     * 最近已展示过的"一言"会被拒绝并重新获取，最多重试 {@link DedupProperties#getMaxRetries()} 次。
+     * 如果成功，则发布一个 {@link SentenceFetchedEvent} 事件，并以 {@link FetchOutcome} 说明"一言"的来源，
+     * 网络获取失败后回退到本地语料时为 {@link FetchOutcome#LOCAL_FALLBACK}。
+     * 如果失败（例如，由于网络问题或API返回错误），返回的 Future 以异常结束，
+     * 由调用方（如调度器）来处理重试逻辑。
+     *
+     * @param skipValidation 如果为 true，则在获取过程中跳过所有业务逻辑校验（如长度限制）。
+     * @return 发布完成后结束的 CompletableFuture。
+     */
+    @Override
+    public CompletableFuture<FetchOutcome> fetchNewSentenceAsync(boolean skipValidation) {
+        log.info("🚀 开始尝试获取新的一言 (跳过校验: {})...", skipValidation);
+        return fetchAttempt(skipValidation, Math.max(0, dedupProperties.getMaxRetries()), System.nanoTime());
+    }
 
-        if (sentenceOpt.isPresent()) {
-            Sentence sentence = sentenceOpt.get();
-            log.info("✨ 成功获取到封装后的一言对象: {}", sentence);
-            eventPublisher.publishEvent(new SentenceFetchedEvent(this, sentence));
+    /**
+     * @param startedNanos 开始获取时的 {@link System#nanoTime()}，重新获取时保持不变
+     */
+    private CompletableFuture<FetchOutcome> fetchAttempt(boolean skipValidation, int retriesLeft, long startedNanos) {
+        // 预取缓冲区中只有通过校验的"一言"，跳过校验的请求直接走数据仓库
+        Optional<Sentence> buffered = skipValidation ? Optional.empty() : prefetchBuffer.poll();
+        CompletableFuture<Optional<Sentence>> sentenceFuture;
+        fetchMetrics.recordSource(buffered.isPresent());
+        if (buffered.isPresent()) {
+            log.info("⚡ 从预取缓冲区取出一言。");
+            sentenceFuture = CompletableFuture.completedFuture(buffered);
         } else {
-            // 如果仓库层返回一个空的Optional，意味着没有获取到有效数据。
-            // 抛出异常，以便调度器知道本次尝试失败。
-            log.warn("🤷‍ 本次未能从任何API获取到有效的一言数据。");
-            throw new IllegalStateException("未能从任何数据源获取到有效的一言。");
+            // 调用数据仓库层获取"一言"
+            sentenceFuture = sentenceRepository.fetchRandomSentenceAsync(skipValidation);
         }
+
+        return sentenceFuture.thenCompose(sentenceOpt -> {
+            if (sentenceOpt.isPresent()) {
+                Sentence sentence = sentenceOpt.get();
+                if (isDuplicate(sentence)) {
+                    fetchMetrics.recordRejection(sentence.getSource(), FetchMetrics.REJECT_DUPLICATE);
+                    if (retriesLeft > 0) {
+                        log.info("🔁 一言已展示过，重新获取 (剩余重试: {}): {}", retriesLeft, sentence);
+                        return fetchAttempt(skipValidation, retriesLeft - 1, startedNanos);
+                    }
+                    log.warn("🔁 重试次数已用尽，获取到的一言仍是最近展示过的: {}", sentence);
+                    throw new IllegalStateException("多次获取到最近已展示过的一言。");
+                }
+                log.info("✨ 成功获取到封装后的一言对象: {}", sentence);
+                eventPublisher.publishEvent(new SentenceFetchedEvent(this, sentence, startedNanos));
+                return CompletableFuture.completedFuture(outcome(sentence, buffered.isPresent()));
+            } else {
+                // 如果仓库层返回一个空的Optional，意味着没有获取到有效数据。
+                // 以异常结束，以便调度器知道本次尝试失败。
+                log.warn("🤷‍ 本次未能从任何API获取到有效的一言数据。");
+                throw new IllegalStateException("未能从任何数据源获取到有效的一言。");
+            }
+        });
+    }
+
+    /**
+     * 先查历史存储（如果开启），再查最近窗口。历史存储中已有的"一言"不会被加入最近窗口。
+     */
+    private boolean isDuplicate(Sentence sentence) {
+        if (dedupProperties.isEnabled() && dedupProperties.isRejectSeen() && sentenceStore.contains(sentence.getText())) {
+            return true;
+        }
+        return recentFilter.isRecentDuplicate(sentence);
+    }
+
+    /**
+     * 本地语料的"一言"只会在网络获取失败后由数据仓库回退取得，以其来源区分。
+     */
+    private static FetchOutcome outcome(Sentence sentence, boolean fromBuffer) {
+        if (fromBuffer) {
+            return FetchOutcome.PREFETCHED;
+        }
+        return LocalCorpusSentenceRepository.SOURCE.equals(sentence.getSource())
+                ? FetchOutcome.LOCAL_FALLBACK : FetchOutcome.REMOTE;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package com.yiyan.infrastructure.adapter;
+
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.health.ApiHealthReport;
+import com.yiyan.infrastructure.adapter.api.health.EndpointCircuitBreakers;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import com.yiyan.infrastructure.adapter.api.health.FailureClass;
+import com.yiyan.infrastructure.adapter.api.health.NetworkStateMonitor;
+import com.yiyan.infrastructure.adapter.api.http.EndpointCallExecutor;
+import com.yiyan.infrastructure.adapter.api.http.EndpointRequests;
+import com.yiyan.infrastructure.adapter.api.parser.EndpointParsePlans;
+import com.yiyan.infrastructure.adapter.api.parser.SentenceParserFactory;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpSentenceRepositoryTest {
+
+    private final ApiProperties apiProperties = new ApiProperties();
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+    /**
+     * 已关闭的执行器：OkHttp 交给它的每个请求都会被拒绝，并在 enqueue 返回前同步回调 onFailure
+     */
+    private final ExecutorService rejectingExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService dispatcherExecutor = Executors.newCachedThreadPool();
+    private EndpointStatsRegistry statsRegistry;
+    private EndpointRequests endpointRequests;
+    private EndpointCircuitBreakers circuitBreakers;
+    private NetworkStateMonitor networkMonitor;
+
+    @BeforeEach
+    void setUp() {
+        rejectingExecutor.shutdown();
+        taskScheduler.initialize();
+        apiProperties.setEndpoints(List.of(endpoint("a"), endpoint("b"), endpoint("c")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskScheduler.shutdown();
+        dispatcherExecutor.shutdownNow();
+    }
+
+    private HttpSentenceRepository repository(OkHttpClient client) {
+        List<ApiProperties.ApiEndpoint> endpoints = apiProperties.getEndpoints();
+        FetchMetrics fetchMetrics = new FetchMetrics(new SimpleMeterRegistry());
+        statsRegistry = new EndpointStatsRegistry(apiProperties);
+        endpointRequests = new EndpointRequests(apiProperties);
+        endpointRequests.register(endpoints);
+        EndpointParsePlans parsePlans = new EndpointParsePlans(new SentenceParserFactory(Map.of()), apiProperties);
+        parsePlans.register(endpoints);
+        circuitBreakers = new EndpointCircuitBreakers(CircuitBreakerRegistry.of(
+                Map.of(EndpointCircuitBreakers.CONFIG_NAME, CircuitBreakerConfig.ofDefaults())));
+        circuitBreakers.register(endpoints);
+        EndpointCallExecutor callExecutor = new EndpointCallExecutor(client, endpointRequests, parsePlans, statsRegistry,
+                circuitBreakers, fetchMetrics);
+        networkMonitor = new NetworkStateMonitor(apiProperties, rejectingExecutor, fetchMetrics);
+        return new HttpSentenceRepository(apiProperties, callExecutor, taskScheduler, statsRegistry,
+                List::copyOf, fetchMetrics, networkMonitor);
+    }
+
+    private HttpSentenceRepository rejectingRepository() {
+        return repository(new OkHttpClient.Builder().dispatcher(new Dispatcher(rejectingExecutor)).build());
+    }
+
+    @Test
+    void fetchCompletesWhenExecutorRejectsEveryRequest() throws Exception {
+        Optional<Sentence> sentence = rejectingRepository().fetchRandomSentenceAsync(false).get(5, TimeUnit.SECONDS);
+
+        assertThat(sentence).isEmpty();
+        for (String name : List.of("a", "b", "c")) {
+            assertThat(statsRegistry.forEndpoint(name).snapshot().attempts()).isEqualTo(1);
+        }
+        // 被拒绝的请求没有发出，不是网络故障，不应进入冷却
+        assertThat(networkMonitor.state().phase()).isEqualTo(NetworkStateMonitor.Phase.ONLINE);
+    }
+
+    @Test
+    void selfCheckReportsRejectedRequestsBeforeDeadline() throws Exception {
+        ApiHealthReport report = rejectingRepository().checkAllApisAsync().get(5, TimeUnit.SECONDS);
+
+        assertThat(report.entries()).hasSize(3);
+        // 同步回调的失败按实际原因记录，而不是等到截止时间
+        assertThat(report.entries()).allSatisfy(entry -> {
+            assertThat(entry.healthy()).isFalse();
+            assertThat(entry.failureClass()).isEqualTo(FailureClass.UNEXPECTED);
+        });
+        assertThat(report.duration()).isLessThan(apiProperties.getSelfCheck().getDeadline());
+    }
+
+    @Test
+    void selfCheckTellsSkipReasonsApart() throws Exception {
+        HttpSentenceRepository repository = rejectingRepository();
+        List<ApiProperties.ApiEndpoint> endpoints = apiProperties.getEndpoints();
+        // a 没有预先构建的请求（注册两次，上一版保留的请求也被替换），b 的熔断器打开，c 的请求被执行器拒绝
+        endpointRequests.register(endpoints.subList(1, 3));
+        endpointRequests.register(endpoints.subList(1, 3));
+        circuitBreakers.forEndpoint("b").transitionToForcedOpenState();
+
+        ApiHealthReport report = repository.checkAllApisAsync().get(5, TimeUnit.SECONDS);
+
+        assertThat(report.entries()).extracting(ApiHealthReport.Entry::failureClass)
+                .containsExactly(FailureClass.NO_REQUEST, FailureClass.CIRCUIT_OPEN, FailureClass.UNEXPECTED);
+        assertThat(report.entries().get(1).sample()).contains("FORCED_OPEN");
+    }
+
+    @Test
+    void asyncFetchEndsAtTimeLimitAndCancelsCallsThatNeverReturn() throws Exception {
+        ApiProperties.TransportConfig transport = apiProperties.getTransport();
+        transport.setConnectTimeout(Duration.ofMillis(100));
+        transport.setReadTimeout(Duration.ofMillis(100));
+        apiProperties.getHedge().setDelay(Duration.ofMillis(50));
+        apiProperties.getNetwork().setProbeTimeout(Duration.ofMillis(100));
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger cancelled = new AtomicInteger();
+        // 拦截器一直不返回，连接和读取超时都不会触发，只有取消能让它结束
+        OkHttpClient client = new OkHttpClient.Builder()
+                .dispatcher(new Dispatcher(dispatcherExecutor))
+                .addInterceptor(chain -> {
+                    started.incrementAndGet();
+                    while (!chain.call().isCanceled()) {
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                    cancelled.incrementAndGet();
+                    throw new IOException("Canceled");
+                })
+                .build();
+
+        long begin = System.nanoTime();
+        Optional<Sentence> sentence = repository(client).fetchRandomSentenceAsync(false).get(5, TimeUnit.SECONDS);
+
+        assertThat(sentence).isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - begin)).isLessThan(Duration.ofSeconds(3));
+        assertThat(started.get()).isPositive();
+        // 在途请求被取消后，拦截器很快就会结束
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (cancelled.get() < started.get() && System.nanoTime() < waitUntil) {
+            Thread.sleep(10);
+        }
+        assertThat(cancelled.get()).isEqualTo(started.get());
+    }
+
+    private static ApiProperties.ApiEndpoint endpoint(String name) {
+        ApiProperties.ApiEndpoint endpoint = new ApiProperties.ApiEndpoint();
+        endpoint.setName(name);
+        endpoint.setUrl("http://127.0.0.1:9/" + name);
+        return endpoint;
+    }
+}
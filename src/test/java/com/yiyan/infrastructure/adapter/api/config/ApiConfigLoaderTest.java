@@ -0,0 +1,108 @@
+package com.yiyan.infrastructure.adapter.api.config;
+
+import com.yiyan.event.ApiConfigLoadedEvent;
+import com.yiyan.infrastructure.adapter.api.health.EndpointCircuitBreakers;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import com.yiyan.infrastructure.adapter.api.http.EndpointRequests;
+import com.yiyan.infrastructure.adapter.api.parser.EndpointParsePlans;
+import com.yiyan.infrastructure.adapter.api.parser.SentenceParserFactory;
+import com.yiyan.infrastructure.config.HttpClientConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApiConfigLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<Object> events = new ArrayList<>();
+    private ApiProperties apiProperties;
+    private ApiConfigLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        apiProperties = new ApiProperties();
+        loader = new ApiConfigLoader(apiProperties, new DefaultResourceLoader(), new HttpClientConfig().objectMapper(),
+                new EndpointCircuitBreakers(CircuitBreakerRegistry.of(
+                        Map.of(EndpointCircuitBreakers.CONFIG_NAME, CircuitBreakerConfig.ofDefaults()))),
+                new EndpointParsePlans(new SentenceParserFactory(Map.of()), apiProperties),
+                new EndpointRequests(apiProperties), new EndpointStatsRegistry(apiProperties), events::add);
+    }
+
+    @Test
+    void readsPerEndpointTimeouts() throws Exception {
+        useApiList("""
+                [
+                  {"name": "short", "url": "https://example.com/a", "connectTimeout": "3s", "readTimeout": "500ms"},
+                  {"name": "iso", "url": "https://example.com/b", "connectTimeout": "PT2S", "readTimeout": 1500},
+                  {"name": "default", "url": "https://example.com/c"}
+                ]
+                """);
+
+        loader.run();
+
+        List<ApiProperties.ApiEndpoint> endpoints = apiProperties.getEndpoints();
+        assertThat(endpoints).hasSize(3);
+        assertThat(endpoints.get(0).getConnectTimeout()).isEqualTo(Duration.ofSeconds(3));
+        assertThat(endpoints.get(0).getReadTimeout()).isEqualTo(Duration.ofMillis(500));
+        assertThat(endpoints.get(1).getConnectTimeout()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(endpoints.get(1).getReadTimeout()).isEqualTo(Duration.ofMillis(1500));
+        assertThat(endpoints.get(2).getConnectTimeout()).isNull();
+        assertThat(endpoints.get(2).getReadTimeout()).isNull();
+        assertThat(events).singleElement().isInstanceOfSatisfying(ApiConfigLoadedEvent.class,
+                event -> assertThat(event.getEndpointCount()).isEqualTo(3));
+    }
+
+    @Test
+    void rejectsMalformedTimeoutAtStartup() throws Exception {
+        useApiList("""
+                [{"name": "bad", "url": "https://example.com/a", "readTimeout": "three seconds"}]
+                """);
+
+        assertThatThrownBy(() -> loader.run()).isInstanceOf(IllegalStateException.class);
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void reloadKeepsCurrentEndpointsWhenTimeoutIsMalformed() throws Exception {
+        useApiList("""
+                [{"name": "a", "url": "https://example.com/a", "readTimeout": "2s"}]
+                """);
+        loader.run();
+        List<ApiProperties.ApiEndpoint> loaded = apiProperties.getEndpoints();
+
+        useApiList("""
+                [{"name": "a", "url": "https://example.com/a", "readTimeout": "2 parsecs"}]
+                """);
+        assertThat(loader.reload()).isFalse();
+        assertThat(apiProperties.getEndpoints()).isSameAs(loaded);
+
+        useApiList("""
+                [{"name": "a", "url": "https://example.com/a", "readTimeout": "4s"}]
+                """);
+        assertThat(loader.reload()).isTrue();
+        assertThat(apiProperties.getEndpoints().get(0).getReadTimeout()).isEqualTo(Duration.ofSeconds(4));
+    }
+
+    private void useApiList(String json) throws IOException {
+        Path file = directory.resolve("api-list.json");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        apiProperties.setApiListPath("file:" + file);
+    }
+}
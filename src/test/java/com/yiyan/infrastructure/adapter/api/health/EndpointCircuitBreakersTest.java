@@ -0,0 +1,90 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointCircuitBreakersTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(EndpointCircuitBreakers.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(
+            Map.of(EndpointCircuitBreakers.CONFIG_NAME, CircuitBreakerConfig.ofDefaults()));
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void concurrentFirstCallsAttachTheListenerOnce() throws Exception {
+        EndpointCircuitBreakers breakers = new EndpointCircuitBreakers(registry);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CircuitBreaker>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return breakers.forEndpoint("hitokoto");
+                }));
+            }
+            start.countDown();
+            CircuitBreaker first = futures.get(0).get();
+            for (Future<CircuitBreaker> future : futures) {
+                assertThat(future.get()).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        breakers.forEndpoint("hitokoto").transitionToOpenState();
+
+        assertThat(transitionLogs()).hasSize(1);
+    }
+
+    @Test
+    void recreatedBreakerGetsItsOwnListener() {
+        EndpointCircuitBreakers breakers = new EndpointCircuitBreakers(registry);
+        breakers.forEndpoint("a");
+        breakers.retain(Set.of());
+        breakers.forEndpoint("a").transitionToOpenState();
+
+        assertThat(transitionLogs()).hasSize(1);
+        // 不属于端点的熔断器不挂接
+        registry.circuitBreaker("other").transitionToOpenState();
+        assertThat(transitionLogs()).hasSize(1);
+    }
+
+    private List<String> transitionLogs() {
+        return appender.list.stream()
+                .map(ILoggingEvent::getFormattedMessage)
+                .filter(message -> message.contains("熔断器状态变更"))
+                .toList();
+    }
+}
@@ -0,0 +1,76 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class EwmaTest {
+
+    @Test
+    void startsAtInitialValueAndMovesTowardsSamples() {
+        Ewma ewma = new Ewma(0.5, 100);
+        assertThat(ewma.get()).isEqualTo(100);
+
+        ewma.update(200);
+        assertThat(ewma.get()).isEqualTo(150);
+        ewma.update(200);
+        assertThat(ewma.get()).isEqualTo(175);
+    }
+
+    @Test
+    void alphaOfOneTracksTheLatestSample() {
+        Ewma ewma = new Ewma(1.0, 100);
+        ewma.update(42);
+        assertThat(ewma.get()).isEqualTo(42);
+    }
+
+    @Test
+    void rejectsAlphaOutsideUnitInterval() {
+        assertThatThrownBy(() -> new Ewma(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Ewma(1.5, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void lowerBoundBelowAverageIsIgnored() {
+        Ewma ewma = new Ewma(0.5, 100);
+        ewma.updateLowerBound(50);
+        ewma.updateLowerBound(100);
+        assertThat(ewma.get()).isEqualTo(100);
+    }
+
+    @Test
+    void lowerBoundAboveAverageRaisesIt() {
+        Ewma ewma = new Ewma(0.5, 100);
+        ewma.updateLowerBound(300);
+        assertThat(ewma.get()).isEqualTo(200);
+    }
+
+    @Test
+    void setOverridesCurrentValue() {
+        Ewma ewma = new Ewma(0.2, 100);
+        ewma.set(7);
+        assertThat(ewma.get()).isEqualTo(7);
+    }
+
+    @Test
+    void concurrentUpdatesOfTheSameSampleConverge() throws InterruptedException {
+        Ewma ewma = new Ewma(0.1, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ewma.update(50);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(ewma.get()).isCloseTo(50, within(1e-9));
+    }
+}
@@ -0,0 +1,53 @@
+package com.yiyan.infrastructure.adapter.api.health;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NetworkStateMonitorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    void probeThatNeverReturnsCountsAsUnreachableAfterTimeout() throws Exception {
+        ApiProperties apiProperties = new ApiProperties();
+        apiProperties.getNetwork().setInitialCooldown(Duration.ZERO);
+        apiProperties.getNetwork().setProbeTimeout(Duration.ofMillis(100));
+        apiProperties.getNetwork().setProbeHost("example.invalid");
+        // 唯一的I/O线程被占用，探测一直得不到执行，相当于卡在没有超时的系统DNS解析中
+        ioExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        NetworkStateMonitor monitor = new NetworkStateMonitor(apiProperties, ioExecutor, new FetchMetrics(new SimpleMeterRegistry()));
+        monitor.recordNetworkFailure();
+
+        long begin = System.nanoTime();
+        boolean reachable = monitor.checkReachable().get(5, TimeUnit.SECONDS);
+
+        assertThat(reachable).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - begin)).isLessThan(Duration.ofSeconds(2));
+        assertThat(monitor.state().phase()).isEqualTo(NetworkStateMonitor.Phase.COOLDOWN);
+        assertThat(monitor.state().failures()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.yiyan.infrastructure.adapter.api.http;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import okhttp3.Request;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointRequestsTest {
+
+    private final ApiProperties apiProperties = new ApiProperties();
+    private final EndpointRequests requests = new EndpointRequests(apiProperties);
+
+    @Test
+    void buildsRequestWithEndpointHeadersAndDefaultUserAgent() {
+        ApiProperties.ApiEndpoint endpoint = endpoint("hitokoto", Map.of("Accept", "application/json"));
+        requests.register(List.of(endpoint));
+
+        Request request = requests.forEndpoint(endpoint).orElseThrow();
+        assertThat(request.url().toString()).isEqualTo("https://v1.hitokoto.cn/?c=a&c=b&encode=json");
+        assertThat(request.header("Accept")).isEqualTo("application/json");
+        assertThat(request.header("User-Agent")).isEqualTo(apiProperties.getDefaultUserAgent());
+        assertThat(request.tag(ApiProperties.ApiEndpoint.class)).isSameAs(endpoint);
+    }
+
+    @Test
+    void keepsEndpointUserAgentRegardlessOfCase() {
+        ApiProperties.ApiEndpoint endpoint = endpoint("custom", Map.of("user-agent", "yiyan-test"));
+        requests.register(List.of(endpoint));
+
+        Request request = requests.forEndpoint(endpoint).orElseThrow();
+        assertThat(request.headers("User-Agent")).containsExactly("yiyan-test");
+    }
+
+    @Test
+    void reusesTheSameRequestForEveryFetch() {
+        ApiProperties.ApiEndpoint endpoint = endpoint("hitokoto", null);
+        requests.register(List.of(endpoint));
+
+        assertThat(requests.forEndpoint(endpoint).orElseThrow()).isSameAs(requests.forEndpoint(endpoint).orElseThrow());
+    }
+
+    @Test
+    void matchesRequestsByEndpointIdentityAcrossReloads() {
+        ApiProperties.ApiEndpoint original = endpoint("hitokoto", null);
+        requests.register(List.of(original));
+        ApiProperties.ApiEndpoint reloaded = endpoint("hitokoto", Map.of("Accept", "text/plain"));
+        requests.register(List.of(reloaded));
+
+        // 同名但不是同一个对象的端点只会取到为自己构建的请求
+        assertThat(requests.forEndpoint(reloaded).orElseThrow().header("Accept")).isEqualTo("text/plain");
+        // 重新加载前在途的获取仍能取到旧的请求，再次重新加载后才被丢弃
+        assertThat(requests.forEndpoint(original).orElseThrow().header("Accept")).isNull();
+        requests.register(List.of(endpoint("hitokoto", null)));
+        assertThat(requests.forEndpoint(original)).isEmpty();
+        assertThat(requests.forEndpoint(endpoint("hitokoto", null))).isEmpty();
+    }
+
+    @Test
+    void skipsEndpointWithInvalidUrl() {
+        ApiProperties.ApiEndpoint invalid = endpoint("invalid", null);
+        invalid.setUrl("not a url");
+        ApiProperties.ApiEndpoint valid = endpoint("valid", null);
+        requests.register(List.of(invalid, valid));
+
+        assertThat(requests.forEndpoint(invalid)).isEmpty();
+        assertThat(requests.forEndpoint(valid)).isPresent();
+    }
+
+    private static ApiProperties.ApiEndpoint endpoint(String name, Map<String, String> headers) {
+        ApiProperties.ApiEndpoint endpoint = new ApiProperties.ApiEndpoint();
+        endpoint.setName(name);
+        endpoint.setUrl("https://v1.hitokoto.cn/?c=a&c=b&encode=json");
+        endpoint.setHeaders(headers);
+        return endpoint;
+    }
+}
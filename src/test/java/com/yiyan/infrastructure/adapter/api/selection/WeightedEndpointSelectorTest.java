@@ -0,0 +1,75 @@
+package com.yiyan.infrastructure.adapter.api.selection;
+
+import com.yiyan.infrastructure.adapter.api.config.ApiProperties;
+import com.yiyan.infrastructure.adapter.api.health.EndpointStatsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class WeightedEndpointSelectorTest {
+
+    private ApiProperties apiProperties;
+    private EndpointStatsRegistry statsRegistry;
+    private WeightedEndpointSelector selector;
+
+    @BeforeEach
+    void setUp() {
+        apiProperties = new ApiProperties();
+        statsRegistry = new EndpointStatsRegistry(apiProperties);
+        selector = new WeightedEndpointSelector(apiProperties, statsRegistry);
+    }
+
+    @Test
+    void weightIsSuccessRatesTimesLatencyFactor() {
+        // 参考延迟默认1秒：延迟等于参考延迟时延迟因子为0.5
+        statsRegistry.forEndpoint("a").restoreScores(1000, 0.8, 0.5);
+        assertThat(selector.weight(statsRegistry.forEndpoint("a"))).isCloseTo(0.8 * 0.5 * 0.5, within(1e-9));
+
+        statsRegistry.forEndpoint("b").restoreScores(0, 1.0, 1.0);
+        assertThat(selector.weight(statsRegistry.forEndpoint("b"))).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void weightNeverDropsBelowMinimum() {
+        statsRegistry.forEndpoint("dead").restoreScores(60_000, 0.0, 0.0);
+        assertThat(selector.weight(statsRegistry.forEndpoint("dead")))
+                .isEqualTo(apiProperties.getSelection().getMinWeight());
+    }
+
+    @Test
+    void orderIsAPermutationOfTheInput() {
+        List<ApiProperties.ApiEndpoint> endpoints = List.of(endpoint("a"), endpoint("b"), endpoint("c"), endpoint("d"));
+        List<ApiProperties.ApiEndpoint> ordered = selector.order(endpoints);
+        assertThat(ordered).containsExactlyInAnyOrderElementsOf(endpoints);
+        assertThat(selector.order(List.of())).isEmpty();
+    }
+
+    @Test
+    void heavierEndpointIsFirstProportionallyMoreOften() {
+        ApiProperties.ApiEndpoint fast = endpoint("fast");
+        ApiProperties.ApiEndpoint slow = endpoint("slow");
+        statsRegistry.forEndpoint("fast").restoreScores(0, 1.0, 1.0);   // 权重 1.0
+        statsRegistry.forEndpoint("slow").restoreScores(3000, 1.0, 1.0); // 权重 0.25
+
+        int rounds = 20_000;
+        int fastFirst = 0;
+        for (int i = 0; i < rounds; i++) {
+            if (selector.order(List.of(slow, fast)).get(0) == fast) {
+                fastFirst++;
+            }
+        }
+        // 两个端点时排在首位的概率为 w1 / (w1 + w2) = 0.8
+        assertThat((double) fastFirst / rounds).isCloseTo(0.8, within(0.02));
+    }
+
+    private static ApiProperties.ApiEndpoint endpoint(String name) {
+        ApiProperties.ApiEndpoint endpoint = new ApiProperties.ApiEndpoint();
+        endpoint.setName(name);
+        endpoint.setUrl("https://example.com/" + name);
+        return endpoint;
+    }
+}
@@ -0,0 +1,45 @@
+package com.yiyan.infrastructure.metrics;
+
+import com.yiyan.config.MetricsProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrometheusTextExporterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PrometheusTextExporter exporter = new PrometheusTextExporter(new MetricsProperties(), registry);
+
+    @Test
+    void exportsMaxAsItsOwnGaugeFamilyAfterTheHistogram() {
+        for (String endpoint : List.of("a", "b")) {
+            Timer.builder("fetch.latency")
+                    .tag("endpoint", endpoint)
+                    .serviceLevelObjectives(Duration.ofMillis(100), Duration.ofSeconds(1))
+                    .register(registry)
+                    .record(Duration.ofMillis(250));
+        }
+
+        List<String> lines = exporter.scrape().lines().toList();
+
+        int histogramType = lines.indexOf("# TYPE fetch_latency_seconds histogram");
+        int maxType = lines.indexOf("# TYPE fetch_latency_seconds_max gauge");
+        assertThat(histogramType).isNotNegative();
+        assertThat(maxType).isGreaterThan(histogramType);
+        // 直方图族内只有 _bucket、_count 和 _sum，两个端点的样本都在 _max 族之前
+        assertThat(lines.subList(histogramType + 1, maxType))
+                .allMatch(line -> line.startsWith("fetch_latency_seconds_bucket")
+                        || line.startsWith("fetch_latency_seconds_count")
+                        || line.startsWith("fetch_latency_seconds_sum"))
+                .anyMatch(line -> line.contains("endpoint=\"b\""));
+        assertThat(lines.subList(maxType + 1, lines.size()))
+                .filteredOn(line -> line.startsWith("fetch_latency_seconds_max"))
+                .hasSize(2)
+                .allMatch(line -> line.endsWith(" 0.25"));
+    }
+}
@@ -0,0 +1,193 @@
+package com.yiyan.infrastructure.persistence;
+
+import com.yiyan.config.HistoryProperties;
+import com.yiyan.domain.Sentence;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSentenceStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final HistoryProperties properties = new HistoryProperties();
+    private ExecutorService ioExecutor;
+    private FileSentenceStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 已关闭的执行器：跳过首次启动时从历史分段回填
+        ioExecutor = Executors.newSingleThreadExecutor();
+        ioExecutor.shutdown();
+        properties.setStoreDirectory(directory.toString());
+        properties.setIndexInitialCapacity(16);
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void persistsAuthorAndSourceAcrossRestart() throws IOException {
+        store.add(Sentence.of("春眠不觉晓", "孟浩然", "hitokoto"), 1);
+        store.add(Sentence.of("床前明月光", null, null), 2);
+        store.close();
+        store = open();
+
+        List<SentenceStore.StoredSentence> records = records();
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).timestamp()).isEqualTo(1);
+        assertThat(records.get(0).sentence().getAuthor()).isEqualTo("孟浩然");
+        assertThat(records.get(0).sentence().getSource()).isEqualTo("hitokoto");
+        assertThat(records.get(1).sentence().getAuthor()).isNull();
+        assertThat(records.get(1).sentence().getSource()).isNull();
+    }
+
+    @Test
+    void readsRecordsWrittenWithoutSource() throws IOException {
+        store.close();
+        // 旧版本的记录在作者之后结束
+        byte[] text = "旧记录".getBytes(StandardCharsets.UTF_8);
+        byte[] author = "作者".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(8 + 4 + text.length + 4 + author.length);
+        payload.putLong(7).putInt(text.length).put(text).putInt(author.length).put(author);
+        appendToLog(record(payload.array()));
+        store = open();
+
+        assertThat(store.contains("旧记录")).isTrue();
+        SentenceStore.StoredSentence record = records().get(0);
+        assertThat(record.timestamp()).isEqualTo(7);
+        assertThat(record.sentence().getAuthor()).isEqualTo("作者");
+        assertThat(record.sentence().getSource()).isNull();
+    }
+
+    @Test
+    void rebuildsIndexAfterUncleanShutdown() throws IOException {
+        store.add(Sentence.of("第一条"), 1);
+        store.add(Sentence.of("第二条"), 2);
+        store.close();
+        // 模拟崩溃：索引的槽位丢失，"未正常关闭"标记仍在
+        try (FileChannel index = FileChannel.open(directory.resolve(FileSentenceStore.INDEX_FILE), StandardOpenOption.WRITE)) {
+            long size = index.size();
+            index.write(ByteBuffer.allocate((int) size - 32), 32);
+            index.write(ByteBuffer.allocate(4).putInt(0, 1), 24);
+        }
+        store = open();
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.contains("第一条")).isTrue();
+        assertThat(store.contains("第二条")).isTrue();
+        assertThat(store.add(Sentence.of("第二条"), 3)).isFalse();
+    }
+
+    @Test
+    void dropsTruncatedTail() throws IOException {
+        store.add(Sentence.of("完整的记录"), 1);
+        store.close();
+        long completeEnd = Files.size(logFile());
+        byte[] partial = record(new byte[40]);
+        appendToLog(Arrays.copyOf(partial, partial.length - 10));
+        store = open();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(Files.size(logFile())).isEqualTo(completeEnd);
+        // 新记录写在丢弃的部分之后也能读回
+        store.add(Sentence.of("之后的记录"), 2);
+        store.close();
+        store = open();
+        assertThat(records()).extracting(record -> record.sentence().getText()).containsExactly("完整的记录", "之后的记录");
+    }
+
+    @Test
+    void dropsTailWithBadChecksum() throws IOException {
+        store.add(Sentence.of("第一条"), 1);
+        long firstEnd = store.logEnd();
+        store.add(Sentence.of("第二条"), 2);
+        store.close();
+        try (FileChannel log = FileChannel.open(logFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 改动第二条记录负载的最后一个字节
+            ByteBuffer last = ByteBuffer.allocate(1);
+            log.read(last, log.size() - 1);
+            last.put(0, (byte) (last.get(0) ^ 0x5A)).rewind();
+            log.write(last, log.size() - 1);
+        }
+        // 索引覆盖了第二条记录，需要重建才能发现它已损坏
+        try (FileChannel index = FileChannel.open(directory.resolve(FileSentenceStore.INDEX_FILE), StandardOpenOption.WRITE)) {
+            index.write(ByteBuffer.allocate(4).putInt(0, 1), 24);
+        }
+        store = open();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.contains("第一条")).isTrue();
+        assertThat(store.contains("第二条")).isFalse();
+        assertThat(Files.size(logFile())).isEqualTo(firstEnd);
+    }
+
+    @Test
+    void growsIndexAndKeepsEveryKey() throws IOException {
+        long initialIndexSize = Files.size(directory.resolve(FileSentenceStore.INDEX_FILE));
+        int count = 1_000;
+        for (int i = 0; i < count; i++) {
+            assertThat(store.add(Sentence.of("第" + i + "条", null, "api"), i)).isTrue();
+        }
+        assertThat(Files.size(directory.resolve(FileSentenceStore.INDEX_FILE))).isGreaterThan(initialIndexSize);
+        store.close();
+        store = open();
+
+        assertThat(store.size()).isEqualTo(count);
+        for (int i = 0; i < count; i++) {
+            assertThat(store.contains("第" + i + "条")).isTrue();
+        }
+        assertThat(store.contains("第" + count + "条")).isFalse();
+    }
+
+    private FileSentenceStore open() throws IOException {
+        FileSentenceStore opened = new FileSentenceStore(properties, null, ioExecutor);
+        opened.open();
+        return opened;
+    }
+
+    private List<SentenceStore.StoredSentence> records() {
+        List<SentenceStore.StoredSentence> records = new ArrayList<>();
+        store.forEach(records::add);
+        return records;
+    }
+
+    private Path logFile() {
+        return directory.resolve(FileSentenceStore.LOG_FILE);
+    }
+
+    private void appendToLog(byte[] bytes) throws IOException {
+        Files.write(logFile(), bytes, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 按日志格式加上负载长度和CRC32。
+     */
+    private static byte[] record(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length).putInt((int) crc.getValue()).put(payload).array();
+    }
+}
@@ -0,0 +1,271 @@
+package com.yiyan.infrastructure.persistence.binary;
+
+import com.yiyan.domain.Sentence;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryHistoryFormatTest {
+
+    @Test
+    void zigZagRoundTripsExtremes() {
+        long[] values = {0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            assertThat(BinaryHistoryFormat.zigZagDecode(BinaryHistoryFormat.zigZagEncode(value))).isEqualTo(value);
+        }
+        // 绝对值小的负数也编码为小的无符号数
+        assertThat(BinaryHistoryFormat.zigZagEncode(-1)).isEqualTo(1);
+        assertThat(BinaryHistoryFormat.zigZagEncode(1)).isEqualTo(2);
+        assertThat(BinaryHistoryFormat.zigZagEncode(Long.MIN_VALUE)).isEqualTo(-1L);
+    }
+
+    @Test
+    void readsBackTimestampsAcrossVarintBoundaries() {
+        // 相邻记录的时间差覆盖1、2、3字节变长整数的边界，包括负的和很大的差值
+        long[] deltas = {0, 63, 64, 127, 128, 8191, 8192, 16383, 16384, -1, -64, -65, -8192, -8193,
+                Integer.MAX_VALUE, -Integer.MAX_VALUE, 1L << 40};
+        List<Long> timestamps = new ArrayList<>();
+        long timestamp = 1_700_000_000_000L;
+        for (long delta : deltas) {
+            timestamp += delta;
+            timestamps.add(timestamp);
+        }
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        for (int i = 0; i < timestamps.size(); i++) {
+            writer.append(timestamps.get(i), Sentence.of("第" + i + "条", "作者", "api"));
+        }
+
+        BinaryHistoryReader reader = new BinaryHistoryReader(writer.pending());
+        for (int i = 0; i < timestamps.size(); i++) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.timestamp()).isEqualTo(timestamps.get(i));
+            assertThat(reader.textString()).isEqualTo("第" + i + "条");
+        }
+        assertThat(reader.next()).isFalse();
+        assertThat(reader.isTruncated()).isFalse();
+    }
+
+    @Test
+    void readsBackTextLengthsAcrossVarintBoundaries() {
+        int[] lengths = {0, 1, 127, 128, 129, 16383, 16384, 16385};
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        for (int length : lengths) {
+            writer.append(length, Sentence.of(text(length)));
+        }
+
+        BinaryHistoryReader reader = new BinaryHistoryReader(writer.pending());
+        for (int length : lengths) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.textLength()).isEqualTo(length);
+            assertThat(reader.text().toString()).isEqualTo(text(length));
+            assertThat(reader.textString()).isEqualTo(text(length));
+        }
+        assertThat(reader.next()).isFalse();
+    }
+
+    @Test
+    void reusesDictionaryEntriesAndKeepsNulls() {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        writer.append(1, Sentence.of("一", "鲁迅", "hitokoto"));
+        writer.append(2, Sentence.of("二", null, null));
+        writer.append(3, Sentence.of("三", "鲁迅", "jinrishici"));
+        writer.append(4, Sentence.of("四", "李白", "hitokoto"));
+
+        BinaryHistoryReader reader = new BinaryHistoryReader(writer.pending());
+        assertThat(reader.next()).isTrue();
+        int luXun = reader.authorId();
+        int hitokoto = reader.sourceId();
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.authorId()).isEqualTo(-1);
+        assertThat(reader.sourceId()).isEqualTo(-1);
+        assertThat(reader.author()).isNull();
+        assertThat(reader.source()).isNull();
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.authorId()).isEqualTo(luXun);
+        assertThat(reader.sourceId()).isNotEqualTo(hitokoto);
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.authorId()).isNotEqualTo(luXun);
+        assertThat(reader.sourceId()).isEqualTo(hitokoto);
+        Sentence sentence = reader.toSentence();
+        assertThat(sentence.getText()).isEqualTo("四");
+        assertThat(sentence.getAuthor()).isEqualTo("李白");
+        assertThat(sentence.getSource()).isEqualTo("hitokoto");
+        assertThat(reader.next()).isFalse();
+        assertThat(reader.authorCount()).isEqualTo(2);
+        assertThat(reader.sourceCount()).isEqualTo(2);
+    }
+
+    @Test
+    void stopsAtTruncatedTailAtEveryCut() {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        writer.append(1_000, Sentence.of("第一条", "作者", "api"));
+        writer.append(2_000, Sentence.of("第二条", "作者", "api"));
+        int completeEnd = writer.pending().remaining();
+        // 最后一条复用字典，只有一条记录本身
+        writer.append(3_000, Sentence.of(text(200), "作者", "api"));
+        byte[] data = bytes(writer.pending());
+
+        for (int cut = completeEnd + 1; cut < data.length; cut++) {
+            BinaryHistoryReader reader = new BinaryHistoryReader(ByteBuffer.wrap(data, 0, cut).slice());
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.timestamp()).isEqualTo(2_000);
+            assertThat(reader.next()).as("cut at %d", cut).isFalse();
+            assertThat(reader.isTruncated()).as("cut at %d", cut).isTrue();
+            assertThat(reader.position()).as("cut at %d", cut).isEqualTo(completeEnd);
+        }
+
+        BinaryHistoryReader complete = new BinaryHistoryReader(ByteBuffer.wrap(data));
+        int records = 0;
+        while (complete.next()) {
+            records++;
+        }
+        assertThat(records).isEqualTo(3);
+        assertThat(complete.isTruncated()).isFalse();
+        assertThat(complete.position()).isEqualTo(data.length);
+    }
+
+    @Test
+    void resumeContinuesAfterLastCompleteRecord() {
+        BinaryHistoryWriter first = BinaryHistoryWriter.create();
+        first.append(10_000, Sentence.of("第一条", "作者", "api"));
+        int completeEnd = first.pending().remaining();
+        first.append(20_000, Sentence.of("第二条", "作者", "api"));
+        // 第二条只写入了一部分
+        byte[] partial = Arrays.copyOf(bytes(first.pending()), first.pending().remaining() - 2);
+
+        BinaryHistoryWriter resumed = BinaryHistoryWriter.resume(ByteBuffer.wrap(partial));
+        assertThat(resumed.validEnd()).isEqualTo(completeEnd);
+        assertThat(resumed.pending().remaining()).isZero();
+        // 时间差相对于恢复出的上一条记录，字典沿用已有的编号
+        resumed.append(5_000, Sentence.of("第三条", "作者", "api"));
+        resumed.append(6_000, Sentence.of("第四条", "新作者", null));
+
+        byte[] appended = bytes(resumed.pending());
+        byte[] file = Arrays.copyOf(partial, completeEnd + appended.length);
+        System.arraycopy(appended, 0, file, completeEnd, appended.length);
+        BinaryHistoryReader reader = new BinaryHistoryReader(ByteBuffer.wrap(file));
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.textString()).isEqualTo("第一条");
+        int author = reader.authorId();
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.textString()).isEqualTo("第三条");
+        assertThat(reader.timestamp()).isEqualTo(5_000);
+        assertThat(reader.authorId()).isEqualTo(author);
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.author()).isEqualTo("新作者");
+        assertThat(reader.source()).isNull();
+        assertThat(reader.next()).isFalse();
+        assertThat(reader.isTruncated()).isFalse();
+    }
+
+    @Test
+    void resumeOfEmptyFileWritesHeader() {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.resume(ByteBuffer.allocate(0));
+        assertThat(writer.validEnd()).isZero();
+        assertThat(writer.pending().remaining()).isEqualTo(BinaryHistoryFormat.HEADER_BYTES);
+    }
+
+    @Test
+    void indexReadsRecordsByPositionAndExtendsAfterRemap() {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        for (int i = 0; i < 3000; i++) {
+            writer.append(i, Sentence.of("第" + i + "条", i % 2 == 0 ? "作者" + (i % 5) : null, "api"));
+        }
+        byte[] data = bytes(writer.pending());
+        // 映射时最后一条记录只写入了一部分，空文件也还没有头部
+        BinaryHistoryIndex index = new BinaryHistoryIndex(ByteBuffer.allocate(0));
+        assertThat(index.size()).isZero();
+        index.remap(ByteBuffer.wrap(data, 0, data.length - 2).slice());
+        assertThat(index.size()).isEqualTo(2999);
+
+        index.remap(ByteBuffer.wrap(data));
+        assertThat(index.size()).isEqualTo(3000);
+        assertThat(index.sentence(2999)).extracting(Sentence::getText, Sentence::getAuthor, Sentence::getSource)
+                .containsExactly("第2999条", null, "api");
+        assertThat(index.sentence(1024)).extracting(Sentence::getText, Sentence::getAuthor, Sentence::getSource)
+                .containsExactly("第1024条", "作者4", "api");
+        assertThat(index.sentence(0).getText()).isEqualTo("第0条");
+        assertThatThrownBy(() -> index.sentence(3000)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void channelReaderHandlesRecordsLargerThanWindow() {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            // 中间夹一条超过64KB读取窗口的记录
+            texts.add(i == 25 ? text(200 * 1024) : "第" + i + "条" + text(i * 97));
+            writer.append(i * 1_000L, Sentence.of(texts.get(i), "作者" + (i % 3), null));
+        }
+        byte[] data = bytes(writer.pending());
+
+        BinaryHistoryReader reader = new BinaryHistoryReader(Channels.newChannel(new ByteArrayInputStream(data)));
+        for (int i = 0; i < texts.size(); i++) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.timestamp()).isEqualTo(i * 1_000L);
+            assertThat(reader.author()).isEqualTo("作者" + (i % 3));
+            assertThat(reader.textString()).isEqualTo(texts.get(i));
+        }
+        assertThat(reader.next()).isFalse();
+        assertThat(reader.isTruncated()).isFalse();
+        assertThat(reader.position()).isEqualTo(data.length);
+    }
+
+    @Test
+    void channelReaderStopsAtTruncatedTail() {
+        BinaryHistoryWriter writer = BinaryHistoryWriter.create();
+        writer.append(1, Sentence.of(text(100 * 1024)));
+        int completeEnd = writer.pending().remaining();
+        writer.append(2, Sentence.of(text(100 * 1024)));
+        byte[] data = Arrays.copyOf(bytes(writer.pending()), writer.pending().remaining() - 1);
+
+        BinaryHistoryReader reader = new BinaryHistoryReader(Channels.newChannel(new ByteArrayInputStream(data)));
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.next()).isFalse();
+        assertThat(reader.isTruncated()).isTrue();
+        assertThat(reader.position()).isEqualTo(completeEnd);
+    }
+
+    @Test
+    void emptyInputHasNoRecords() {
+        BinaryHistoryReader buffered = new BinaryHistoryReader(ByteBuffer.allocate(0));
+        assertThat(buffered.next()).isFalse();
+        assertThat(buffered.isTruncated()).isFalse();
+
+        BinaryHistoryReader streamed = new BinaryHistoryReader(Channels.newChannel(new ByteArrayInputStream(new byte[0])));
+        assertThat(streamed.next()).isFalse();
+        assertThat(streamed.isTruncated()).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidHeader() {
+        assertThatThrownBy(() -> new BinaryHistoryReader(ByteBuffer.wrap("[2024-01-01 00:00:00] 文本".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BinaryHistoryReader(ByteBuffer.wrap(new byte[]{'Y', 'Y'})))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BinaryHistoryReader(ByteBuffer.wrap(new byte[]{'Y', 'Y', 'H', 'B', 99})))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        return text.toString();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        return Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit());
+    }
+}
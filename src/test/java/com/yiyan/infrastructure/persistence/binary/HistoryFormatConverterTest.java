@@ -0,0 +1,86 @@
+package com.yiyan.infrastructure.persistence.binary;
+
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.persistence.HistorySegments;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryFormatConverterTest {
+
+    /**
+     * 文本格式只精确到秒，也没有来源字段
+     */
+    private static final long BASE = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void textToBinaryAndBackKeepsLines() throws IOException {
+        String text = sampleText();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        long converted = HistoryFormatConverter.textToBinary(new BufferedReader(new StringReader(text)), binary);
+        assertThat(converted).isEqualTo(4);
+
+        StringWriter back = new StringWriter();
+        assertThat(HistoryFormatConverter.binaryToText(ByteBuffer.wrap(binary.toByteArray()), back)).isEqualTo(4);
+        assertThat(back.toString()).isEqualTo(text);
+    }
+
+    @Test
+    void skipsBlankLines() throws IOException {
+        String text = System.lineSeparator() + sampleText() + "   " + System.lineSeparator();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        assertThat(HistoryFormatConverter.textToBinary(new BufferedReader(new StringReader(text)), binary)).isEqualTo(4);
+    }
+
+    @Test
+    void roundTripsThroughCompressedFiles() throws IOException {
+        Path text = directory.resolve("history.txt");
+        Files.writeString(text, sampleText(), StandardCharsets.UTF_8);
+        Path binary = directory.resolve("history" + BinaryHistoryFormat.FILE_SUFFIX + ".gz");
+        Path back = directory.resolve("back.txt.gz");
+
+        assertThat(HistoryFormatConverter.textToBinary(text, binary)).isEqualTo(4);
+        assertThat(HistoryFormatConverter.binaryToText(binary, back)).isEqualTo(4);
+
+        try (BinaryHistoryReader reader = HistoryFormatConverter.openBinary(binary)) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.timestamp()).isEqualTo(BASE);
+        }
+        Path uncompressed = directory.resolve("history" + BinaryHistoryFormat.FILE_SUFFIX);
+        Path plain = directory.resolve("back.txt");
+        assertThat(HistoryFormatConverter.textToBinary(back, uncompressed)).isEqualTo(4);
+        assertThat(HistoryFormatConverter.binaryToText(uncompressed, plain)).isEqualTo(4);
+        assertThat(Files.readString(plain, StandardCharsets.UTF_8)).isEqualTo(sampleText());
+    }
+
+    @Test
+    void openBinaryOfEmptyFileHasNoRecords() throws IOException {
+        Path empty = Files.createFile(directory.resolve("empty" + BinaryHistoryFormat.FILE_SUFFIX));
+        try (BinaryHistoryReader reader = HistoryFormatConverter.openBinary(empty)) {
+            assertThat(reader.next()).isFalse();
+            assertThat(reader.isTruncated()).isFalse();
+        }
+    }
+
+    private static String sampleText() {
+        return HistorySegments.formatLine(BASE, Sentence.of("人生若只如初见", "纳兰性德"))
+                + HistorySegments.formatLine(BASE + 61_000, Sentence.of("没有作者的一句"))
+                // 时间倒退，写入二进制时是负的时间差
+                + HistorySegments.formatLine(BASE - 3_600_000, Sentence.of("Stay hungry, stay foolish.", "Steve Jobs"))
+                + HistorySegments.formatLine(BASE + 86_400_000L * 400, Sentence.of("长".repeat(300), "纳兰性德"));
+    }
+}
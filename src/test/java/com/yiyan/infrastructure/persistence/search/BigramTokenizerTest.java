@@ -0,0 +1,50 @@
+package com.yiyan.infrastructure.persistence.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BigramTokenizerTest {
+
+    @Test
+    void documentTokensAreSortedDistinctUnigramsAndBigrams() {
+        assertThat(BigramTokenizer.documentTokens("天天向"))
+                .containsExactly(unigram('向'), unigram('天'), bigram('天', '向'), bigram('天', '天'));
+    }
+
+    @Test
+    void bigramsDoNotSpanFields() {
+        long[] tokens = BigramTokenizer.documentTokens("甲乙", "丙");
+        assertThat(tokens).contains(bigram('甲', '乙'), unigram('丙'));
+        assertThat(tokens).doesNotContain(bigram('乙', '丙'));
+        assertThat(BigramTokenizer.documentTokens("", "")).isEmpty();
+    }
+
+    @Test
+    void supplementaryCodePointsAreSingleCharacters() {
+        String ext = new String(Character.toChars(0x20000)); // CJK 扩展B区
+        long[] tokens = BigramTokenizer.documentTokens(ext + "字");
+        assertThat(tokens).containsExactlyInAnyOrder(unigram(0x20000), unigram('字'), bigram(0x20000, '字'));
+        assertThat(BigramTokenizer.queryTokens(ext)).containsExactly(unigram(0x20000));
+    }
+
+    @Test
+    void singleCharacterQueryUsesUnigram() {
+        assertThat(BigramTokenizer.queryTokens("风")).containsExactly(unigram('风'));
+    }
+
+    @Test
+    void longerQueryUsesOnlyDistinctBigrams() {
+        assertThat(BigramTokenizer.queryTokens("哈哈哈")).containsExactly(bigram('哈', '哈'));
+        assertThat(BigramTokenizer.queryTokens("春眠不")).containsExactlyInAnyOrder(bigram('春', '眠'), bigram('眠', '不'));
+        assertThat(BigramTokenizer.queryTokens("")).isEmpty();
+    }
+
+    private static long unigram(int cp) {
+        return (long) cp << 32;
+    }
+
+    private static long bigram(int first, int second) {
+        return ((long) first << 32) | second;
+    }
+}
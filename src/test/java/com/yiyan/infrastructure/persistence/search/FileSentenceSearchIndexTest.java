@@ -0,0 +1,140 @@
+package com.yiyan.infrastructure.persistence.search;
+
+import com.yiyan.config.HistoryProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.persistence.FileSentenceStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSentenceSearchIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private ExecutorService ioExecutor;
+    private FileSentenceStore store;
+    private FileSentenceSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // 已关闭的执行器：跳过历史存储首次启动时的回填
+        ioExecutor = Executors.newSingleThreadExecutor();
+        ioExecutor.shutdown();
+        open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+        store.close();
+    }
+
+    @Test
+    void findsSentenceByTextOrAuthor() {
+        store.add(Sentence.of("春眠不觉晓，处处闻啼鸟。", "孟浩然"), 1);
+        store.add(Sentence.of("床前明月光", "李白", "hitokoto"), 2);
+
+        assertThat(texts(index.search("处处闻", 10))).containsExactly("春眠不觉晓，处处闻啼鸟。");
+        assertThat(texts(index.search("李白", 10))).containsExactly("床前明月光");
+        assertThat(index.search("李白", 10).get(0).sentence().getSource()).isEqualTo("hitokoto");
+        assertThat(texts(index.search("月", 10))).containsExactly("床前明月光");
+        assertThat(index.search("不存在", 10)).isEmpty();
+        assertThat(index.search("，。", 10)).isEmpty();
+    }
+
+    @Test
+    void indexesEachStoredRecordOnce() {
+        store.add(Sentence.of("Hello World"), 1);
+        store.add(Sentence.of("hello, world!"), 2);
+        assertThat(index.size()).isEqualTo(1);
+
+        List<SentenceSearch.SearchHit> hits = index.search("hello", 10);
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).timestamp()).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    /**
+     * 文档编号的间隔跨越变长整数的1、2、3字节边界，两个倒排表交错，
+     * 检查解码和边解码边求交集的结果（按从新到旧排列）。
+     */
+    @Test
+    void intersectsPostingsAcrossVarintBoundaries() {
+        int documents = 40_000;
+        for (int doc = 0; doc < documents; doc++) {
+            store.add(Sentence.of(text(doc)), doc);
+        }
+
+        List<String> both = texts(index.search("甲乙丙", documents));
+        assertThat(both).containsExactly(text(30_000), text(20_000), text(200), text(0));
+
+        assertThat(texts(index.search("甲乙", documents))).hasSize(7);
+        assertThat(texts(index.search("甲乙丙", 2))).containsExactly(text(30_000), text(20_000));
+    }
+
+    @Test
+    void snapshotRestoresPostings() throws IOException {
+        for (int doc = 0; doc < 1_000; doc++) {
+            store.add(Sentence.of(text(doc)), doc);
+        }
+        index.close();
+        // 快照之后存储中新增的记录在重新打开时补入
+        store.add(Sentence.of("甲乙丙 快照后"), 1_000);
+        store.close();
+        open();
+        store.add(Sentence.of("甲乙丙 新增"), 1_001);
+
+        assertThat(index.size()).isEqualTo(1_002);
+        assertThat(texts(index.search("甲乙丙", 10))).containsExactly("甲乙丙 新增", "甲乙丙 快照后", text(200), text(0));
+    }
+
+    @Test
+    void rebuildsWhenSnapshotIsAheadOfStore() throws IOException {
+        store.add(Sentence.of("甲乙丙 第一条"), 1);
+        store.add(Sentence.of("甲乙丙 第二条"), 2);
+        index.close();
+        store.close();
+        // 存储被删除重建，快照覆盖的位置超出了新的存储日志
+        Files.delete(directory.resolve("sentences.log"));
+        Files.delete(directory.resolve("sentences.idx"));
+        open();
+        store.add(Sentence.of("甲乙丙 重建后"), 3);
+
+        assertThat(texts(index.search("甲乙丙", 10))).containsExactly("甲乙丙 重建后");
+    }
+
+    /**
+     * "甲乙丙" 只出现在第 0、200、20000、30000 号文档；"甲乙" 另外出现在 1、129、16584 号文档（与前一个文档的间隔为1、128、16384，正好是变长整数增加一个字节的边界）
+     */
+    private static String text(int doc) {
+        return switch (doc) {
+            case 0, 200, 20_000, 30_000 -> "甲乙丙" + doc;
+            case 1, 129, 16_584 -> "甲乙" + doc;
+            default -> "文档" + doc;
+        };
+    }
+
+    private void open() throws IOException {
+        HistoryProperties properties = new HistoryProperties();
+        properties.setStoreDirectory(directory.toString());
+        store = new FileSentenceStore(properties, null, ioExecutor);
+        store.open();
+        index = new FileSentenceSearchIndex(properties, store);
+        index.open();
+    }
+
+    private static List<String> texts(List<SentenceSearch.SearchHit> hits) {
+        return hits.stream().map(hit -> hit.sentence().getText()).toList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.yiyan.infrastructure.persistence.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+
+    @Test
+    void missingKeyReturnsMinusOne() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertThat(map.get(42)).isEqualTo(-1);
+    }
+
+    @Test
+    void keepsAllEntriesAcrossGrowth() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            // 低32位相同、只有高位不同的键，与词项键的分布类似
+            map.put(key(i), i);
+        }
+        assertThat(map.size()).isEqualTo(count);
+        for (int i = 0; i < count; i++) {
+            assertThat(map.get(key(i))).isEqualTo(i);
+        }
+        assertThat(map.get(key(count))).isEqualTo(-1);
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        map.put(key(1), 1);
+        map.put(key(2), 2);
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.get(key(1))).isEqualTo(-1);
+        map.put(key(1), 7);
+        assertThat(map.get(key(1))).isEqualTo(7);
+    }
+
+    private static long key(int i) {
+        return ((long) (0x4E00 + i) << 32) | 0x5B57;
+    }
+}
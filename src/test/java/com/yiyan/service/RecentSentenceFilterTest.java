@@ -0,0 +1,108 @@
+package com.yiyan.service;
+
+import com.yiyan.config.DedupProperties;
+import com.yiyan.domain.Sentence;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentSentenceFilterTest {
+
+    @Test
+    void rejectsRepeatWithinWindow() {
+        RecentSentenceFilter filter = filter(3);
+        assertThat(filter.isRecentDuplicate(Sentence.of("一"))).isFalse();
+        assertThat(filter.isRecentDuplicate(Sentence.of("二"))).isFalse();
+        assertThat(filter.isRecentDuplicate(Sentence.of("一"))).isTrue();
+    }
+
+    @Test
+    void comparesNormalizedText() {
+        RecentSentenceFilter filter = filter(8);
+        assertThat(filter.isRecentDuplicate(Sentence.of("Hello, World!"))).isFalse();
+        // 全角、大小写、空白和标点不影响判断
+        assertThat(filter.isRecentDuplicate(Sentence.of("ＨＥＬＬＯ   world"))).isTrue();
+    }
+
+    @Test
+    void oldestEntryLeavesWindowWhenFull() {
+        RecentSentenceFilter filter = filter(2);
+        filter.isRecentDuplicate(Sentence.of("a"));
+        filter.isRecentDuplicate(Sentence.of("b"));
+        filter.isRecentDuplicate(Sentence.of("c")); // "a" 被挤出
+        assertThat(filter.isRecentDuplicate(Sentence.of("a"))).isFalse();
+        assertThat(filter.isRecentDuplicate(Sentence.of("c"))).isTrue();
+    }
+
+    @Test
+    void duplicateDoesNotRefreshItsPosition() {
+        RecentSentenceFilter filter = filter(2);
+        filter.isRecentDuplicate(Sentence.of("a"));
+        filter.isRecentDuplicate(Sentence.of("b"));
+        assertThat(filter.isRecentDuplicate(Sentence.of("a"))).isTrue();
+        filter.isRecentDuplicate(Sentence.of("c")); // 仍然挤出 "a"
+        assertThat(filter.isRecentDuplicate(Sentence.of("a"))).isFalse();
+    }
+
+    @Test
+    void disabledFilterAcceptsEverything() {
+        DedupProperties properties = new DedupProperties();
+        properties.setEnabled(false);
+        RecentSentenceFilter filter = new RecentSentenceFilter(properties);
+        assertThat(filter.isRecentDuplicate(Sentence.of("a"))).isFalse();
+        assertThat(filter.isRecentDuplicate(Sentence.of("a"))).isFalse();
+    }
+
+    /**
+     * 小窗口、小候选池的长随机序列：哈希表只有几个槽位，探测链频繁交错并跨越数组末尾，
+     * 后移删除出错时会丢失仍在窗口中的指纹或留下已移出的指纹，与参考模型的结果不一致。
+     */
+    @Test
+    void matchesReferenceModelUnderChurn() {
+        for (int windowSize : new int[]{1, 2, 3, 5, 8, 13}) {
+            RecentSentenceFilter filter = filter(windowSize);
+            Deque<String> model = new ArrayDeque<>();
+            Random random = new Random(windowSize);
+            for (int step = 0; step < 20_000; step++) {
+                String text = "sentence-" + random.nextInt(windowSize * 3);
+                boolean expected = model.contains(text);
+                if (!expected) {
+                    if (model.size() == windowSize) {
+                        model.removeFirst();
+                    }
+                    model.addLast(text);
+                }
+                assertThat(filter.isRecentDuplicate(Sentence.of(text)))
+                        .as("window %d, step %d, text %s", windowSize, step, text)
+                        .isEqualTo(expected);
+            }
+            assertThat(filter.stats().size()).isEqualTo(model.size());
+        }
+    }
+
+    @Test
+    void statsCountChecksAndDuplicates() {
+        RecentSentenceFilter filter = filter(4);
+        filter.isRecentDuplicate(Sentence.of("a"));
+        filter.isRecentDuplicate(Sentence.of("a"));
+        filter.isRecentDuplicate(Sentence.of("b"));
+        filter.isRecentDuplicate(Sentence.of("a"));
+
+        RecentSentenceFilter.Stats stats = filter.stats();
+        assertThat(stats.windowSize()).isEqualTo(4);
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.checks()).isEqualTo(4);
+        assertThat(stats.duplicates()).isEqualTo(2);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+    }
+
+    private static RecentSentenceFilter filter(int windowSize) {
+        DedupProperties properties = new DedupProperties();
+        properties.setWindowSize(windowSize);
+        return new RecentSentenceFilter(properties);
+    }
+}
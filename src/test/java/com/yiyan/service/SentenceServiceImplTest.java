@@ -0,0 +1,102 @@
+package com.yiyan.service;
+
+import com.yiyan.config.DedupProperties;
+import com.yiyan.config.PrefetchProperties;
+import com.yiyan.domain.Sentence;
+import com.yiyan.infrastructure.adapter.LocalCorpusSentenceRepository;
+import com.yiyan.infrastructure.adapter.SentenceRepository;
+import com.yiyan.infrastructure.adapter.api.health.ApiHealthReport;
+import com.yiyan.infrastructure.metrics.FetchMetrics;
+import com.yiyan.infrastructure.persistence.SentenceStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SentenceServiceImplTest {
+
+    private final List<Object> events = new ArrayList<>();
+
+    @Test
+    void remoteSentenceIsReportedAsRemote() {
+        SentenceServiceImpl service = service(Sentence.of("网络", "作者", "hitokoto"), false);
+
+        assertThat(service.fetchNewSentenceAsync(false).join()).isEqualTo(FetchOutcome.REMOTE);
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void localFallbackIsPublishedButReportedAsRemoteFailure() {
+        SentenceServiceImpl service = service(Sentence.of("本地", "作者", LocalCorpusSentenceRepository.SOURCE), false);
+
+        FetchOutcome outcome = service.fetchNewSentenceAsync(false).join();
+
+        // 回退的"一言"照常展示，但调度器不能据此认为网络已恢复
+        assertThat(events).hasSize(1);
+        assertThat(outcome).isEqualTo(FetchOutcome.LOCAL_FALLBACK);
+        assertThat(outcome.isRemoteAvailable()).isFalse();
+    }
+
+    @Test
+    void bufferedSentenceIsReportedAsPrefetched() {
+        SentenceServiceImpl service = service(Sentence.of("网络", "作者", "hitokoto"), true);
+
+        assertThat(service.fetchNewSentenceAsync(false).join()).isEqualTo(FetchOutcome.PREFETCHED);
+    }
+
+    private SentenceServiceImpl service(Sentence fetched, boolean buffered) {
+        SentenceRepository repository = new SentenceRepository() {
+            @Override
+            public Optional<Sentence> fetchRandomSentence(boolean skipValidation) {
+                return Optional.of(fetched);
+            }
+
+            @Override
+            public CompletableFuture<Optional<Sentence>> fetchRandomSentenceAsync(boolean skipValidation) {
+                return CompletableFuture.completedFuture(Optional.of(fetched));
+            }
+
+            @Override
+            public CompletableFuture<ApiHealthReport> checkAllApisAsync() {
+                return new CompletableFuture<>();
+            }
+        };
+        PrefetchProperties prefetchProperties = new PrefetchProperties();
+        prefetchProperties.setEnabled(buffered);
+        SentencePrefetchBuffer prefetchBuffer = new SentencePrefetchBuffer(repository, prefetchProperties);
+        if (buffered) {
+            prefetchBuffer.restore(List.of(Sentence.of("预取", "作者", "hitokoto")));
+        }
+        DedupProperties dedupProperties = new DedupProperties();
+        return new SentenceServiceImpl(repository, events::add, prefetchBuffer, new RecentSentenceFilter(dedupProperties),
+                new EmptyStore(), dedupProperties, new FetchMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static final class EmptyStore implements SentenceStore {
+
+        @Override
+        public boolean add(Sentence sentence, long timestamp) {
+            return true;
+        }
+
+        @Override
+        public boolean contains(String text) {
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public void forEach(Consumer<StoredSentence> action) {
+        }
+    }
+}